@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Startet die Benchmarks mit den JMH-Kommandozeilenoptionen und dem GC-Profiler und gibt danach je Benchmark den
+ * Durchsatz in MB/s und die Allokationsrate in Bytes je Zeile aus.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public final class CsvBenchmarkMain {
+
+	private CsvBenchmarkMain() {
+	}
+
+	public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+		final Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+		final Collection<RunResult> results = new Runner(options).run();
+
+		System.out.println();
+		System.out.println(String.format(Locale.ROOT, "%-60s %-24s %10s %12s", "Benchmark", "Parameter", "MB/s", "Bytes/Zeile"));
+		for(final RunResult result : results) {
+			final Map<String, Result> secondary = result.getSecondaryResults();
+			final Result megabytes = secondary.get("megabytes");
+			final Result rows = secondary.get("rows");
+			final Result allocation = secondary.get("gc.alloc.rate.norm");
+			if(megabytes == null || rows == null) continue;
+
+			// gc.alloc.rate.norm bezieht sich auf eine Operation, die Zähler auf eine Sekunde
+			final double rowsPerOperation = rows.getScore() / result.getPrimaryResult().getScore();
+			final double bytesPerRow = allocation == null || rowsPerOperation == 0 ? Double.NaN : allocation.getScore() / rowsPerOperation;
+
+			final StringBuilder params = new StringBuilder();
+			for(final String key : result.getParams().getParamsKeys()) {
+				if(params.length() > 0) params.append(' ');
+				params.append(result.getParams().getParam(key));
+			}
+			System.out.println(String.format(Locale.ROOT, "%-60s %-24s %10.1f %12.1f", result.getParams().getBenchmark(), params, megabytes.getScore(), bytesPerRow));
+		}
+	}
+}
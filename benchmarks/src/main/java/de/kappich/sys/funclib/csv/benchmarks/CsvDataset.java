@@ -0,0 +1,226 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Erzeugt Testdaten für die Benchmarks. Die Daten werden mit festem Startwert zufällig erzeugt, so dass jeder Lauf
+ * dieselben Dateien verwendet.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public enum CsvDataset {
+
+	/**
+	 * 4 kurze Spalten ohne Anführungszeichen
+	 */
+	NARROW(4) {
+		@Override
+		void appendRow(final StringBuilder row, final Random random, final int rowIndex) {
+			row.append(rowIndex).append(';');
+			appendWord(row, random);
+			row.append(';').append(random.nextInt(1000)).append(';');
+			appendWord(row, random);
+		}
+	},
+
+	/**
+	 * 60 Spalten ohne Anführungszeichen, typisch für breite Exporte, von denen nur wenige Spalten benötigt werden
+	 */
+	WIDE(60) {
+		@Override
+		void appendRow(final StringBuilder row, final Random random, final int rowIndex) {
+			row.append(rowIndex);
+			for(int i = 1; i < getNumColumns(); i++) {
+				row.append(';');
+				if(i % 3 == 0) {
+					row.append(random.nextInt(100000));
+				}
+				else {
+					appendWord(row, random);
+				}
+			}
+		}
+	},
+
+	/**
+	 * 8 Spalten, alle Texte in Anführungszeichen, teilweise mit maskierten Anführungszeichen und Trennzeichen
+	 */
+	QUOTED(8) {
+		@Override
+		void appendRow(final StringBuilder row, final Random random, final int rowIndex) {
+			row.append(rowIndex);
+			for(int i = 1; i < getNumColumns(); i++) {
+				row.append(";\"");
+				appendWord(row, random);
+				switch(random.nextInt(4)) {
+					case 0:
+						row.append(" \"\"");
+						appendWord(row, random);
+						row.append("\"\"");
+						break;
+					case 1:
+						row.append("; ");
+						appendWord(row, random);
+						break;
+					default:
+						break;
+				}
+				row.append('"');
+			}
+		}
+	},
+
+	/**
+	 * 6 Spalten, ein Teil der Zellen enthält Zeilenumbrüche
+	 */
+	MULTILINE(6) {
+		@Override
+		void appendRow(final StringBuilder row, final Random random, final int rowIndex) {
+			row.append(rowIndex);
+			for(int i = 1; i < getNumColumns(); i++) {
+				row.append(';');
+				if(random.nextInt(3) == 0) {
+					row.append('"');
+					appendWord(row, random);
+					row.append("\r\n");
+					appendWord(row, random);
+					row.append('"');
+				}
+				else {
+					appendWord(row, random);
+				}
+			}
+		}
+	},
+
+	/**
+	 * 8 Spalten mit Ganzzahlen (int und long), Kommazahlen mit ',' und '.' sowie einem Text
+	 */
+	NUMERIC(8) {
+		@Override
+		void appendRow(final StringBuilder row, final Random random, final int rowIndex) {
+			row.append(rowIndex).append(';');
+			row.append(random.nextLong() >>> 16).append(';');
+			row.append(random.nextInt(100000)).append(',').append(random.nextInt(100)).append(';');
+			row.append(random.nextDouble()).append(';');
+			row.append(random.nextInt(2000) - 1000).append(';');
+			row.append(random.nextInt(1000000)).append(';');
+			row.append(random.nextInt(10000)).append('.').append(random.nextInt(1000)).append(';');
+			appendWord(row, random);
+		}
+	};
+
+	/**
+	 * Spalte mit Integer-Werten in {@link #NUMERIC}
+	 */
+	public static final int NUMERIC_INT_COLUMN = 0;
+
+	/**
+	 * Spalte mit Long-Werten in {@link #NUMERIC}
+	 */
+	public static final int NUMERIC_LONG_COLUMN = 1;
+
+	/**
+	 * Spalte mit Double-Werten (Dezimalkomma) in {@link #NUMERIC}
+	 */
+	public static final int NUMERIC_DOUBLE_COLUMN = 2;
+
+	/**
+	 * Spalte mit Texten in {@link #NUMERIC}
+	 */
+	public static final int NUMERIC_STRING_COLUMN = 7;
+
+	private static final String[] WORDS = {
+			"Aachen", "Köln", "Düsseldorf", "Straße", "Messstelle", "Fahrstreifen", "Verkehrsstärke", "Geschwindigkeit",
+			"Belegung", "Stau", "frei", "zähfließend", "Baustelle", "Sperrung", "Umleitung", "Brücke"
+	};
+
+	private final int _numColumns;
+
+	CsvDataset(final int numColumns) {
+		_numColumns = numColumns;
+	}
+
+	/**
+	 * Gibt die Anzahl Spalten zurück
+	 * @return Anzahl Spalten
+	 */
+	public int getNumColumns() {
+		return _numColumns;
+	}
+
+	/**
+	 * Schreibt eine Datei mit Spaltenüberschriften und so vielen Zeilen, dass die Datei mindestens die angegebene Größe
+	 * in Zeichen hat
+	 * @param file Datei
+	 * @param encoding Dateikodierung
+	 * @param minChars Mindestanzahl Zeichen
+	 * @return Anzahl geschriebener Datensätze (ohne Spaltenüberschriften)
+	 * @throws IOException IO-Fehler
+	 */
+	public int write(final Path file, final Charset encoding, final long minChars) throws IOException {
+		final Random random = new Random(_numColumns);
+		final StringBuilder row = new StringBuilder();
+		long numChars = 0;
+		int numRows = 0;
+		try(Writer writer = Files.newBufferedWriter(file, encoding)) {
+			for(int i = 0; i < _numColumns; i++) {
+				if(i > 0) row.append(';');
+				row.append("Spalte").append(i);
+			}
+			while(numChars < minChars) {
+				row.append("\r\n");
+				writer.append(row);
+				numChars += row.length();
+				row.setLength(0);
+				appendRow(row, random, numRows++);
+			}
+		}
+		// Die zuletzt erzeugte Zeile wird nicht mehr geschrieben
+		return numRows - 1;
+	}
+
+	/**
+	 * Erzeugt eine Zeile ohne Zeilenende
+	 * @param row Puffer
+	 * @param random Zufallsgenerator
+	 * @param rowIndex Nummer der Zeile
+	 */
+	abstract void appendRow(StringBuilder row, Random random, int rowIndex);
+
+	private static void appendWord(final StringBuilder row, final Random random) {
+		row.append(WORDS[random.nextInt(WORDS.length)]);
+	}
+}
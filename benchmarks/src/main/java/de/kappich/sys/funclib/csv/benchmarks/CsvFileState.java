@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Testdatei eines Benchmarks. Die Datei wird einmal je Parameterkombination erzeugt und zusätzlich als Byte-Array
+ * gehalten, damit beim Lesen aus einem InputStream keine Dateizugriffe gemessen werden.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+@State(Scope.Benchmark)
+public class CsvFileState {
+
+	@Param({"NARROW", "WIDE", "QUOTED", "MULTILINE", "NUMERIC"})
+	public CsvDataset dataset;
+
+	@Param({"UTF-8", "ISO-8859-1"})
+	public String encoding;
+
+	/**
+	 * Ungefähre Größe der Datei in MB
+	 */
+	@Param("16")
+	public int sizeMb;
+
+	public Charset charset;
+
+	public Path file;
+
+	public byte[] bytes;
+
+	public int numRows;
+
+	public double megabytes;
+
+	@Setup(Level.Trial)
+	public void createFile() throws IOException {
+		charset = Charset.forName(encoding);
+		file = Files.createTempFile("csv-benchmark-" + dataset, ".csv");
+		numRows = dataset.write(file, charset, sizeMb * 1024L * 1024L);
+		bytes = Files.readAllBytes(file);
+		megabytes = bytes.length / (1024.0 * 1024.0);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFile() throws IOException {
+		Files.deleteIfExists(file);
+	}
+}
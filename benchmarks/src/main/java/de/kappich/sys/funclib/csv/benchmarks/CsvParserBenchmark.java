@@ -0,0 +1,155 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv.benchmarks;
+
+import de.kappich.sys.funclib.csv.CsvColumn;
+import de.kappich.sys.funclib.csv.CsvData;
+import de.kappich.sys.funclib.csv.CsvParseException;
+import de.kappich.sys.funclib.csv.CsvReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks für {@link CsvData.CsvRow#getValue(CsvColumn)} mit den mitgelieferten Parsern. Die Daten ({@link
+ * CsvDataset#NUMERIC}) werden einmal eingelesen, gemessen wird nur der Zugriff auf die Werte.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParserBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class NumericData {
+
+		public final CsvFileState source = new CsvFileState();
+
+		public CsvData data;
+
+		public CsvColumn<String> stringColumn;
+
+		public CsvColumn<Integer> intColumn;
+
+		public CsvColumn<Long> longColumn;
+
+		public CsvColumn<Double> doubleColumn;
+
+		@Setup(Level.Trial)
+		public void readData() throws IOException {
+			source.dataset = CsvDataset.NUMERIC;
+			source.encoding = "UTF-8";
+			source.sizeMb = 16;
+			source.createFile();
+			try(CsvReader reader = new CsvReader(source.file, source.charset)) {
+				data = reader.readAll();
+			}
+			stringColumn = data.getColumn(CsvDataset.NUMERIC_STRING_COLUMN);
+			intColumn = data.getIntColumn(CsvDataset.NUMERIC_INT_COLUMN);
+			longColumn = data.getLongColumn(CsvDataset.NUMERIC_LONG_COLUMN);
+			doubleColumn = data.getDoubleColumn(CsvDataset.NUMERIC_DOUBLE_COLUMN);
+		}
+
+		@TearDown(Level.Trial)
+		public void deleteFile() throws IOException {
+			source.deleteFile();
+		}
+	}
+
+	@Benchmark
+	public void getValueString(final NumericData state, final CsvThroughput throughput, final Blackhole blackhole) throws CsvParseException {
+		for(final CsvData.CsvRow row : state.data) {
+			blackhole.consume(row.getValue(state.stringColumn));
+		}
+		throughput.add(state.source);
+	}
+
+	@Benchmark
+	public void getValueInteger(final NumericData state, final CsvThroughput throughput, final Blackhole blackhole) throws CsvParseException {
+		for(final CsvData.CsvRow row : state.data) {
+			blackhole.consume(row.getValue(state.intColumn));
+		}
+		throughput.add(state.source);
+	}
+
+	@Benchmark
+	public void getValueLong(final NumericData state, final CsvThroughput throughput, final Blackhole blackhole) throws CsvParseException {
+		for(final CsvData.CsvRow row : state.data) {
+			blackhole.consume(row.getValue(state.longColumn));
+		}
+		throughput.add(state.source);
+	}
+
+	@Benchmark
+	public void getValueDouble(final NumericData state, final CsvThroughput throughput, final Blackhole blackhole) throws CsvParseException {
+		for(final CsvData.CsvRow row : state.data) {
+			blackhole.consume(row.getValue(state.doubleColumn));
+		}
+		throughput.add(state.source);
+	}
+
+	@Benchmark
+	public void getInt(final NumericData state, final CsvThroughput throughput, final Blackhole blackhole) throws CsvParseException {
+		for(final CsvData.CsvRow row : state.data) {
+			blackhole.consume(row.getInt(state.intColumn));
+		}
+		throughput.add(state.source);
+	}
+
+	@Benchmark
+	public void getLong(final NumericData state, final CsvThroughput throughput, final Blackhole blackhole) throws CsvParseException {
+		for(final CsvData.CsvRow row : state.data) {
+			blackhole.consume(row.getLong(state.longColumn));
+		}
+		throughput.add(state.source);
+	}
+
+	@Benchmark
+	public void getDouble(final NumericData state, final CsvThroughput throughput, final Blackhole blackhole) throws CsvParseException {
+		for(final CsvData.CsvRow row : state.data) {
+			blackhole.consume(row.getDouble(state.doubleColumn));
+		}
+		throughput.add(state.source);
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv.benchmarks;
+
+import de.kappich.sys.funclib.csv.CsvData;
+import de.kappich.sys.funclib.csv.CsvReader;
+import de.kappich.sys.funclib.csv.IterableCsvData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks für das Einlesen kompletter Dateien mit {@link CsvReader}
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvReaderBenchmark {
+
+	/**
+	 * {@link CsvReader#readAll()} aus einem InputStream
+	 */
+	@Benchmark
+	public CsvData readAllStream(final CsvFileState state, final CsvThroughput throughput) throws IOException {
+		final CsvReader reader = new CsvReader(state.charset, new ByteArrayInputStream(state.bytes));
+		final CsvData data = reader.readAll();
+		throughput.add(state);
+		return data;
+	}
+
+	/**
+	 * {@link CsvReader#readAll()} aus einer Datei
+	 */
+	@Benchmark
+	public CsvData readAllFile(final CsvFileState state, final CsvThroughput throughput) throws IOException {
+		try(CsvReader reader = new CsvReader(state.file, state.charset)) {
+			final CsvData data = reader.readAll();
+			throughput.add(state);
+			return data;
+		}
+	}
+
+	/**
+	 * {@link CsvReader#readAllParallel()} aus einer Datei
+	 */
+	@Benchmark
+	public CsvData readAllParallel(final CsvFileState state, final CsvThroughput throughput) throws IOException {
+		try(CsvReader reader = new CsvReader(state.file, state.charset)) {
+			final CsvData data = reader.readAllParallel();
+			throughput.add(state);
+			return data;
+		}
+	}
+
+	/**
+	 * Iteration mit {@link CsvReader#read()} aus einem InputStream
+	 */
+	@Benchmark
+	public void readIterator(final CsvFileState state, final CsvThroughput throughput, final Blackhole blackhole) throws IOException {
+		final CsvReader reader = new CsvReader(state.charset, new ByteArrayInputStream(state.bytes));
+		for(final IterableCsvData.CsvRow row : reader.read()) {
+			blackhole.consume(row);
+		}
+		throughput.add(state);
+	}
+
+	/**
+	 * Iteration mit {@link CsvReader#read()} aus einer Datei, Zugriff auf die erste Spalte
+	 */
+	@Benchmark
+	public void readIteratorFile(final CsvFileState state, final CsvThroughput throughput, final Blackhole blackhole) throws IOException {
+		try(CsvReader reader = new CsvReader(state.file, state.charset)) {
+			for(final IterableCsvData.CsvRow row : reader.read()) {
+				blackhole.consume(row.getValue(0));
+			}
+		}
+		throughput.add(state);
+	}
+
+	/**
+	 * Wie {@link #readIteratorFile(CsvFileState, CsvThroughput, Blackhole)}, aber mit
+	 * {@link CsvReader#setLazyRows(boolean)}
+	 */
+	@Benchmark
+	public void readIteratorFileLazy(final CsvFileState state, final CsvThroughput throughput, final Blackhole blackhole) throws IOException {
+		try(CsvReader reader = new CsvReader(state.file, state.charset)) {
+			reader.setLazyRows(true);
+			for(final IterableCsvData.CsvRow row : reader.read()) {
+				blackhole.consume(row.getValue(0));
+			}
+		}
+		throughput.add(state);
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Zusätzliche Zähler eines Benchmarks. JMH gibt sie wie den Durchsatz je Sekunde aus, <code>megabytes</code> ist also
+ * der Durchsatz in MB/s und <code>rows</code> die Anzahl verarbeiteter Zeilen je Sekunde.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class CsvThroughput {
+
+	public double megabytes;
+
+	public long rows;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		megabytes = 0;
+		rows = 0;
+	}
+
+	/**
+	 * Zählt eine verarbeitete Datei
+	 * @param state Testdatei
+	 */
+	public void add(final CsvFileState state) {
+		megabytes += state.megabytes;
+		rows += state.numRows;
+	}
+}
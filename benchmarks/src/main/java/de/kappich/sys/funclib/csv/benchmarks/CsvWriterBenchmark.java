@@ -0,0 +1,155 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv.benchmarks;
+
+import de.kappich.sys.funclib.csv.CsvChannelWriter;
+import de.kappich.sys.funclib.csv.CsvReader;
+import de.kappich.sys.funclib.csv.CsvWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks für {@link CsvWriter#writeCsv(Object...)} und {@link CsvChannelWriter}. Geschrieben werden die Zeilen der Testdatei, bei
+ * {@link CsvDataset#NUMERIC} als Integer-, Long- und Double-Objekte. Die Ausgabe wird verworfen.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvWriterBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Rows {
+
+		public Object[][] rows;
+
+		@Setup(Level.Trial)
+		public void readRows(final CsvFileState state) throws IOException {
+			final List<String[]> entries;
+			try(CsvReader reader = new CsvReader(state.file, state.charset)) {
+				entries = reader.readAll().getEntries();
+			}
+			rows = new Object[entries.size()][];
+			for(int i = 0; i < rows.length; i++) {
+				final String[] entry = entries.get(i);
+				final Object[] row = new Object[entry.length];
+				System.arraycopy(entry, 0, row, 0, entry.length);
+				if(state.dataset == CsvDataset.NUMERIC) {
+					row[CsvDataset.NUMERIC_INT_COLUMN] = Integer.valueOf(entry[CsvDataset.NUMERIC_INT_COLUMN]);
+					row[CsvDataset.NUMERIC_LONG_COLUMN] = Long.valueOf(entry[CsvDataset.NUMERIC_LONG_COLUMN]);
+					row[CsvDataset.NUMERIC_DOUBLE_COLUMN] = Double.valueOf(entry[CsvDataset.NUMERIC_DOUBLE_COLUMN].replace(',', '.'));
+				}
+				rows[i] = row;
+			}
+		}
+	}
+
+	@Benchmark
+	public long writeCsv(final CsvFileState state, final Rows rows, final CsvThroughput throughput) throws IOException {
+		final CountingOutputStream out = new CountingOutputStream();
+		final CsvWriter writer = new CsvWriter(state.charset, out);
+		for(final Object[] row : rows.rows) {
+			writer.writeCsv(row);
+		}
+		writer.flush();
+		throughput.add(state);
+		return out._count;
+	}
+
+	@Benchmark
+	public long writeCsvChannel(final CsvFileState state, final Rows rows, final CsvThroughput throughput) throws IOException {
+		final CountingChannel out = new CountingChannel();
+		final CsvWriter writer = new CsvChannelWriter(state.charset, out);
+		for(final Object[] row : rows.rows) {
+			writer.writeCsv(row);
+		}
+		writer.flush();
+		throughput.add(state);
+		return out._count;
+	}
+
+	/**
+	 * Zählt die geschriebenen Bytes und verwirft sie
+	 */
+	private static final class CountingOutputStream extends OutputStream {
+		private long _count;
+
+		@Override
+		public void write(final int b) {
+			_count++;
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+			_count += len;
+		}
+	}
+
+	/**
+	 * Zählt die geschriebenen Bytes und verwirft sie
+	 */
+	private static final class CountingChannel implements WritableByteChannel {
+		private long _count;
+
+		@Override
+		public int write(final ByteBuffer src) {
+			final int len = src.remaining();
+			src.position(src.limit());
+			_count += len;
+			return len;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
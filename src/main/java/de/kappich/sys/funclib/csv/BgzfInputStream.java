@@ -0,0 +1,271 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Liest Daten im BGZF-Format (siehe {@link CsvCompression#BGZF}). Die komprimierten Blöcke werden im aufrufenden Thread
+ * gelesen und im {@link ForkJoinPool#commonPool() gemeinsamen ForkJoinPool} dekomprimiert. Dabei werden bis zu
+ * {@link #READ_AHEAD} Blöcke im Voraus dekomprimiert, so dass die Dekompression parallel zum Zerlegen der Daten und
+ * bei mehreren Prozessoren auch für mehrere Blöcke gleichzeitig läuft.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class BgzfInputStream extends InputStream {
+
+	/**
+	 * Anzahl Blöcke, die im Voraus dekomprimiert werden
+	 */
+	static final int READ_AHEAD = Math.max(4, 2 * ForkJoinPool.getCommonPoolParallelism());
+
+	/**
+	 * Größe des festen Teils des Blockkopfs bis einschließlich XLEN
+	 */
+	private static final int FIXED_HEADER_SIZE = 12;
+
+	private final InputStream _in;
+
+	/**
+	 * Dekomprimierung der im Voraus gelesenen Blöcke in Dateireihenfolge
+	 */
+	private final ArrayDeque<Future<byte[]>> _pending = new ArrayDeque<Future<byte[]>>();
+
+	/**
+	 * Alle komprimierten Blöcke wurden gelesen
+	 */
+	private boolean _eof;
+
+	/**
+	 * Aktueller dekomprimierter Block
+	 */
+	private byte[] _block = new byte[0];
+
+	/**
+	 * Leseposition in {@link #_block}
+	 */
+	private int _pos;
+
+	/**
+	 * Konstruktor
+	 * @param in Komprimierte Daten
+	 */
+	BgzfInputStream(final InputStream in) {
+		_in = in;
+	}
+
+	/**
+	 * Prüft, ob Daten mit dem Kopf eines BGZF-Blocks beginnen
+	 * @param header Erste Bytes der Daten
+	 * @param length Anzahl gültiger Bytes in <code>header</code>
+	 * @return <code>true</code>, falls BGZF
+	 */
+	static boolean isBgzfHeader(final byte[] header, final int length) {
+		return length >= 18
+				&& DecompressingInputStream.isGzip(header[0] & 0xFF, header[1] & 0xFF)
+				&& header[2] == 8 && (header[3] & 4) != 0
+				&& ((header[10] & 0xFF) | (header[11] & 0xFF) << 8) >= 6
+				&& header[12] == 'B' && header[13] == 'C' && header[14] == 2 && header[15] == 0;
+	}
+
+	@Override
+	public int read() throws IOException {
+		while(_pos == _block.length) {
+			if(!nextBlock()) return -1;
+		}
+		return _block[_pos++] & 0xFF;
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		if(len == 0) return 0;
+		while(_pos == _block.length) {
+			if(!nextBlock()) return -1;
+		}
+		final int n = Math.min(len, _block.length - _pos);
+		System.arraycopy(_block, _pos, b, off, n);
+		_pos += n;
+		return n;
+	}
+
+	@Override
+	public int available() {
+		return _block.length - _pos;
+	}
+
+	/**
+	 * Wechselt zum nächsten dekomprimierten Block
+	 * @return <code>false</code> am Ende der Daten
+	 * @throws IOException IO-Fehler oder ungültige Daten
+	 */
+	private boolean nextBlock() throws IOException {
+		while(!_eof && _pending.size() < READ_AHEAD) {
+			final byte[] compressed = readCompressedBlock();
+			if(compressed == null) {
+				_eof = true;
+			}
+			else {
+				_pending.add(ForkJoinPool.commonPool().submit(new InflateTask(compressed)));
+			}
+		}
+		final Future<byte[]> next = _pending.poll();
+		if(next == null) return false;
+		_block = await(next);
+		_pos = 0;
+		return true;
+	}
+
+	/**
+	 * Liest einen komprimierten Block ab dem Feld XLEN
+	 * @return Erweiterungsfelder, komprimierte Daten, CRC32 und unkomprimierte Größe oder <code>null</code> am Ende der Daten
+	 * @throws IOException IO-Fehler oder ungültige Daten
+	 */
+	private byte[] readCompressedBlock() throws IOException {
+		final byte[] header = new byte[FIXED_HEADER_SIZE];
+		final int n = readFully(header, 0, FIXED_HEADER_SIZE);
+		if(n == 0) return null;
+		if(n < FIXED_HEADER_SIZE) throw new EOFException("Unvollständiger BGZF-Block");
+		if(!DecompressingInputStream.isGzip(header[0] & 0xFF, header[1] & 0xFF) || header[2] != 8 || (header[3] & 4) == 0) {
+			throw new ZipException("Kein BGZF-Block");
+		}
+		final int extraLength = (header[10] & 0xFF) | (header[11] & 0xFF) << 8;
+		final byte[] extra = new byte[extraLength];
+		if(readFully(extra, 0, extraLength) < extraLength) throw new EOFException("Unvollständiger BGZF-Block");
+		int blockSize = -1;
+		for(int i = 0; i + 4 <= extraLength; ) {
+			final int subfieldLength = (extra[i + 2] & 0xFF) | (extra[i + 3] & 0xFF) << 8;
+			if(extra[i] == 'B' && extra[i + 1] == 'C' && subfieldLength == 2 && i + 6 <= extraLength) {
+				blockSize = ((extra[i + 4] & 0xFF) | (extra[i + 5] & 0xFF) << 8) + 1;
+			}
+			i += 4 + subfieldLength;
+		}
+		final int remaining = blockSize - FIXED_HEADER_SIZE - extraLength;
+		if(blockSize < 0 || remaining < 8) throw new ZipException("Kein BGZF-Block");
+		final byte[] data = new byte[remaining];
+		if(readFully(data, 0, remaining) < remaining) throw new EOFException("Unvollständiger BGZF-Block");
+		return data;
+	}
+
+	private int readFully(final byte[] b, final int off, final int len) throws IOException {
+		int total = 0;
+		while(total < len) {
+			final int n = _in.read(b, off + total, len - total);
+			if(n < 0) break;
+			total += n;
+		}
+		return total;
+	}
+
+	private static byte[] await(final Future<byte[]> future) throws IOException {
+		try {
+			return future.get();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.getMessage());
+		}
+		catch(ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if(cause instanceof IOException) throw (IOException) cause;
+			if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if(cause instanceof Error) throw (Error) cause;
+			throw new IOException(cause);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		for(final Future<byte[]> future : _pending) {
+			future.cancel(false);
+		}
+		_pending.clear();
+		_eof = true;
+		_in.close();
+	}
+
+	/**
+	 * Dekomprimiert einen Block und prüft die Prüfsumme
+	 */
+	private static final class InflateTask implements Callable<byte[]> {
+
+		/**
+		 * Komprimierte Daten, gefolgt von CRC32 und unkomprimierter Größe
+		 */
+		private final byte[] _data;
+
+		private InflateTask(final byte[] data) {
+			_data = data;
+		}
+
+		@Override
+		public byte[] call() throws IOException {
+			final int length = _data.length - 8;
+			final int crc = readInt(_data, length);
+			final int size = readInt(_data, length + 4);
+			if(size < 0 || size > 1 << 16) throw new ZipException("Ungültige Blockgröße " + size);
+			final byte[] result = new byte[size];
+			final Inflater inflater = new Inflater(true);
+			try {
+				inflater.setInput(_data, 0, length);
+				int n = 0;
+				while(n < size) {
+					final int inflated = inflater.inflate(result, n, size - n);
+					if(inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) break;
+					n += inflated;
+				}
+				if(n != size) throw new ZipException("Ungültiger BGZF-Block");
+			}
+			catch(DataFormatException e) {
+				throw new ZipException(e.getMessage());
+			}
+			finally {
+				inflater.end();
+			}
+			final CRC32 checksum = new CRC32();
+			checksum.update(result, 0, size);
+			if((int) checksum.getValue() != crc) throw new ZipException("Falsche Prüfsumme im BGZF-Block");
+			return result;
+		}
+
+		private static int readInt(final byte[] b, final int off) {
+			return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8 | (b[off + 2] & 0xFF) << 16 | (b[off + 3] & 0xFF) << 24;
+		}
+	}
+}
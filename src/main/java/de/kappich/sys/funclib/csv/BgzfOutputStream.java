@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Schreibt Daten im BGZF-Format (siehe {@link CsvCompression#BGZF}). Die Daten werden in Blöcken von
+ * {@link #BLOCK_DATA_SIZE} Bytes gesammelt und jeweils als eigenständiges gzip-Element mit der Blockgröße im
+ * Erweiterungsfeld "BC" geschrieben. Beim Schließen wird der übliche leere Endblock angehängt.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class BgzfOutputStream extends FilterOutputStream {
+
+	/**
+	 * Maximale Anzahl unkomprimierter Bytes je Block, so dass auch nicht komprimierbare Daten in 64 KB passen
+	 */
+	static final int BLOCK_DATA_SIZE = 0xFF00;
+
+	/**
+	 * Größe des Blockkopfs einschließlich Erweiterungsfeld
+	 */
+	private static final int HEADER_SIZE = 18;
+
+	/**
+	 * Leerer Block, der das Ende der Daten markiert
+	 */
+	private static final byte[] EOF_BLOCK = {
+			0x1F, (byte) 0x8B, 8, 4, 0, 0, 0, 0, 0, (byte) 0xFF, 6, 0, 'B', 'C', 2, 0,
+			0x1B, 0, 3, 0, 0, 0, 0, 0, 0, 0, 0, 0
+	};
+
+	private final byte[] _buffer = new byte[BLOCK_DATA_SIZE];
+
+	private final byte[] _block = new byte[1 << 16];
+
+	private final Deflater _deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+	private final CRC32 _crc = new CRC32();
+
+	/**
+	 * Belegte Bytes in {@link #_buffer}
+	 */
+	private int _size;
+
+	private boolean _closed;
+
+	/**
+	 * Konstruktor
+	 * @param out Ziel der komprimierten Daten
+	 */
+	BgzfOutputStream(final OutputStream out) {
+		super(out);
+	}
+
+	@Override
+	public void write(final int b) throws IOException {
+		if(_size == BLOCK_DATA_SIZE) writeBlock();
+		_buffer[_size++] = (byte) b;
+	}
+
+	@Override
+	public void write(final byte[] b, int off, int len) throws IOException {
+		while(len > 0) {
+			if(_size == BLOCK_DATA_SIZE) writeBlock();
+			final int n = Math.min(len, BLOCK_DATA_SIZE - _size);
+			System.arraycopy(b, off, _buffer, _size, n);
+			_size += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Schreibt die gesammelten Daten als Block, damit sie vollständig beim Empfänger ankommen
+	 * @throws IOException IO-Fehler
+	 */
+	@Override
+	public void flush() throws IOException {
+		if(_size > 0) writeBlock();
+		out.flush();
+	}
+
+	private void writeBlock() throws IOException {
+		_deflater.reset();
+		_deflater.setInput(_buffer, 0, _size);
+		_deflater.finish();
+		int length = HEADER_SIZE;
+		while(!_deflater.finished()) {
+			length += _deflater.deflate(_block, length, _block.length - 8 - length);
+			if(length == _block.length - 8 && !_deflater.finished()) {
+				throw new IOException("BGZF-Block zu groß");
+			}
+		}
+		_crc.reset();
+		_crc.update(_buffer, 0, _size);
+		writeInt(length, (int) _crc.getValue());
+		writeInt(length + 4, _size);
+		length += 8;
+		System.arraycopy(EOF_BLOCK, 0, _block, 0, 16);
+		_block[16] = (byte) (length - 1);
+		_block[17] = (byte) ((length - 1) >>> 8);
+		out.write(_block, 0, length);
+		_size = 0;
+	}
+
+	private void writeInt(final int off, final int value) {
+		_block[off] = (byte) value;
+		_block[off + 1] = (byte) (value >>> 8);
+		_block[off + 2] = (byte) (value >>> 16);
+		_block[off + 3] = (byte) (value >>> 24);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(_closed) return;
+		_closed = true;
+		try {
+			if(_size > 0) writeBlock();
+			out.write(EOF_BLOCK);
+		}
+		finally {
+			_deflater.end();
+			out.close();
+		}
+	}
+}
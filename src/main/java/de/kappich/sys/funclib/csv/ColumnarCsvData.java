@@ -0,0 +1,515 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.util.*;
+
+/**
+ * Spaltenweise gespeicherte CSV-Daten. Jede Spalte wird entsprechend ihres {@link CsvColumnType} einmalig beim Einlesen
+ * in ein primitives Array (<code>int[]</code>, <code>long[]</code>, <code>double[]</code>) oder als Wörterbuch-kodierte
+ * Zeichenketten gespeichert. Leere Zellen werden in einer Bitmaske als <code>null</code> markiert.
+ * <p>
+ * Der Zugriff über {@link #getInt(int, int)}, {@link #getLong(int, int)} und {@link #getDouble(int, int)} erfolgt ohne
+ * erneutes Parsen und ohne Boxing. Diese Klasse wird mit {@link CsvReader#readColumnar(Map)} erstellt.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public class ColumnarCsvData {
+
+	/**
+	 * Anfangsgröße der Spalten-Arrays
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * Spaltenköpfe
+	 */
+	private final String[] _headerCells;
+
+	/**
+	 * Map Spaltenkopf->Index
+	 */
+	private final HashMap<String, Integer> _columnNameToIndexMap;
+
+	/**
+	 * Spalten
+	 */
+	private final Column[] _columns;
+
+	/**
+	 * Anzahl Zeilen
+	 */
+	private int _numRows;
+
+	/**
+	 * Erstellt ein neues, leeres ColumnarCsvData-Objekt, das mit {@link #addRecord(CsvRecord, int)} gefüllt wird
+	 * @param headerCells Spaltenköpfe oder <code>null</code>
+	 * @param columnNameToIndexMap Map Spaltenkopf->Index
+	 * @param columnTypes Typ jeder Spalte
+	 */
+	ColumnarCsvData(final String[] headerCells, final HashMap<String, Integer> columnNameToIndexMap, final CsvColumnType[] columnTypes) {
+		_headerCells = headerCells;
+		_columnNameToIndexMap = columnNameToIndexMap;
+		_columns = new Column[columnTypes.length];
+		for(int i = 0; i < columnTypes.length; i++) {
+			switch(columnTypes[i]) {
+				case INT:
+					_columns[i] = new IntColumn();
+					break;
+				case LONG:
+					_columns[i] = new LongColumn();
+					break;
+				case DOUBLE:
+					_columns[i] = new DoubleColumn();
+					break;
+				default:
+					_columns[i] = new StringColumn();
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Fügt einen Datensatz hinzu. Zellen, die über die Spaltenanzahl hinausgehen, werden ignoriert, fehlende Zellen als
+	 * leer gewertet.
+	 * @param record Datensatz
+	 * @param lineNum Zeilennummer für Fehlermeldungen
+	 * @throws CsvParseException Falls eine Zelle nicht in den Typ der Spalte umgewandelt werden kann
+	 */
+	void addRecord(final CsvRecord record, final int lineNum) throws CsvParseException {
+		final int row = _numRows;
+		final int cellCount = record.getCellCount();
+		for(int i = 0; i < _columns.length; i++) {
+			final Column column = _columns[i];
+			column.ensureCapacity(row + 1);
+			if(i >= cellCount || record.getCellStart(i) == record.getCellEnd(i)) {
+				column.setNull(row);
+				continue;
+			}
+			try {
+				column.set(row, record, i);
+			}
+			catch(IllegalArgumentException e) {
+				throw new CsvParseException(e, lineNum, i);
+			}
+		}
+		_numRows++;
+	}
+
+	/**
+	 * Verkleinert die Spalten-Arrays auf die tatsächliche Zeilenanzahl. Wird nach dem Einlesen aufgerufen.
+	 */
+	void trimToSize() {
+		for(final Column column : _columns) {
+			column.trimToSize(_numRows);
+		}
+	}
+
+	/**
+	 * Gibt die Spaltenköpfe zurück
+	 * @return die Spaltenköpfe oder <code>null</code> wenn keine Spaltenköpfe definiert wurden
+	 */
+	public String[] getHeaderCells() {
+		return _headerCells == null ? null : _headerCells.clone();
+	}
+
+	/**
+	 * Gibt die Zuordnung Spaltenüberschrift zu Spaltenindex zurück.
+	 * @return die Zuordnung Spaltenüberschrift zu Spaltenindex
+	 */
+	public Map<String, Integer> getColumnNameToIndexMap() {
+		return Collections.unmodifiableMap(_columnNameToIndexMap);
+	}
+
+	/**
+	 * Ermittelt den Spaltenindex zu einem Spaltennamen
+	 * @param header Spaltenname
+	 * @return Index
+	 * @throws CsvParseException Falls es keine Spalte mit dem angegebenen Namen gibt
+	 */
+	public int getHeaderIndex(final String header) throws CsvParseException {
+		final Integer col = _columnNameToIndexMap.get(header);
+		if(col == null){
+			throw new CsvParseException("Spalte \"" + header + "\" nicht gefunden", 0);
+		}
+		return col;
+	}
+
+	/**
+	 * Gibt die Anzahl Zeilen/Datensätze zurück
+	 * @return die Anzahl Zeilen
+	 */
+	public int getNumRows() {
+		return _numRows;
+	}
+
+	/**
+	 * Gibt die Anzahl Spalten zurück
+	 * @return die Anzahl Spalten
+	 */
+	public int getNumColumns() {
+		return _columns.length;
+	}
+
+	/**
+	 * Gibt den Typ einer Spalte zurück
+	 * @param columnIndex Spaltenindex
+	 * @return Typ
+	 */
+	public CsvColumnType getColumnType(final int columnIndex) {
+		return _columns[columnIndex].getType();
+	}
+
+	/**
+	 * Prüft, ob eine Zelle leer ist
+	 * @param rowIndex Zeilenindex
+	 * @param columnIndex Spaltenindex
+	 * @return true, falls die Zelle leer ist
+	 */
+	public boolean isNull(final int rowIndex, final int columnIndex) {
+		checkRow(rowIndex);
+		return _columns[columnIndex].isNull(rowIndex);
+	}
+
+	/**
+	 * Gibt den Wert einer Zelle einer {@link CsvColumnType#INT}-Spalte zurück. Leere Zellen liefern 0, siehe
+	 * {@link #isNull(int, int)}.
+	 * @param rowIndex Zeilenindex
+	 * @param columnIndex Spaltenindex
+	 * @return Wert
+	 * @throws IllegalStateException Falls die Spalte einen anderen Typ hat
+	 */
+	public int getInt(final int rowIndex, final int columnIndex) {
+		checkRow(rowIndex);
+		final Column column = _columns[columnIndex];
+		if(!(column instanceof IntColumn)) {
+			throw wrongType(columnIndex, CsvColumnType.INT);
+		}
+		return ((IntColumn) column)._values[rowIndex];
+	}
+
+	/**
+	 * Gibt den Wert einer Zelle einer {@link CsvColumnType#LONG}- oder {@link CsvColumnType#INT}-Spalte zurück. Leere Zellen
+	 * liefern 0, siehe {@link #isNull(int, int)}.
+	 * @param rowIndex Zeilenindex
+	 * @param columnIndex Spaltenindex
+	 * @return Wert
+	 * @throws IllegalStateException Falls die Spalte einen anderen Typ hat
+	 */
+	public long getLong(final int rowIndex, final int columnIndex) {
+		checkRow(rowIndex);
+		final Column column = _columns[columnIndex];
+		if(column instanceof LongColumn) {
+			return ((LongColumn) column)._values[rowIndex];
+		}
+		if(column instanceof IntColumn) {
+			return ((IntColumn) column)._values[rowIndex];
+		}
+		throw wrongType(columnIndex, CsvColumnType.LONG);
+	}
+
+	/**
+	 * Gibt den Wert einer Zelle einer numerischen Spalte zurück. Leere Zellen liefern 0, siehe {@link #isNull(int, int)}.
+	 * @param rowIndex Zeilenindex
+	 * @param columnIndex Spaltenindex
+	 * @return Wert
+	 * @throws IllegalStateException Falls die Spalte Zeichenketten enthält
+	 */
+	public double getDouble(final int rowIndex, final int columnIndex) {
+		checkRow(rowIndex);
+		final Column column = _columns[columnIndex];
+		if(column instanceof DoubleColumn) {
+			return ((DoubleColumn) column)._values[rowIndex];
+		}
+		if(column instanceof LongColumn) {
+			return ((LongColumn) column)._values[rowIndex];
+		}
+		if(column instanceof IntColumn) {
+			return ((IntColumn) column)._values[rowIndex];
+		}
+		throw wrongType(columnIndex, CsvColumnType.DOUBLE);
+	}
+
+	/**
+	 * Gibt den Wert einer Zelle als String zurück. Bei numerischen Spalten wird der gespeicherte Wert formatiert, die
+	 * ursprüngliche Schreibweise in der CSV-Datei geht verloren.
+	 * @param rowIndex Zeilenindex
+	 * @param columnIndex Spaltenindex
+	 * @return Wert oder <code>null</code> falls die Zelle leer ist
+	 */
+	public String getString(final int rowIndex, final int columnIndex) {
+		checkRow(rowIndex);
+		final Column column = _columns[columnIndex];
+		if(column.isNull(rowIndex)) return null;
+		return column.getString(rowIndex);
+	}
+
+	private void checkRow(final int rowIndex) {
+		if(rowIndex < 0 || rowIndex >= _numRows) {
+			throw new IndexOutOfBoundsException("Zeile " + rowIndex + ", Anzahl Zeilen: " + _numRows);
+		}
+	}
+
+	private IllegalStateException wrongType(final int columnIndex, final CsvColumnType expected) {
+		return new IllegalStateException("Spalte " + columnIndex + " hat den Typ " + getColumnType(columnIndex) + ", erwartet: " + expected);
+	}
+
+	@Override
+	public String toString() {
+		return "ColumnarCsvData{" + "Spalten=" + Arrays.toString(_headerCells) + ", Zeilen=" + _numRows + '}';
+	}
+
+	/**
+	 * Gespeicherte Werte einer Spalte mit Markierung leerer Zellen
+	 */
+	private abstract static class Column {
+
+		/**
+		 * Bitmaske der leeren Zellen
+		 */
+		private long[] _nulls = new long[INITIAL_CAPACITY / 64];
+
+		abstract CsvColumnType getType();
+
+		/**
+		 * Speichert den Wert einer Zelle
+		 * @param row Zeilenindex
+		 * @param record Datensatz
+		 * @param cellIndex Index der Zelle im Datensatz
+		 * @throws IllegalArgumentException Falls der Wert nicht in den Typ der Spalte umgewandelt werden kann
+		 */
+		abstract void set(int row, CsvRecord record, int cellIndex);
+
+		abstract String getString(int row);
+
+		abstract int capacity();
+
+		abstract void resize(int capacity);
+
+		final void ensureCapacity(final int size) {
+			if(size > capacity()) {
+				resize(Math.max(size, capacity() * 2));
+			}
+		}
+
+		void trimToSize(final int size) {
+			if(size < capacity()) resize(size);
+		}
+
+		final void setNull(final int row) {
+			final int word = row >>> 6;
+			if(word >= _nulls.length) {
+				_nulls = Arrays.copyOf(_nulls, Math.max(word + 1, _nulls.length * 2));
+			}
+			_nulls[word] |= 1L << row;
+		}
+
+		final boolean isNull(final int row) {
+			final int word = row >>> 6;
+			return word < _nulls.length && (_nulls[word] & (1L << row)) != 0;
+		}
+	}
+
+	private static final class IntColumn extends Column {
+		private int[] _values = new int[INITIAL_CAPACITY];
+
+		@Override
+		CsvColumnType getType() {
+			return CsvColumnType.INT;
+		}
+
+		@Override
+		void set(final int row, final CsvRecord record, final int cellIndex) {
+			_values[row] = CsvNumbers.parseInt(record, record.getCellStart(cellIndex), record.getCellEnd(cellIndex));
+		}
+
+		@Override
+		String getString(final int row) {
+			return String.valueOf(_values[row]);
+		}
+
+		@Override
+		int capacity() {
+			return _values.length;
+		}
+
+		@Override
+		void resize(final int capacity) {
+			_values = Arrays.copyOf(_values, capacity);
+		}
+	}
+
+	private static final class LongColumn extends Column {
+		private long[] _values = new long[INITIAL_CAPACITY];
+
+		@Override
+		CsvColumnType getType() {
+			return CsvColumnType.LONG;
+		}
+
+		@Override
+		void set(final int row, final CsvRecord record, final int cellIndex) {
+			_values[row] = CsvNumbers.parseLong(record, record.getCellStart(cellIndex), record.getCellEnd(cellIndex));
+		}
+
+		@Override
+		String getString(final int row) {
+			return String.valueOf(_values[row]);
+		}
+
+		@Override
+		int capacity() {
+			return _values.length;
+		}
+
+		@Override
+		void resize(final int capacity) {
+			_values = Arrays.copyOf(_values, capacity);
+		}
+	}
+
+	private static final class DoubleColumn extends Column {
+		private double[] _values = new double[INITIAL_CAPACITY];
+
+		@Override
+		CsvColumnType getType() {
+			return CsvColumnType.DOUBLE;
+		}
+
+		@Override
+		void set(final int row, final CsvRecord record, final int cellIndex) {
+			_values[row] = CsvNumbers.parseDouble(record, record.getCellStart(cellIndex), record.getCellEnd(cellIndex));
+		}
+
+		@Override
+		String getString(final int row) {
+			return String.valueOf(_values[row]);
+		}
+
+		@Override
+		int capacity() {
+			return _values.length;
+		}
+
+		@Override
+		void resize(final int capacity) {
+			_values = Arrays.copyOf(_values, capacity);
+		}
+	}
+
+	/**
+	 * Wörterbuch-kodierte Zeichenketten. Jede Zeile speichert nur den Index des Wertes im Wörterbuch.
+	 */
+	private static final class StringColumn extends Column {
+		private int[] _codes = new int[INITIAL_CAPACITY];
+		private final List<String> _dictionary = new ArrayList<String>();
+
+		/**
+		 * Offene Hashtabelle über das Wörterbuch mit Index+1 je Platz (0 für freie Plätze), wird nur beim Einlesen
+		 * benötigt. Gesucht wird direkt auf den Zeichen des Datensatzes, ein String wird nur für neue Werte erzeugt.
+		 */
+		private int[] _codeTable = new int[64];
+
+		@Override
+		CsvColumnType getType() {
+			return CsvColumnType.STRING;
+		}
+
+		@Override
+		void set(final int row, final CsvRecord record, final int cellIndex) {
+			final int start = record.getCellStart(cellIndex);
+			final int end = record.getCellEnd(cellIndex);
+			// Wie String.hashCode(), damit gespeicherte Werte ihren zwischengespeicherten Hashwert verwenden können
+			int hash = 0;
+			for(int i = start; i < end; i++) {
+				hash = 31 * hash + record.charAt(i);
+			}
+			final int mask = _codeTable.length - 1;
+			int slot = (hash ^ (hash >>> 16)) & mask;
+			while(_codeTable[slot] != 0) {
+				final int code = _codeTable[slot] - 1;
+				final String value = _dictionary.get(code);
+				if(value.hashCode() == hash && matches(value, record, start, end)) {
+					_codes[row] = code;
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+			final int code = _dictionary.size();
+			_dictionary.add(record.getCell(cellIndex));
+			_codeTable[slot] = code + 1;
+			if(2 * _dictionary.size() > _codeTable.length) {
+				rehash(2 * _codeTable.length);
+			}
+			_codes[row] = code;
+		}
+
+		private static boolean matches(final String value, final CsvRecord record, final int start, final int end) {
+			if(value.length() != end - start) return false;
+			for(int i = start; i < end; i++) {
+				if(value.charAt(i - start) != record.charAt(i)) return false;
+			}
+			return true;
+		}
+
+		private void rehash(final int size) {
+			final int[] table = new int[size];
+			final int mask = size - 1;
+			for(int code = 0; code < _dictionary.size(); code++) {
+				final int hash = _dictionary.get(code).hashCode();
+				int slot = (hash ^ (hash >>> 16)) & mask;
+				while(table[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				table[slot] = code + 1;
+			}
+			_codeTable = table;
+		}
+
+		@Override
+		String getString(final int row) {
+			return _dictionary.get(_codes[row]);
+		}
+
+		@Override
+		int capacity() {
+			return _codes.length;
+		}
+
+		@Override
+		void trimToSize(final int size) {
+			super.trimToSize(size);
+			_codeTable = null;
+		}
+
+		@Override
+		void resize(final int capacity) {
+			_codes = Arrays.copyOf(_codes, capacity);
+		}
+	}
+}
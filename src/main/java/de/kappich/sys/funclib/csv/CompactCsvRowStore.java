@@ -0,0 +1,183 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Kompakte Speicherung der Datensätze, siehe {@link CsvDataStorage#COMPACT}. Die Zellinhalte werden hintereinander in
+ * char-Arrays fester Größe (Slabs) abgelegt, ein Datensatz liegt dabei immer vollständig in einem Slab. Zu jedem
+ * Datensatz werden nur der Slab und die Zellgrenzen in einem gemeinsamen int-Array gespeichert, so dass pro Datensatz
+ * außer den Zeichen nur 4 Byte je Zelle und 8 Byte Verwaltung anfallen.
+ * <p>
+ * Die Zeilenobjekte verweisen direkt auf den Slab, Strings werden erst beim Zugriff auf eine Zelle erzeugt.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class CompactCsvRowStore extends CsvRowStore {
+
+	/**
+	 * Größe eines Slabs in Zeichen. Längere Datensätze erhalten einen eigenen Slab passender Größe.
+	 */
+	static final int SLAB_SIZE = 1 << 20;
+
+	/**
+	 * Alle Slabs
+	 */
+	private final List<char[]> _slabs = new ArrayList<char[]>();
+
+	/**
+	 * Slab, in den aktuell geschrieben wird, oder <code>null</code>
+	 */
+	private char[] _slab;
+
+	/**
+	 * Belegte Zeichen in {@link #_slab}
+	 */
+	private int _slabUsed;
+
+	/**
+	 * Zellgrenzen aller Datensätze hintereinander. Für jeden Datensatz die Startposition jeder Zelle im Slab, gefolgt vom
+	 * Ende der letzten Zelle.
+	 */
+	private int[] _bounds = new int[1024];
+
+	/**
+	 * Belegte Einträge in {@link #_bounds}
+	 */
+	private int _boundsUsed;
+
+	/**
+	 * Position des ersten Eintrags in {@link #_bounds} je Datensatz, der letzte Eintrag ist {@link #_boundsUsed}
+	 */
+	private int[] _rowStarts = new int[257];
+
+	/**
+	 * Index des Slabs je Datensatz
+	 */
+	private int[] _rowSlabs = new int[256];
+
+	/**
+	 * Anzahl Datensätze
+	 */
+	private int _size;
+
+	@Override
+	void add(final CsvRecord record) {
+		final int length = record.length();
+		if(_slab == null || _slabUsed + length > _slab.length) {
+			_slab = new char[Math.max(SLAB_SIZE, length)];
+			_slabs.add(_slab);
+			_slabUsed = 0;
+		}
+		record.copyChars(_slab, _slabUsed);
+
+		final int cellCount = record.getCellCount();
+		ensureRowCapacity(_size + 1);
+		ensureBoundsCapacity(_boundsUsed + cellCount + 1);
+		_rowSlabs[_size] = _slabs.size() - 1;
+		for(int i = 0; i < cellCount; i++) {
+			_bounds[_boundsUsed++] = _slabUsed + record.getCellStart(i);
+		}
+		_slabUsed += length;
+		_bounds[_boundsUsed++] = _slabUsed;
+		_size++;
+		_rowStarts[_size] = _boundsUsed;
+	}
+
+	@Override
+	void addAll(final CsvRowStore other) {
+		final CompactCsvRowStore store = (CompactCsvRowStore) other;
+		ensureRowCapacity(_size + store._size);
+		ensureBoundsCapacity(_boundsUsed + store._boundsUsed);
+		final int slabOffset = _slabs.size();
+		for(int i = 0; i < store._size; i++) {
+			_rowSlabs[_size + i] = store._rowSlabs[i] + slabOffset;
+			_rowStarts[_size + i + 1] = store._rowStarts[i + 1] + _boundsUsed;
+		}
+		System.arraycopy(store._bounds, 0, _bounds, _boundsUsed, store._boundsUsed);
+		_boundsUsed += store._boundsUsed;
+		_size += store._size;
+		_slabs.addAll(store._slabs);
+		// Der letzte Slab des anderen Speichers wird weiter befüllt
+		_slab = store._slab;
+		_slabUsed = store._slabUsed;
+	}
+
+	private void ensureRowCapacity(final int rows) {
+		if(rows > _rowSlabs.length) {
+			final int capacity = Math.max(rows, _rowSlabs.length + (_rowSlabs.length >> 1));
+			_rowSlabs = Arrays.copyOf(_rowSlabs, capacity);
+			_rowStarts = Arrays.copyOf(_rowStarts, capacity + 1);
+		}
+	}
+
+	private void ensureBoundsCapacity(final int bounds) {
+		if(bounds > _bounds.length) {
+			_bounds = Arrays.copyOf(_bounds, Math.max(bounds, _bounds.length + (_bounds.length >> 1)));
+		}
+	}
+
+	@Override
+	int size() {
+		return _size;
+	}
+
+	@Override
+	int getCellCount(final int index) {
+		checkIndex(index);
+		return _rowStarts[index + 1] - _rowStarts[index] - 1;
+	}
+
+	@Override
+	String[] getEntry(final int index) {
+		checkIndex(index);
+		final char[] slab = _slabs.get(_rowSlabs[index]);
+		final int first = _rowStarts[index];
+		final String[] values = new String[_rowStarts[index + 1] - first - 1];
+		for(int i = 0; i < values.length; i++) {
+			final int start = _bounds[first + i];
+			final int end = _bounds[first + i + 1];
+			values[i] = start == end ? "" : new String(slab, start, end - start);
+		}
+		return values;
+	}
+
+	@Override
+	IterableCsvData.CsvRow getRow(final IterableCsvData data, final int index) {
+		checkIndex(index);
+		final int first = _rowStarts[index];
+		return data.new CsvRow(index, _slabs.get(_rowSlabs[index]), Arrays.copyOfRange(_bounds, first, _rowStarts[index + 1]));
+	}
+
+	private void checkIndex(final int index) {
+		if(index < 0 || index >= _size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+	}
+}
@@ -0,0 +1,644 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Bildet CSV-Zeilen auf Objekte einer Klasse ab und umgekehrt. Die Zuordnung zu den Spalten erfolgt über
+ * {@link CsvField}-Annotationen an Feldern und optional an den Parametern eines Konstruktors.
+ * <p>
+ * Die Klasse wird nur einmal analysiert ({@link #forClass(Class)} speichert das Ergebnis je Klasse). Felder und
+ * Konstruktoren werden dabei in {@link MethodHandle}s umgewandelt, so dass beim Einlesen keine Reflection mehr
+ * verwendet wird. {@link #bind(IterableCsvData)} ermittelt einmalig die Spaltenindizes zu den Spaltenköpfen, danach
+ * werden int-, long- und double-Felder direkt aus dem Lesepuffer geparst.
+ * <p>
+ * Objekte werden entweder über einen Konstruktor erzeugt, dessen Parameter alle mit {@link CsvField} annotiert sind,
+ * oder über den Konstruktor ohne Parameter. Annotierte Felder, die nicht bereits durch einen Konstruktorparameter mit
+ * demselben Spaltennamen bzw. Spaltenindex belegt werden, werden anschließend gesetzt.
+ * <p>
+ * Beim Schreiben werden alle annotierten Felder in der Reihenfolge ihrer Deklaration geschrieben, Felder von
+ * Oberklassen zuerst. Haben alle Felder einen {@link CsvField#index()}, bestimmt dieser die Reihenfolge.
+ * <p>
+ * Beispiel:
+ * <pre>
+ * CsvBinder&lt;Messwert&gt; binder = CsvBinder.forClass(Messwert.class);
+ * CsvBinder.Binding&lt;Messwert&gt; binding = binder.bind(data);
+ * for(IterableCsvData.CsvRow row : data) {
+ *     Messwert messwert = binding.read(row);
+ * }
+ * </pre>
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public final class CsvBinder<T> {
+
+	private static final ClassValue<CsvBinder<?>> BINDERS = new ClassValue<CsvBinder<?>>() {
+		@Override
+		protected CsvBinder<?> computeValue(final Class<?> type) {
+			return create(type);
+		}
+	};
+
+	private final Class<T> _type;
+
+	/**
+	 * Annotierte Felder in Schreibreihenfolge
+	 */
+	private final Property[] _fields;
+
+	/**
+	 * Felder, die nach dem Erzeugen des Objekts gesetzt werden
+	 */
+	private final Property[] _settableFields;
+
+	/**
+	 * Annotierte Konstruktorparameter oder <code>null</code>, falls der Konstruktor ohne Parameter verwendet wird
+	 */
+	private final Property[] _parameters;
+
+	/**
+	 * Konstruktor mit dem Typ <code>(Object[])Object</code> bzw. <code>()Object</code>
+	 */
+	private final MethodHandle _constructor;
+
+	private CsvBinder(final Class<T> type, final Property[] fields, final Property[] settableFields, final Property[] parameters, final MethodHandle constructor) {
+		_type = type;
+		_fields = fields;
+		_settableFields = settableFields;
+		_parameters = parameters;
+		_constructor = constructor;
+	}
+
+	/**
+	 * Gibt den Binder für eine Klasse zurück. Die Klasse wird nur beim ersten Aufruf analysiert.
+	 * @param type Klasse
+	 * @param <T> Typ der Objekte
+	 * @return Binder
+	 * @throws IllegalArgumentException Falls die Klasse nicht abgebildet werden kann, z.B. weil ein Feld einen nicht
+	 * unterstützten Typ hat oder kein geeigneter Konstruktor vorhanden ist
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> CsvBinder<T> forClass(final Class<T> type) {
+		return (CsvBinder<T>) BINDERS.get(type);
+	}
+
+	/**
+	 * Gibt die Spaltenköpfe zurück, die beim Schreiben verwendet werden
+	 * @return Spaltenköpfe
+	 */
+	public String[] getHeaderCells() {
+		final String[] result = new String[_fields.length];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = _fields[i]._name;
+		}
+		return result;
+	}
+
+	/**
+	 * Ermittelt die Spaltenindizes für die Zeilen eines Datensatzes
+	 * @param data CSV-Daten
+	 * @return Zuordnung, mit der die Zeilen von <code>data</code> gelesen werden
+	 * @throws CsvParseException Falls eine Spalte nicht gefunden wurde
+	 */
+	public Binding<T> bind(final IterableCsvData data) throws CsvParseException {
+		final int[] parameterColumns = _parameters == null ? null : resolveColumns(data, _parameters);
+		return new Binding<T>(this, data, parameterColumns, resolveColumns(data, _settableFields));
+	}
+
+	/**
+	 * Liest alle Zeilen eines Datensatzes
+	 * @param data CSV-Daten
+	 * @return Objekte
+	 * @throws CsvParseException Falls eine Spalte nicht gefunden wurde oder ein Wert nicht geparst werden kann
+	 */
+	public List<T> readAll(final IterableCsvData data) throws CsvParseException {
+		final Binding<T> binding = bind(data);
+		final List<T> result = new ArrayList<T>();
+		for(final IterableCsvData.CsvRow row : data) {
+			result.add(binding.read(row));
+		}
+		return result;
+	}
+
+	/**
+	 * Schreibt die Spaltenköpfe als Zeile
+	 * @param writer Ziel
+	 * @throws IOException IO-Fehler
+	 */
+	public void writeHeader(final CsvWriter writer) throws IOException {
+		writer.writeCsv((Object[]) getHeaderCells());
+	}
+
+	/**
+	 * Schreibt ein Objekt als Zeile
+	 * @param writer Ziel
+	 * @param object Objekt
+	 * @throws IOException IO-Fehler
+	 */
+	public void write(final CsvWriter writer, final T object) throws IOException {
+		final Property[] fields = _fields;
+		for(int i = 0; i < fields.length; i++) {
+			if(i > 0) writer.writeSeperator();
+			try {
+				fields[i].write(writer, object);
+			}
+			catch(IOException | RuntimeException | Error e) {
+				throw e;
+			}
+			catch(Throwable e) {
+				throw new IOException(e);
+			}
+		}
+		writer.writeNewLine();
+	}
+
+	/**
+	 * Schreibt mehrere Objekte als Zeilen
+	 * @param writer Ziel
+	 * @param objects Objekte
+	 * @throws IOException IO-Fehler
+	 */
+	public void writeAll(final CsvWriter writer, final Iterable<? extends T> objects) throws IOException {
+		for(final T object : objects) {
+			write(writer, object);
+		}
+	}
+
+	private static int[] resolveColumns(final IterableCsvData data, final Property[] properties) throws CsvParseException {
+		final String[] headerCells = data._headerCells;
+		final int[] columns = new int[properties.length];
+		for(int i = 0; i < properties.length; i++) {
+			final Property property = properties[i];
+			if(property._index >= 0) {
+				if(headerCells != null && property._index >= headerCells.length) {
+					throw new CsvParseException("Spaltenindex \"" + property._index + "\" nicht gefunden", 0);
+				}
+				columns[i] = property._index;
+			}
+			else {
+				columns[i] = data.getHeaderIndex(property._name);
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Analysiert eine Klasse
+	 * @param type Klasse
+	 * @return Binder
+	 */
+	private static <T> CsvBinder<T> create(final Class<T> type) {
+		final MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			final List<Property> fields = new ArrayList<Property>();
+			collectFields(lookup, type, fields);
+			if(fields.isEmpty()) {
+				throw new IllegalArgumentException("Die Klasse " + type.getName() + " enthält keine mit @CsvField annotierten Felder");
+			}
+
+			Constructor<?> annotatedConstructor = null;
+			for(final Constructor<?> constructor : type.getDeclaredConstructors()) {
+				if(isAnnotated(constructor)) {
+					if(annotatedConstructor != null) {
+						throw new IllegalArgumentException("Die Klasse " + type.getName() + " enthält mehrere Konstruktoren mit @CsvField-Parametern");
+					}
+					annotatedConstructor = constructor;
+				}
+			}
+
+			final Property[] parameters;
+			final MethodHandle constructorHandle;
+			if(annotatedConstructor != null) {
+				annotatedConstructor.setAccessible(true);
+				final Parameter[] params = annotatedConstructor.getParameters();
+				parameters = new Property[params.length];
+				for(int i = 0; i < params.length; i++) {
+					final CsvField annotation = params[i].getAnnotation(CsvField.class);
+					if(annotation.value().isEmpty() && annotation.index() < 0) {
+						throw new IllegalArgumentException("Der Konstruktorparameter " + (i + 1) + " von " + type.getName() + " benötigt einen Spaltennamen oder -index");
+					}
+					parameters[i] = createProperty(params[i].getType(), annotation, annotation.value(), null, null, type.getName() + "(" + params[i].getName() + ")");
+				}
+				constructorHandle = lookup.unreflectConstructor(annotatedConstructor)
+						.asType(MethodType.genericMethodType(params.length))
+						.asSpreader(Object[].class, params.length);
+			}
+			else {
+				final Constructor<T> constructor;
+				try {
+					constructor = type.getDeclaredConstructor();
+				}
+				catch(NoSuchMethodException e) {
+					throw new IllegalArgumentException("Die Klasse " + type.getName() + " benötigt einen Konstruktor ohne Parameter oder einen Konstruktor mit @CsvField-Parametern", e);
+				}
+				constructor.setAccessible(true);
+				parameters = null;
+				constructorHandle = lookup.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+			}
+
+			final List<Property> settableFields = new ArrayList<Property>();
+			for(final Property field : fields) {
+				if(parameters != null && isConstructorParameter(field, parameters)) continue;
+				if(field._setter == null) {
+					throw new IllegalArgumentException("Das Feld " + field._description + " ist final und wird nicht durch einen Konstruktorparameter gesetzt");
+				}
+				settableFields.add(field);
+			}
+
+			if(allIndexed(fields)) {
+				Collections.sort(fields, new Comparator<Property>() {
+					@Override
+					public int compare(final Property o1, final Property o2) {
+						return Integer.compare(o1._index, o2._index);
+					}
+				});
+			}
+			return new CsvBinder<T>(
+					type,
+					fields.toArray(new Property[fields.size()]),
+					settableFields.toArray(new Property[settableFields.size()]),
+					parameters,
+					constructorHandle
+			);
+		}
+		catch(IllegalAccessException e) {
+			throw new IllegalArgumentException("Kein Zugriff auf die Klasse " + type.getName(), e);
+		}
+	}
+
+	private static void collectFields(final MethodHandles.Lookup lookup, final Class<?> type, final List<Property> fields) throws IllegalAccessException {
+		if(type.getSuperclass() != null) {
+			collectFields(lookup, type.getSuperclass(), fields);
+		}
+		for(final Field field : type.getDeclaredFields()) {
+			final CsvField annotation = field.getAnnotation(CsvField.class);
+			if(annotation == null) continue;
+			if(Modifier.isStatic(field.getModifiers())) {
+				throw new IllegalArgumentException("Das Feld " + type.getName() + "." + field.getName() + " ist statisch");
+			}
+			field.setAccessible(true);
+			final MethodHandle setter = Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field);
+			final String name = annotation.value().isEmpty() ? field.getName() : annotation.value();
+			fields.add(createProperty(field.getType(), annotation, name, setter, lookup.unreflectGetter(field), type.getName() + "." + field.getName()));
+		}
+	}
+
+	private static boolean isAnnotated(final Constructor<?> constructor) {
+		final Parameter[] parameters = constructor.getParameters();
+		if(parameters.length == 0) return false;
+		for(final Parameter parameter : parameters) {
+			if(parameter.getAnnotation(CsvField.class) == null) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Prüft, ob ein Feld durch einen Konstruktorparameter mit derselben Spalte belegt wird
+	 * @param field Feld
+	 * @param parameters Konstruktorparameter
+	 * @return true falls belegt
+	 */
+	private static boolean isConstructorParameter(final Property field, final Property[] parameters) {
+		for(final Property parameter : parameters) {
+			if(parameter._index >= 0 ? parameter._index == field._index : parameter._name.equals(field._name)) return true;
+		}
+		return false;
+	}
+
+	private static boolean allIndexed(final List<Property> fields) {
+		for(final Property field : fields) {
+			if(field._index < 0) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Erzeugt die Abbildung eines Feldes oder Konstruktorparameters
+	 * @param type Typ
+	 * @param annotation Annotation
+	 * @param name Spaltenname
+	 * @param setter Setter oder <code>null</code>
+	 * @param getter Getter oder <code>null</code>
+	 * @param description Bezeichnung für Fehlermeldungen
+	 * @return Abbildung
+	 */
+	@SuppressWarnings("unchecked")
+	private static Property createProperty(final Class<?> type, final CsvField annotation, final String name, final MethodHandle setter, final MethodHandle getter, final String description) {
+		if(annotation.parser() != CsvField.DefaultParser.class) {
+			final CsvParser<?> parser;
+			try {
+				parser = annotation.parser().getConstructor().newInstance();
+			}
+			catch(ReflectiveOperationException e) {
+				throw new IllegalArgumentException("Der Parser " + annotation.parser().getName() + " von " + description + " kann nicht erzeugt werden", e);
+			}
+			return new ObjectProperty(name, annotation.index(), description, setter, getter, parser, !type.isPrimitive());
+		}
+		if(type == int.class) {
+			return new IntProperty(name, annotation.index(), description, setter, getter);
+		}
+		if(type == long.class) {
+			return new LongProperty(name, annotation.index(), description, setter, getter);
+		}
+		if(type == double.class) {
+			return new DoubleProperty(name, annotation.index(), description, setter, getter);
+		}
+		if(type == String.class) {
+			return new ObjectProperty(name, annotation.index(), description, setter, getter, new CsvStringParser(), false);
+		}
+		if(type == Integer.class) {
+			return new ObjectProperty(name, annotation.index(), description, setter, getter, new CsvIntegerParser(), true);
+		}
+		if(type == Long.class) {
+			return new ObjectProperty(name, annotation.index(), description, setter, getter, new CsvLongParser(), true);
+		}
+		if(type == Double.class) {
+			return new ObjectProperty(name, annotation.index(), description, setter, getter, new CsvDoubleParser(), true);
+		}
+		if(type == boolean.class || type == Boolean.class) {
+			return new ObjectProperty(name, annotation.index(), description, setter, getter, new BooleanParser(), type == Boolean.class);
+		}
+		if(type.isEnum()) {
+			return new ObjectProperty(name, annotation.index(), description, setter, getter, createEnumParser(type), true);
+		}
+		throw new IllegalArgumentException("Der Typ " + type.getName() + " von " + description + " wird nicht unterstützt, bitte einen Parser angeben");
+	}
+
+	/**
+	 * Zuordnung eines {@link CsvBinder}s zu den Spalten eines Datensatzes, siehe {@link CsvBinder#bind(IterableCsvData)}
+	 * @param <T> Typ der Objekte
+	 */
+	public static final class Binding<T> {
+
+		private final CsvBinder<T> _binder;
+
+		private final IterableCsvData _csvData;
+
+		private final int[] _parameterColumns;
+
+		private final int[] _fieldColumns;
+
+		private Binding(final CsvBinder<T> binder, final IterableCsvData csvData, final int[] parameterColumns, final int[] fieldColumns) {
+			_binder = binder;
+			_csvData = csvData;
+			_parameterColumns = parameterColumns;
+			_fieldColumns = fieldColumns;
+		}
+
+		/**
+		 * Erzeugt ein Objekt aus einer Zeile
+		 * @param row Zeile
+		 * @return Objekt
+		 * @throws CsvParseException Falls ein Wert nicht geparst werden kann oder beim Einlesen der Zeile ein Fehler auftrat
+		 * @throws IllegalArgumentException Falls die Zeile nicht zu den gebundenen CSV-Daten gehört
+		 */
+		public T read(final IterableCsvData.CsvRow row) throws CsvParseException {
+			if(row.getCsvData() != _csvData){
+				throw new IllegalArgumentException("Der row-Parameter passt nicht zum CsvData-Objekt.");
+			}
+			row.checkException();
+			final CsvBinder<T> binder = _binder;
+			try {
+				final Object object;
+				if(binder._parameters != null) {
+					final Property[] parameters = binder._parameters;
+					final Object[] args = new Object[parameters.length];
+					for(int i = 0; i < parameters.length; i++) {
+						args[i] = parameters[i].parse(row, _parameterColumns[i]);
+					}
+					object = (Object) binder._constructor.invokeExact(args);
+				}
+				else {
+					object = (Object) binder._constructor.invokeExact();
+				}
+				final Property[] fields = binder._settableFields;
+				for(int i = 0; i < fields.length; i++) {
+					fields[i].set(object, row, _fieldColumns[i]);
+				}
+				return binder._type.cast(object);
+			}
+			catch(CsvParseException | Error e) {
+				throw e;
+			}
+			catch(Throwable e) {
+				// Exceptions aus Konstruktoren der Zielklasse, z.B. bei ungültigen Wertkombinationen
+				throw new CsvParseException(e, row.getRowIndex());
+			}
+		}
+	}
+
+	/**
+	 * Abbildung eines Feldes oder Konstruktorparameters auf eine Spalte
+	 */
+	private abstract static class Property {
+
+		final String _name;
+
+		final int _index;
+
+		final String _description;
+
+		/**
+		 * Setter mit dem Typ <code>(Object, Feldtyp)void</code> oder <code>null</code>
+		 */
+		final MethodHandle _setter;
+
+		/**
+		 * Getter mit dem Typ <code>(Object)Feldtyp</code> oder <code>null</code>
+		 */
+		final MethodHandle _getter;
+
+		Property(final String name, final int index, final String description, final MethodHandle setter, final MethodHandle getter, final Class<?> handleType) {
+			_name = name;
+			_index = index;
+			_description = description;
+			_setter = setter == null ? null : setter.asType(MethodType.methodType(void.class, Object.class, handleType));
+			_getter = getter == null ? null : getter.asType(MethodType.methodType(handleType, Object.class));
+		}
+
+		/**
+		 * Parst den Wert für einen Konstruktorparameter
+		 */
+		abstract Object parse(IterableCsvData.CsvRow row, int columnIndex) throws CsvParseException;
+
+		/**
+		 * Parst den Wert und setzt das Feld
+		 */
+		abstract void set(Object object, IterableCsvData.CsvRow row, int columnIndex) throws Throwable;
+
+		/**
+		 * Schreibt den Wert des Feldes
+		 */
+		abstract void write(CsvWriter writer, Object object) throws Throwable;
+	}
+
+	private static final class IntProperty extends Property {
+
+		IntProperty(final String name, final int index, final String description, final MethodHandle setter, final MethodHandle getter) {
+			super(name, index, description, setter, getter, int.class);
+		}
+
+		@Override
+		Object parse(final IterableCsvData.CsvRow row, final int columnIndex) throws CsvParseException {
+			return row.getIntValue(columnIndex);
+		}
+
+		@Override
+		void set(final Object object, final IterableCsvData.CsvRow row, final int columnIndex) throws Throwable {
+			_setter.invokeExact(object, row.getIntValue(columnIndex));
+		}
+
+		@Override
+		void write(final CsvWriter writer, final Object object) throws Throwable {
+			writer.writeInt((int) _getter.invokeExact(object));
+		}
+	}
+
+	private static final class LongProperty extends Property {
+
+		LongProperty(final String name, final int index, final String description, final MethodHandle setter, final MethodHandle getter) {
+			super(name, index, description, setter, getter, long.class);
+		}
+
+		@Override
+		Object parse(final IterableCsvData.CsvRow row, final int columnIndex) throws CsvParseException {
+			return row.getLongValue(columnIndex);
+		}
+
+		@Override
+		void set(final Object object, final IterableCsvData.CsvRow row, final int columnIndex) throws Throwable {
+			_setter.invokeExact(object, row.getLongValue(columnIndex));
+		}
+
+		@Override
+		void write(final CsvWriter writer, final Object object) throws Throwable {
+			writer.writeLong((long) _getter.invokeExact(object));
+		}
+	}
+
+	private static final class DoubleProperty extends Property {
+
+		DoubleProperty(final String name, final int index, final String description, final MethodHandle setter, final MethodHandle getter) {
+			super(name, index, description, setter, getter, double.class);
+		}
+
+		@Override
+		Object parse(final IterableCsvData.CsvRow row, final int columnIndex) throws CsvParseException {
+			return row.getDoubleValue(columnIndex);
+		}
+
+		@Override
+		void set(final Object object, final IterableCsvData.CsvRow row, final int columnIndex) throws Throwable {
+			_setter.invokeExact(object, row.getDoubleValue(columnIndex));
+		}
+
+		@Override
+		void write(final CsvWriter writer, final Object object) throws Throwable {
+			writer.writeDouble((double) _getter.invokeExact(object));
+		}
+	}
+
+	private static final class ObjectProperty extends Property {
+
+		private final CsvParser<?> _parser;
+
+		private final boolean _nullIfEmpty;
+
+		ObjectProperty(final String name, final int index, final String description, final MethodHandle setter, final MethodHandle getter, final CsvParser<?> parser, final boolean nullIfEmpty) {
+			super(name, index, description, setter, getter, Object.class);
+			_parser = parser;
+			_nullIfEmpty = nullIfEmpty;
+		}
+
+		@Override
+		Object parse(final IterableCsvData.CsvRow row, final int columnIndex) throws CsvParseException {
+			return row.getParsedValue(columnIndex, _parser, _nullIfEmpty);
+		}
+
+		@Override
+		void set(final Object object, final IterableCsvData.CsvRow row, final int columnIndex) throws Throwable {
+			_setter.invokeExact(object, row.getParsedValue(columnIndex, _parser, _nullIfEmpty));
+		}
+
+		@Override
+		void write(final CsvWriter writer, final Object object) throws Throwable {
+			final Object value = (Object) _getter.invokeExact(object);
+			if(_parser instanceof EnumParser && value != null) {
+				// Der EnumParser liest den Namen der Konstante, toString() kann überschrieben sein
+				writer.writeData(((Enum<?>) value).name());
+			}
+			else {
+				writer.writeData(value);
+			}
+		}
+	}
+
+	private static final class BooleanParser implements CsvParser<Boolean> {
+		@Override
+		public Boolean parseString(final String s) throws IllegalArgumentException {
+			return Boolean.valueOf(s.trim());
+		}
+	}
+
+	/**
+	 * Erzeugt den Parser für eine Enum-Klasse
+	 * @param type Enum-Klasse, {@link Class#isEnum()} muss erfüllt sein
+	 * @param <E> Typ der Enum
+	 * @return Parser
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E extends Enum<E>> EnumParser<E> createEnumParser(final Class<?> type) {
+		return new EnumParser<E>((Class<E>) type);
+	}
+
+	private static final class EnumParser<E extends Enum<E>> implements CsvParser<E> {
+
+		private final Class<E> _type;
+
+		private EnumParser(final Class<E> type) {
+			_type = type;
+		}
+
+		@Override
+		public E parseString(final String s) throws IllegalArgumentException {
+			return Enum.valueOf(_type, s.trim());
+		}
+	}
+}
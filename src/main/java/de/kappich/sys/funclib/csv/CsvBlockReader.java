@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Liest CSV-Daten blockweise, siehe {@link CsvReader#readBlocks(Map, int)}. Jeder Aufruf von {@link #next()} füllt
+ * denselben {@link CsvRowBlock} mit den nächsten Datensätzen, pro Datensatz werden also keine Objekte erzeugt (außer
+ * Strings für {@link CsvColumnType#STRING}-Spalten).
+ * <pre>
+ * CsvBlockReader blocks = reader.readBlocks(types, 4096);
+ * while(blocks.next()) {
+ *     CsvRowBlock block = blocks.getBlock();
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public final class CsvBlockReader {
+
+	private final CsvReader _reader;
+
+	/**
+	 * Spaltenköpfe
+	 */
+	private final String[] _headerCells;
+
+	/**
+	 * Map Spaltenkopf->Index
+	 */
+	private final HashMap<String, Integer> _columnNameToIndexMap;
+
+	private final CsvRowBlock _block;
+
+	/**
+	 * Konstruktor
+	 * @param reader Reader, dessen Datensätze gelesen werden
+	 * @param headerCells Spaltenköpfe oder <code>null</code>
+	 * @param columnNameToIndexMap Map Spaltenkopf->Index
+	 * @param block Wiederverwendeter Block
+	 */
+	CsvBlockReader(final CsvReader reader, final String[] headerCells, final HashMap<String, Integer> columnNameToIndexMap, final CsvRowBlock block) {
+		_reader = reader;
+		_headerCells = headerCells;
+		_columnNameToIndexMap = columnNameToIndexMap;
+		_block = block;
+	}
+
+	/**
+	 * Liest die nächsten Datensätze in den Block
+	 * @return <code>false</code>, falls keine weiteren Datensätze vorhanden sind
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei oder ein Wert, der nicht in den Datentyp der Spalte
+	 * umgewandelt werden kann
+	 */
+	public boolean next() throws IOException {
+		final CsvRowBlock block = _block;
+		block.clear();
+		while(!block.isFull()) {
+			final CsvRecord record = _reader.nextRecord();
+			if(record == null) break;
+			block.addRecord(record, _reader.getLineNum());
+		}
+		return block.getSize() > 0;
+	}
+
+	/**
+	 * Gibt den Block mit den zuletzt gelesenen Datensätzen zurück. Es wird immer dasselbe Objekt zurückgegeben.
+	 * @return Block
+	 */
+	public CsvRowBlock getBlock() {
+		return _block;
+	}
+
+	/**
+	 * Gibt die Spaltenköpfe zurück
+	 * @return die Spaltenköpfe oder <code>null</code> wenn keine Spaltenköpfe definiert wurden
+	 */
+	public String[] getHeaderCells() {
+		return _headerCells == null ? null : _headerCells.clone();
+	}
+
+	/**
+	 * Gibt die Zuordnung Spaltenüberschrift zu Spaltenindex zurück
+	 * @return die Zuordnung Spaltenüberschrift zu Spaltenindex
+	 */
+	public Map<String, Integer> getColumnNameToIndexMap() {
+		return Collections.unmodifiableMap(_columnNameToIndexMap);
+	}
+
+	/**
+	 * Ermittelt den Spaltenindex zu einem Spaltennamen
+	 * @param header Spaltenname
+	 * @return Index
+	 * @throws CsvParseException Falls es keine Spalte mit dem angegebenen Namen gibt
+	 */
+	public int getHeaderIndex(final String header) throws CsvParseException {
+		final Integer col = _columnNameToIndexMap.get(header);
+		if(col == null){
+			throw new CsvParseException("Spalte \"" + header + "\" nicht gefunden", 0);
+		}
+		return col;
+	}
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link CsvWriter}, der die Zeichen direkt in einen wiederverwendeten ByteBuffer kodiert und diesen blockweise in
+ * einen {@link WritableByteChannel} (z.B. einen {@link FileChannel}) schreibt. Die Zeichen werden also nicht erst in
+ * einem char-Puffer gesammelt und danach von einem {@link java.io.OutputStreamWriter} kodiert.
+ * <p>
+ * Bei Kodierungen, in denen ASCII-Zeichen als einzelnes Byte mit demselben Wert dargestellt werden (z.B. UTF-8 oder
+ * ISO-8859-1), werden ASCII-Zeichen wie Trennzeichen, Anführungszeichen, Zeilenenden und Ziffern ohne
+ * {@link CharsetEncoder} direkt in den Puffer geschrieben. Nur Zeichen außerhalb des ASCII-Bereichs werden kodiert.
+ * Nicht darstellbare Zeichen werden wie bei {@link java.io.OutputStreamWriter} ersetzt.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public class CsvChannelWriter extends CsvWriter {
+
+	/**
+	 * Größe des Ausgabepuffers
+	 */
+	private static final int BUFFER_SIZE = 1 << 18;
+
+	private final WritableByteChannel _channel;
+
+	private final CharsetEncoder _encoder;
+
+	/**
+	 * ASCII-Zeichen können direkt als Byte geschrieben werden
+	 */
+	private final boolean _asciiCompatible;
+
+	/**
+	 * Ausgabepuffer
+	 */
+	private final ByteBuffer _buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/**
+	 * Erstes Zeichen eines Surrogat-Paars, dessen zweites Zeichen noch nicht geschrieben wurde, sonst 0
+	 */
+	private char _pendingSurrogate;
+
+	private boolean _closed;
+
+	/**
+	 * Erstellt einen neuen CsvChannelWriter mit ';' als Trennzeichen und '"' als Anführungszeichen
+	 * @param encoding Dateikodierung, z.B. UTF-8
+	 * @param channel Channel als Ziel zum schreiben
+	 */
+	public CsvChannelWriter(final Charset encoding, final WritableByteChannel channel) {
+		this(encoding, channel, ';', '"', false);
+	}
+
+	/**
+	 * Erstellt einen neuen CsvChannelWriter
+	 * @param encoding Dateikodierung, z.B. UTF-8
+	 * @param channel Channel als Ziel zum schreiben
+	 * @param csvSeparator Trennzeichen
+	 * @param csvQuote Maskierungszeichen (Anführungszeichen)
+	 * @param quoteAll Bestimmt, ob Anführungszeichen überall gesetzt werden (true) oder nur dort wo notwendig (false)
+	 */
+	public CsvChannelWriter(final Charset encoding, final WritableByteChannel channel, final char csvSeparator, final char csvQuote, final boolean quoteAll) {
+		super(new UnusedWriter(), csvSeparator, csvQuote, quoteAll, 1);
+		_channel = channel;
+		_encoder = encoding.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		// Trenn- und Anführungszeichen außerhalb des ASCII-Bereichs werden wie alle anderen Zeichen einzeln geprüft
+		_asciiCompatible = MappedCsvTokenizer.isAsciiCompatible(encoding);
+	}
+
+	/**
+	 * Erstellt einen neuen CsvChannelWriter, der eine Datei neu anlegt oder überschreibt, mit ';' als Trennzeichen und
+	 * '"' als Anführungszeichen
+	 * @param file Datei
+	 * @param encoding Dateikodierung, z.B. UTF-8
+	 * @throws IOException Die Datei kann nicht geöffnet werden
+	 */
+	public CsvChannelWriter(final Path file, final Charset encoding) throws IOException {
+		this(encoding, FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+	}
+
+	@Override
+	public void write(final int c) throws IOException {
+		ensureOpen();
+		if(c < 0x80 && _asciiCompatible && _pendingSurrogate == 0) {
+			if(!_buffer.hasRemaining()) flushBuffer();
+			_buffer.put((byte) c);
+			return;
+		}
+		encode(CharBuffer.wrap(new char[]{(char) c}));
+	}
+
+	@Override
+	public void write(final char[] cbuf, final int off, final int len) throws IOException {
+		ensureOpen();
+		final int end = off + len;
+		int i = off;
+		while(i < end) {
+			if(_asciiCompatible && _pendingSurrogate == 0) {
+				final ByteBuffer buffer = _buffer;
+				for(; i < end; i++) {
+					final char c = cbuf[i];
+					if(c >= 0x80) break;
+					if(!buffer.hasRemaining()) flushBuffer();
+					buffer.put((byte) c);
+				}
+				if(i == end) return;
+			}
+			final int runEnd = nonAsciiRunEnd(CharBuffer.wrap(cbuf), i, end);
+			encode(CharBuffer.wrap(cbuf, i, runEnd - i));
+			i = runEnd;
+		}
+	}
+
+	@Override
+	public void write(final String s, final int off, final int len) throws IOException {
+		ensureOpen();
+		final int end = off + len;
+		int i = off;
+		while(i < end) {
+			if(_asciiCompatible && _pendingSurrogate == 0) {
+				final ByteBuffer buffer = _buffer;
+				for(; i < end; i++) {
+					final char c = s.charAt(i);
+					if(c >= 0x80) break;
+					if(!buffer.hasRemaining()) flushBuffer();
+					buffer.put((byte) c);
+				}
+				if(i == end) return;
+			}
+			final int runEnd = nonAsciiRunEnd(s, i, end);
+			encode(CharBuffer.wrap(s, i, runEnd));
+			i = runEnd;
+		}
+	}
+
+	@Override
+	public void newLine() throws IOException {
+		write(System.lineSeparator());
+	}
+
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		flushBuffer();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(_closed) return;
+		try {
+			final CharBuffer pending = _pendingSurrogate == 0 ? CharBuffer.allocate(0) : CharBuffer.wrap(new char[]{_pendingSurrogate});
+			_pendingSurrogate = 0;
+			while(_encoder.encode(pending, _buffer, true).isOverflow()) {
+				flushBuffer();
+			}
+			while(_encoder.flush(_buffer).isOverflow()) {
+				flushBuffer();
+			}
+			flushBuffer();
+		}
+		finally {
+			_closed = true;
+			_channel.close();
+		}
+	}
+
+	/**
+	 * Bestimmt das Ende eines Abschnitts, der mit dem {@link CharsetEncoder} kodiert werden muss
+	 * @param s Zeichen
+	 * @param start Beginn des Abschnitts
+	 * @param end Ende der Zeichen
+	 * @return Ende des Abschnitts
+	 */
+	private int nonAsciiRunEnd(final CharSequence s, final int start, final int end) {
+		if(!_asciiCompatible) return end;
+		int i = start + 1;
+		while(i < end && s.charAt(i) >= 0x80) i++;
+		return i;
+	}
+
+	/**
+	 * Kodiert Zeichen in den Ausgabepuffer. Ein Surrogat-Zeichen am Ende wird zurückgehalten, bis das zugehörige zweite
+	 * Zeichen geschrieben wird.
+	 * @param chars Zeichen
+	 * @throws IOException IO-Fehler
+	 */
+	private void encode(CharBuffer chars) throws IOException {
+		if(_pendingSurrogate != 0) {
+			final CharBuffer combined = CharBuffer.allocate(chars.remaining() + 1);
+			combined.put(_pendingSurrogate).put(chars).flip();
+			_pendingSurrogate = 0;
+			chars = combined;
+		}
+		while(_encoder.encode(chars, _buffer, false).isOverflow()) {
+			flushBuffer();
+		}
+		if(chars.hasRemaining()) {
+			// Der Encoder wartet auf das zweite Zeichen eines Surrogat-Paars
+			_pendingSurrogate = chars.get();
+		}
+	}
+
+	/**
+	 * Schreibt den Ausgabepuffer in den Channel
+	 * @throws IOException IO-Fehler
+	 */
+	private void flushBuffer() throws IOException {
+		_buffer.flip();
+		while(_buffer.hasRemaining()) {
+			_channel.write(_buffer);
+		}
+		_buffer.clear();
+	}
+
+	private void ensureOpen() throws IOException {
+		if(_closed) throw new IOException("Stream closed");
+	}
+
+	/**
+	 * Writer für den nicht verwendeten Puffer von {@link java.io.BufferedWriter}. Alle Ausgaben werden von
+	 * {@link CsvChannelWriter} selbst behandelt, der dazu alle Methoden überschreibt, die {@link java.io.BufferedWriter}
+	 * selbst implementiert: {@link CsvChannelWriter#write(int)}, {@link CsvChannelWriter#write(char[], int, int)},
+	 * {@link CsvChannelWriter#write(String, int, int)}, {@link CsvChannelWriter#newLine()},
+	 * {@link CsvChannelWriter#flush()} und {@link CsvChannelWriter#close()}. Die übrigen Methoden von {@link Writer}
+	 * (<code>write(char[])</code>, <code>write(String)</code> und <code>append</code>) rufen nur diese Methoden auf.
+	 * Fügt {@link CsvWriter} oder eine neue Java-Version eine Methode hinzu, die direkt in den Puffer der Oberklasse
+	 * schreibt, muss sie hier ebenfalls überschrieben werden, sonst löst sie diese Exception aus.
+	 */
+	private static final class UnusedWriter extends Writer {
+		@Override
+		public void write(final char[] cbuf, final int off, final int len) {
+			throw new UnsupportedOperationException("Ausgabe über eine von CsvChannelWriter nicht überschriebene Methode");
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+
+/**
+ * Position in einer CSV-Datei, an der ein unterbrochener Lesevorgang fortgesetzt werden kann. Ein Checkpoint wird mit
+ * {@link CsvReader#checkpoint()} erstellt und kann serialisiert werden. Ein mit
+ * {@link CsvReader#CsvReader(java.nio.file.Path, CsvCheckpoint)} erzeugter Reader springt direkt an die gespeicherte
+ * Dateiposition, ohne die Datei bis dorthin zu lesen.
+ * <p>
+ * Gespeichert werden neben der Dateiposition die Zeilennummer, der Spaltenkopf, Kodierung, Trennzeichen und
+ * Anführungszeichen. Ein Checkpoint liegt immer an einer Datensatzgrenze, also außerhalb einer maskierten Zelle. Um
+ * zu erkennen, dass die Datei inzwischen ersetzt oder verändert wurde, wird zusätzlich eine Prüfsumme der Bytes vor
+ * der Position gespeichert. An die Datei angehängte Daten sind dagegen zulässig.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public final class CsvCheckpoint implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Anzahl Bytes vor der Position, über die die Prüfsumme gebildet wird
+	 */
+	private static final int FINGERPRINT_SIZE = 4096;
+
+	private final String _encoding;
+
+	private final char _csvSeparator;
+
+	private final char _csvQuote;
+
+	/**
+	 * <code>true</code>, falls der Spaltenkopf bereits gelesen wurde
+	 */
+	private final boolean _headerRead;
+
+	private final String[] _headerCells;
+
+	private final long _position;
+
+	private final int _lineNum;
+
+	private final long _fingerprint;
+
+	/**
+	 * Konstruktor
+	 * @param encoding Dateikodierung
+	 * @param csvSeparator Trennzeichen
+	 * @param csvQuote Maskierungszeichen (Anführungszeichen)
+	 * @param headerRead Der Spaltenkopf wurde bereits gelesen
+	 * @param headerCells Spaltenkopf oder <code>null</code>
+	 * @param position Dateiposition des nächsten Datensatzes
+	 * @param lineNum Nummer der zuletzt gelesenen Zeile
+	 * @param channel Datei, für die Prüfsumme
+	 * @throws IOException IO-Fehler
+	 */
+	CsvCheckpoint(final Charset encoding, final char csvSeparator, final char csvQuote, final boolean headerRead, final String[] headerCells, final long position, final int lineNum, final FileChannel channel) throws IOException {
+		_encoding = encoding.name();
+		_csvSeparator = csvSeparator;
+		_csvQuote = csvQuote;
+		_headerRead = headerRead;
+		_headerCells = headerCells == null ? null : headerCells.clone();
+		_position = position;
+		_lineNum = lineNum;
+		_fingerprint = fingerprint(channel, position);
+	}
+
+	/**
+	 * Gibt die Kodierung der Datei zurück
+	 * @return Kodierung
+	 */
+	public Charset getEncoding() {
+		return Charset.forName(_encoding);
+	}
+
+	/**
+	 * Gibt das Trennzeichen zurück
+	 * @return Trennzeichen
+	 */
+	public char getCsvSeparator() {
+		return _csvSeparator;
+	}
+
+	/**
+	 * Gibt das Maskierungszeichen zurück
+	 * @return Maskierungszeichen
+	 */
+	public char getCsvQuote() {
+		return _csvQuote;
+	}
+
+	/**
+	 * Bestimmt, ob der Spaltenkopf vor dem Checkpoint bereits gelesen wurde. Andernfalls liest ein fortgesetzter Reader
+	 * den Spaltenkopf wie gewohnt aus der Datei.
+	 * @return <code>true</code>, falls der Spaltenkopf gelesen wurde
+	 */
+	public boolean isHeaderRead() {
+		return _headerRead;
+	}
+
+	/**
+	 * Gibt den Spaltenkopf zurück
+	 * @return Spaltenkopf oder <code>null</code>, falls er nicht gelesen oder nicht angegeben wurde
+	 */
+	public String[] getHeaderCells() {
+		return _headerCells == null ? null : _headerCells.clone();
+	}
+
+	/**
+	 * Gibt die Dateiposition zurück, an der der nächste Datensatz beginnt
+	 * @return Dateiposition
+	 */
+	public long getPosition() {
+		return _position;
+	}
+
+	/**
+	 * Gibt die Nummer der zuletzt gelesenen Zeile zurück
+	 * @return Zeilennummer
+	 */
+	public int getLineNum() {
+		return _lineNum;
+	}
+
+	/**
+	 * Prüft, ob der Checkpoint zu einer Datei passt
+	 * @param channel Datei
+	 * @throws IOException Falls die Datei kürzer als die Position ist oder sich vor der Position verändert hat
+	 */
+	void verify(final FileChannel channel) throws IOException {
+		final long fileSize = channel.size();
+		if(fileSize < _position) {
+			throw new IOException("Der Checkpoint passt nicht zur Datei (Position " + _position + ", Dateigröße " + fileSize + " Byte)");
+		}
+		if(fingerprint(channel, _position) != _fingerprint) {
+			throw new IOException("Der Checkpoint passt nicht zur Datei (Datei wurde vor Position " + _position + " verändert)");
+		}
+	}
+
+	/**
+	 * Berechnet eine Prüfsumme über die Bytes vor einer Dateiposition
+	 * @param channel Datei
+	 * @param position Dateiposition
+	 * @return Prüfsumme
+	 * @throws IOException IO-Fehler
+	 */
+	private static long fingerprint(final FileChannel channel, final long position) throws IOException {
+		final int length = (int) Math.min(FINGERPRINT_SIZE, position);
+		final ByteBuffer buffer = ByteBuffer.allocate(length);
+		final long start = position - length;
+		while(buffer.hasRemaining()) {
+			if(channel.read(buffer, start + buffer.position()) < 0) {
+				throw new IOException("Unerwartetes Dateiende");
+			}
+		}
+		final CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, length);
+		return crc.getValue();
+	}
+
+	@Override
+	public String toString() {
+		return "CsvCheckpoint{" + "Position=" + _position + ", Zeile=" + _lineNum + '}';
+	}
+}
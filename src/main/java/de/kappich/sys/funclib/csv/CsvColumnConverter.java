@@ -0,0 +1,217 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Wandelt alle Werte einer Spalte eines {@link CsvData}-Objekts in ein Array um. Die Zeilen werden mit
+ * {@link ParallelRowRanges} parallel verarbeitet. Fehler führen nicht zum Abbruch, sondern werden über alle Bereiche
+ * gesammelt und am Ende gemeinsam als {@link CsvConversionException} ausgelöst.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class CsvColumnConverter {
+
+	/**
+	 * Maximale Anzahl gespeicherter Fehler, damit eine Spalte mit lauter ungültigen Werten nicht ebenso viele Exceptions
+	 * im Speicher hält. Gespeichert werden die Fehler mit den kleinsten Zeilennummern.
+	 */
+	static final int MAX_EXCEPTIONS = 1000;
+
+	private static final Comparator<CsvParseException> BY_POSITION = new Comparator<CsvParseException>() {
+		@Override
+		public int compare(final CsvParseException o1, final CsvParseException o2) {
+			if(o1.getRow() != o2.getRow()) return o1.getRow() < o2.getRow() ? -1 : 1;
+			return Integer.compare(o1.getCol(), o2.getCol());
+		}
+	};
+
+	/**
+	 * Umwandlung einer einzelnen Zeile
+	 */
+	private interface RowConversion {
+		/**
+		 * Wandelt den Wert einer Zeile um und speichert ihn im Ergebnis. Wird für verschiedene Zeilen gleichzeitig von
+		 * mehreren Threads aufgerufen.
+		 * @param row Zeile
+		 * @param index Zeilenindex im Ergebnis
+		 * @throws CsvParseException Falls der Wert nicht umgewandelt werden kann
+		 */
+		void convert(IterableCsvData.CsvRow row, int index) throws CsvParseException;
+	}
+
+	private CsvColumnConverter() {
+	}
+
+	static int[] toIntArray(final CsvData data, final CsvColumn<Integer> column) throws CsvParseException {
+		final int[] result = new int[data.getNumRows()];
+		convert(data, new RowConversion() {
+			@Override
+			public void convert(final IterableCsvData.CsvRow row, final int index) throws CsvParseException {
+				result[index] = row.getInt(column);
+			}
+		});
+		return result;
+	}
+
+	static long[] toLongArray(final CsvData data, final CsvColumn<Long> column) throws CsvParseException {
+		final long[] result = new long[data.getNumRows()];
+		convert(data, new RowConversion() {
+			@Override
+			public void convert(final IterableCsvData.CsvRow row, final int index) throws CsvParseException {
+				result[index] = row.getLong(column);
+			}
+		});
+		return result;
+	}
+
+	static double[] toDoubleArray(final CsvData data, final CsvColumn<Double> column) throws CsvParseException {
+		final double[] result = new double[data.getNumRows()];
+		convert(data, new RowConversion() {
+			@Override
+			public void convert(final IterableCsvData.CsvRow row, final int index) throws CsvParseException {
+				result[index] = row.getDouble(column);
+			}
+		});
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> List<T> toList(final CsvData data, final CsvColumn<T> column) throws CsvParseException {
+		final Object[] result = new Object[data.getNumRows()];
+		convert(data, new RowConversion() {
+			@Override
+			public void convert(final IterableCsvData.CsvRow row, final int index) throws CsvParseException {
+				result[index] = row.getValue(column);
+			}
+		});
+		return Collections.unmodifiableList((List<T>) Arrays.asList(result));
+	}
+
+	/**
+	 * Wandelt alle Zeilen parallel um
+	 * @param data CSV-Daten
+	 * @param conversion Umwandlung einer Zeile
+	 * @throws CsvConversionException Falls mindestens ein Wert nicht umgewandelt werden konnte
+	 */
+	private static void convert(final CsvData data, final RowConversion conversion) throws CsvParseException {
+		final ExceptionCollector collector = new ExceptionCollector();
+		ParallelRowRanges.forEach(data.getNumRows(), new ParallelRowRanges.RangeAction() {
+			@Override
+			public void apply(final int from, final int to) {
+				List<CsvParseException> rangeExceptions = null;
+				int rangeErrors = 0;
+				for(int i = from; i < to; i++) {
+					try {
+						conversion.convert(data.getRow(i), i);
+					}
+					catch(CsvParseException e) {
+						// Fehler, die ohnehin nicht zu den ersten MAX_EXCEPTIONS gehören, werden nur gezählt
+						if(collector.isKept(e)) {
+							if(rangeExceptions == null) rangeExceptions = new ArrayList<CsvParseException>();
+							if(rangeExceptions.size() < MAX_EXCEPTIONS) rangeExceptions.add(e);
+						}
+						rangeErrors++;
+					}
+				}
+				if(rangeErrors == 0) return;
+				collector.add(rangeExceptions, rangeErrors);
+			}
+		});
+		collector.throwIfFailed();
+	}
+
+	/**
+	 * Sammelt die Fehler aller Bereiche. Gespeichert werden insgesamt nur die {@link #MAX_EXCEPTIONS} Fehler mit den
+	 * kleinsten Zeilennummern, gezählt werden alle Fehler.
+	 */
+	private static final class ExceptionCollector {
+
+		/**
+		 * Gespeicherte Fehler, der Fehler mit der größten Zeilennummer steht am Anfang
+		 */
+		private final PriorityQueue<CsvParseException> _exceptions = new PriorityQueue<CsvParseException>(MAX_EXCEPTIONS, Collections.reverseOrder(BY_POSITION));
+
+		private int _errorCount;
+
+		/**
+		 * Letzter gespeicherter Fehler, sobald {@link #MAX_EXCEPTIONS} Fehler gespeichert sind, sonst <code>null</code>.
+		 * Spätere Fehler müssen die Bereiche nicht mehr aufbewahren.
+		 */
+		private volatile CsvParseException _last;
+
+		/**
+		 * Prüft, ob ein Fehler nach dem bisherigen Stand gespeichert würde
+		 * @param exception Fehler
+		 * @return <code>false</code>, falls bereits {@link #MAX_EXCEPTIONS} frühere Fehler gespeichert sind
+		 */
+		boolean isKept(final CsvParseException exception) {
+			final CsvParseException last = _last;
+			return last == null || BY_POSITION.compare(exception, last) < 0;
+		}
+
+		/**
+		 * Übernimmt die Fehler eines Bereichs
+		 * @param rangeExceptions Gespeicherte Fehler des Bereichs oder <code>null</code>
+		 * @param rangeErrors Anzahl aller Fehler des Bereichs
+		 */
+		synchronized void add(final List<CsvParseException> rangeExceptions, final int rangeErrors) {
+			_errorCount += rangeErrors;
+			if(rangeExceptions == null) return;
+			for(final CsvParseException exception : rangeExceptions) {
+				if(_exceptions.size() < MAX_EXCEPTIONS) {
+					_exceptions.add(exception);
+				}
+				else if(BY_POSITION.compare(exception, _exceptions.peek()) < 0) {
+					_exceptions.poll();
+					_exceptions.add(exception);
+				}
+			}
+			if(_exceptions.size() == MAX_EXCEPTIONS) {
+				_last = _exceptions.peek();
+			}
+		}
+
+		/**
+		 * Löst die gesammelten Fehler nach Zeilen sortiert aus
+		 * @throws CsvConversionException Falls mindestens ein Fehler aufgetreten ist
+		 */
+		synchronized void throwIfFailed() throws CsvConversionException {
+			if(_errorCount == 0) return;
+			final List<CsvParseException> exceptions = new ArrayList<CsvParseException>(_exceptions);
+			Collections.sort(exceptions, BY_POSITION);
+			throw new CsvConversionException(exceptions, _errorCount);
+		}
+	}
+}
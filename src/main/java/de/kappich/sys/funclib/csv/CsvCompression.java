@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Kompression beim Schreiben mit {@link CsvWriter#CsvWriter(java.nio.charset.Charset, OutputStream, CsvCompression)}.
+ * Beim Lesen wird die Kompression anhand der ersten Bytes automatisch erkannt, {@link CsvReader} liest daher sowohl
+ * unkomprimierte als auch mit {@link #GZIP} oder {@link #BGZF} komprimierte Daten ohne weitere Angaben.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public enum CsvCompression {
+
+	/**
+	 * Keine Kompression
+	 */
+	NONE,
+
+	/**
+	 * Kompression im gzip-Format (RFC 1952), lesbar mit allen üblichen Werkzeugen
+	 */
+	GZIP,
+
+	/**
+	 * Kompression in unabhängigen gzip-Blöcken mit höchstens 64 KB (BGZF, "blocked gzip"). Das Ergebnis ist eine gültige
+	 * gzip-Datei, kann beim Lesen aber in mehreren Threads parallel dekomprimiert werden. Die Dateien sind etwas größer
+	 * als bei {@link #GZIP}.
+	 */
+	BGZF;
+
+	/**
+	 * Puffergröße für die Kompression und Dekompression
+	 */
+	static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Erzeugt einen Stream, der die geschriebenen Daten komprimiert an einen anderen Stream weitergibt
+	 * @param outputStream Ziel der komprimierten Daten
+	 * @return Stream, der beim Schließen auch <code>outputStream</code> schließt
+	 * @throws IOException Fehler beim Schreiben des Dateikopfs
+	 */
+	OutputStream compress(final OutputStream outputStream) throws IOException {
+		switch(this) {
+			case GZIP:
+				return new GZIPOutputStream(outputStream, BUFFER_SIZE);
+			case BGZF:
+				return new BgzfOutputStream(outputStream);
+			default:
+				return outputStream;
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fehler beim Umwandeln einer ganzen Spalte, z.B. mit {@link CsvData#toIntArray(CsvColumn)}. Anders als beim Zugriff auf
+ * einzelne Werte wird die Umwandlung beim ersten Fehler nicht abgebrochen, die Exception enthält stattdessen die Fehler
+ * aller Zeilen mit Zeilen- und Spaltenangabe. Zeile und Spalte dieser Exception sind die des ersten Fehlers.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public class CsvConversionException extends CsvParseException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<CsvParseException> _exceptions;
+
+	private final int _errorCount;
+
+	/**
+	 * Konstruktor
+	 * @param exceptions Einzelne Fehler nach Zeilen sortiert, mindestens einer
+	 * @param errorCount Anzahl aller Fehler, kann größer sein als die Anzahl gespeicherter Fehler
+	 */
+	CsvConversionException(final List<CsvParseException> exceptions, final int errorCount) {
+		super(exceptions.get(0).getReason() + " (" + errorCount + (errorCount == 1 ? " Fehler)" : " Fehler insgesamt)"), exceptions.get(0).getRow(), exceptions.get(0).getCol());
+		initCause(exceptions.get(0));
+		_exceptions = Collections.unmodifiableList(exceptions);
+		_errorCount = errorCount;
+	}
+
+	/**
+	 * Gibt die einzelnen Fehler nach Zeilen sortiert zurück. Gespeichert werden höchstens die ersten 1000 Fehler, siehe
+	 * {@link #getErrorCount()}.
+	 * @return Fehler
+	 */
+	public List<CsvParseException> getExceptions() {
+		return _exceptions;
+	}
+
+	/**
+	 * Gibt die Anzahl der Zeilen zurück, deren Wert nicht umgewandelt werden konnte
+	 * @return Anzahl Fehler
+	 */
+	public int getErrorCount() {
+		return _errorCount;
+	}
+}
@@ -27,6 +27,8 @@
 package de.kappich.sys.funclib.csv;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Klasse, die die CSV-Daten aus einer CSV-Datei enthält. Diese Klasse wird mit einem CsvReader erstellt.
@@ -37,24 +39,39 @@ import java.util.*;
 public class CsvData extends IterableCsvData {
 
 	/**
-	 * Liste mit Zeilen der Csv-Datei
+	 * Zeilen der Csv-Datei
 	 */
-	private final List<String[]> _entries;
+	private final CsvRowStore _entries;
+
+	/**
+	 * Mit {@link #toIntArray(CsvColumn)} und den verwandten Methoden umgewandelte Spalten. Schlüssel ist die Liste aus
+	 * Ergebnistyp, Spaltenindex und Parser.
+	 */
+	private final Map<List<Object>, Object> _convertedColumns = new ConcurrentHashMap<List<Object>, Object>();
 
 	/**
 	 * Erstellt ein neues CsvData-Objekt
 	 */
 	CsvData(final String[] headerCells, final HashMap<String, Integer> columnNameToIndexMap, final List<String[]> entries) {
+		this(headerCells, columnNameToIndexMap, CsvRowStore.wrap(entries));
+	}
+
+	/**
+	 * Erstellt ein neues CsvData-Objekt mit einer beliebigen Speicherung der Zeilen
+	 */
+	CsvData(final String[] headerCells, final HashMap<String, Integer> columnNameToIndexMap, final CsvRowStore entries) {
 		super(headerCells, columnNameToIndexMap);
 		_entries = entries;
 	}
 
 	/**
 	 * Gibt alle Werte als Rohdaten zurück. Die Rückgabe ist eine Liste mit Zeilen, wobei jede Zeile als String-Array dargestellt wird.
+	 * Wurden die Daten nicht mit {@link CsvDataStorage#STRINGS} eingelesen, werden die String-Arrays bei jedem Zugriff
+	 * neu erzeugt.
 	 * @return alle Werte als Rohdaten
 	 */
 	public List<String[]> getEntries() {
-		return Collections.unmodifiableList(_entries);
+		return _entries.asList();
 	}
 
 	/**
@@ -83,14 +100,145 @@ public class CsvData extends IterableCsvData {
 		return getRows().iterator();
 	}
 
+	/**
+	 * Gibt einen Spliterator über die Datensätze zurück, der für parallele Streams in gleich große Teile aufgeteilt werden
+	 * kann
+	 * @return Spliterator
+	 */
+	@Override
+	public Spliterator<CsvRow> spliterator() {
+		return new RowSpliterator(0, _entries.size());
+	}
+
 	public CsvRow getRow(final int i) {
-		return new CsvRow(i, _entries.get(i));
+		return _entries.getRow(this, i);
+	}
+
+	/**
+	 * Erstellt einen Hash-Index über eine oder mehrere Spalten, um die Zeilen zu einem Schlüsselwert in konstanter Zeit
+	 * zu finden. Die Werte werden parallel im {@link java.util.concurrent.ForkJoinPool#commonPool() gemeinsamen
+	 * ForkJoinPool} geparst.
+	 * @param columns Schlüsselspalten, z.B. aus {@link #getIntColumn(String)}
+	 * @return Index
+	 * @throws CsvParseException Falls ein Wert nicht geparst werden kann
+	 * @throws IllegalArgumentException Falls keine Spalte angegeben wurde oder eine Spalte nicht zu diesem Objekt gehört
+	 */
+	public CsvHashIndex createHashIndex(final CsvColumn<?>... columns) throws CsvParseException {
+		return new CsvHashIndex(this, columns);
+	}
+
+	/**
+	 * Erstellt einen sortierten Index über eine Spalte für Bereichsabfragen in logarithmischer Zeit. Die Werte werden
+	 * parallel im {@link java.util.concurrent.ForkJoinPool#commonPool() gemeinsamen ForkJoinPool} geparst und sortiert.
+	 * @param column Spalte, z.B. aus {@link #getLongColumn(String)}
+	 * @return Index
+	 * @throws CsvParseException Falls ein Wert nicht geparst werden kann
+	 * @throws IllegalArgumentException Falls die Spalte nicht zu diesem Objekt gehört
+	 * @throws ClassCastException Falls die Werte der Spalte nicht {@link Comparable} implementieren
+	 */
+	public CsvSortedIndex createSortedIndex(final CsvColumn<?> column) throws CsvParseException {
+		return new CsvSortedIndex(this, column);
+	}
+
+	/**
+	 * Wandelt alle Werte einer Integer-Spalte in ein Array um, z.B. für Berechnungen über die ganze Spalte. Die Zeilen
+	 * werden parallel im {@link java.util.concurrent.ForkJoinPool#commonPool() gemeinsamen ForkJoinPool} geparst, mit
+	 * {@link CsvDataStorage#COMPACT} und den anderen Speicherarten ohne Strings zu erzeugen. Leere Zellen gelten wie bei
+	 * {@link CsvRow#getInt(CsvColumn)} als Fehler.
+	 * <p>
+	 * Das Ergebnis wird zwischengespeichert, ein erneuter Aufruf für dieselbe Spalte mit einem gleichen Parser liefert
+	 * eine Kopie des gespeicherten Arrays, ohne die Werte erneut zu parsen (siehe {@link #clearConvertedColumns()}).
+	 * @param column Spalte, z.B. aus {@link #getIntColumn(String)}
+	 * @return Werte aller Zeilen, der Index entspricht dem Zeilenindex
+	 * @throws CsvConversionException Falls Werte nicht geparst werden können, enthält alle fehlerhaften Zeilen
+	 * @throws IllegalArgumentException Falls die Spalte nicht zu diesem Objekt gehört
+	 */
+	public int[] toIntArray(final CsvColumn<Integer> column) throws CsvParseException {
+		final List<Object> key = conversionKey(int.class, column);
+		int[] result = (int[]) _convertedColumns.get(key);
+		if(result == null) {
+			result = CsvColumnConverter.toIntArray(this, column);
+			_convertedColumns.put(key, result);
+		}
+		return result.clone();
+	}
+
+	/**
+	 * Wandelt alle Werte einer Long-Spalte in ein Array um, siehe {@link #toIntArray(CsvColumn)}
+	 * @param column Spalte, z.B. aus {@link #getLongColumn(String)}
+	 * @return Werte aller Zeilen, der Index entspricht dem Zeilenindex
+	 * @throws CsvConversionException Falls Werte nicht geparst werden können, enthält alle fehlerhaften Zeilen
+	 * @throws IllegalArgumentException Falls die Spalte nicht zu diesem Objekt gehört
+	 */
+	public long[] toLongArray(final CsvColumn<Long> column) throws CsvParseException {
+		final List<Object> key = conversionKey(long.class, column);
+		long[] result = (long[]) _convertedColumns.get(key);
+		if(result == null) {
+			result = CsvColumnConverter.toLongArray(this, column);
+			_convertedColumns.put(key, result);
+		}
+		return result.clone();
+	}
+
+	/**
+	 * Wandelt alle Werte einer Double-Spalte in ein Array um, siehe {@link #toIntArray(CsvColumn)}
+	 * @param column Spalte, z.B. aus {@link #getDoubleColumn(String)}
+	 * @return Werte aller Zeilen, der Index entspricht dem Zeilenindex
+	 * @throws CsvConversionException Falls Werte nicht geparst werden können, enthält alle fehlerhaften Zeilen
+	 * @throws IllegalArgumentException Falls die Spalte nicht zu diesem Objekt gehört
+	 */
+	public double[] toDoubleArray(final CsvColumn<Double> column) throws CsvParseException {
+		final List<Object> key = conversionKey(double.class, column);
+		double[] result = (double[]) _convertedColumns.get(key);
+		if(result == null) {
+			result = CsvColumnConverter.toDoubleArray(this, column);
+			_convertedColumns.put(key, result);
+		}
+		return result.clone();
+	}
+
+	/**
+	 * Wandelt alle Werte einer Spalte mit dem Parser der Spalte um (siehe {@link #getColumn(String, CsvParser)}). Wie bei
+	 * {@link #toIntArray(CsvColumn)} wird parallel umgewandelt und das Ergebnis zwischengespeichert. Die zurückgegebene
+	 * Liste kann nicht verändert werden und wird daher nicht kopiert. Eigene Parser werden nur dann als gleich erkannt,
+	 * wenn sie {@link Object#equals(Object)} entsprechend implementieren, sonst muss für Treffer im Zwischenspeicher
+	 * dasselbe Parser-Objekt verwendet werden.
+	 * @param column Spalte
+	 * @param <T> Typ der Werte
+	 * @return Werte aller Zeilen, der Index entspricht dem Zeilenindex
+	 * @throws CsvConversionException Falls Werte nicht geparst werden können, enthält alle fehlerhaften Zeilen
+	 * @throws IllegalArgumentException Falls die Spalte nicht zu diesem Objekt gehört
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> List<T> toList(final CsvColumn<T> column) throws CsvParseException {
+		final List<Object> key = conversionKey(Object.class, column);
+		List<T> result = (List<T>) _convertedColumns.get(key);
+		if(result == null) {
+			result = CsvColumnConverter.toList(this, column);
+			_convertedColumns.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Verwirft die zwischengespeicherten Ergebnisse von {@link #toIntArray(CsvColumn)} und den verwandten Methoden, um
+	 * Speicher freizugeben
+	 */
+	public void clearConvertedColumns() {
+		_convertedColumns.clear();
+	}
+
+	private List<Object> conversionKey(final Class<?> type, final CsvColumn<?> column) {
+		if(column.getCsvData() != this) {
+			throw new IllegalArgumentException("Der column-Parameter passt nicht zum CsvData-Objekt.");
+		}
+		return Arrays.<Object>asList(type, column.getColumnIndex(), column.getParser());
 	}
 
 	private class RowList extends AbstractList<CsvRow> {
 		@Override
 		public CsvRow get(final int index) {
-			return new CsvRow(index, _entries.get(index));
+			return _entries.getRow(CsvData.this, index);
 		}
 
 		@Override
@@ -98,4 +246,49 @@ public class CsvData extends IterableCsvData {
 			return _entries.size();
 		}
 	}
+
+	private class RowSpliterator implements Spliterator<CsvRow> {
+		private int _index;
+		private final int _fence;
+
+		private RowSpliterator(final int index, final int fence) {
+			_index = index;
+			_fence = fence;
+		}
+
+		@Override
+		public boolean tryAdvance(final Consumer<? super CsvRow> action) {
+			if(_index >= _fence) return false;
+			action.accept(getRow(_index++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(final Consumer<? super CsvRow> action) {
+			final int fence = _fence;
+			for(int i = _index; i < fence; i++) {
+				action.accept(getRow(i));
+			}
+			_index = fence;
+		}
+
+		@Override
+		public Spliterator<CsvRow> trySplit() {
+			final int mid = (_index + _fence) >>> 1;
+			if(mid <= _index) return null;
+			final RowSpliterator prefix = new RowSpliterator(_index, mid);
+			_index = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return _fence - _index;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+		}
+	}
 }
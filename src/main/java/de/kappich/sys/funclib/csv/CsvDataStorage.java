@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+/**
+ * Legt fest, wie {@link CsvData} die eingelesenen Datensätze im Speicher hält, siehe {@link CsvReader#setStorage(CsvDataStorage)}.
+ * Die Varianten unterscheiden sich nur im Speicherbedarf und in den Kosten des Zugriffs, die Schnittstelle von
+ * {@link CsvData} und {@link IterableCsvData.CsvRow} ist dieselbe.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public enum CsvDataStorage {
+
+	/**
+	 * Jeder Datensatz wird als String-Array gespeichert (Standard). Der Zugriff auf Zellinhalte ist am schnellsten, dafür
+	 * belegt jede Zelle ein eigenes String-Objekt.
+	 */
+	STRINGS,
+
+	/**
+	 * Die Zellinhalte aller Datensätze werden hintereinander in großen gemeinsamen char-Arrays gespeichert, zu jedem
+	 * Datensatz nur die Zellgrenzen. Strings werden erst beim Zugriff erzeugt, Zahlen können mit
+	 * {@link IterableCsvData.CsvRow#getInt(CsvColumn)} usw. ohne String geparst werden. Benötigt typischerweise nur einen
+	 * Bruchteil des Speichers von {@link #STRINGS}.
+	 */
+	COMPACT,
+
+	/**
+	 * Die Datensätze werden außerhalb des Java-Heaps in direkten {@link java.nio.ByteBuffer}s gespeichert, auf dem Heap
+	 * liegt nur ein Index mit 8 Byte je Datensatz. Das vermeidet lange Pausen der Garbage Collection bei sehr großen
+	 * Datenmengen. Beim Zugriff auf eine Zeile werden deren Zeichen auf den Heap kopiert. Der verfügbare Speicher wird
+	 * durch <code>-XX:MaxDirectMemorySize</code> begrenzt, für Datenmengen über diese Grenze hinaus sollte
+	 * {@link #MAPPED_FILE} verwendet werden.
+	 */
+	OFF_HEAP,
+
+	/**
+	 * Wie {@link #OFF_HEAP}, die Datensätze werden aber in temporäre Dateien im Verzeichnis <code>java.io.tmpdir</code>
+	 * geschrieben und in den Speicher abgebildet. Das Betriebssystem kann selten benötigte Teile auslagern, so dass auch
+	 * Datenmengen größer als der Hauptspeicher gehalten werden können. Die Dateien werden sofort nach dem Anlegen zum
+	 * Löschen markiert.
+	 */
+	MAPPED_FILE
+}
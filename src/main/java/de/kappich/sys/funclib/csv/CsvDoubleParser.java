@@ -32,9 +32,28 @@ package de.kappich.sys.funclib.csv;
  * @author Kappich Systemberatung
  * @version $Revision$
  */
-class CsvDoubleParser implements CsvParser<Double> {
+class CsvDoubleParser implements CsvParser<Double>, CsvDoubleValueParser {
 	@Override
 	public Double parseString(final String s) throws IllegalArgumentException {
-		return Double.parseDouble(s.replace(',','.').trim());
+		return parseDouble(s, 0, s.length());
+	}
+
+	@Override
+	public double parseDouble(final CharSequence s, final int start, final int end) throws IllegalArgumentException {
+		return CsvNumbers.parseDouble(s, start, end);
+	}
+
+	/**
+	 * Zustandslos, alle Instanzen sind gleich (für die zwischengespeicherten Spalten von
+	 * {@link CsvData#toDoubleArray(CsvColumn)})
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		return obj != null && obj.getClass() == getClass();
+	}
+
+	@Override
+	public int hashCode() {
+		return getClass().hashCode();
 	}
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Kennzeichnet ein Feld oder einen Konstruktorparameter, das bzw. der von {@link CsvBinder} einer CSV-Spalte zugeordnet
+ * wird. Die Spalte wird über {@link #index()} bestimmt, falls angegeben, sonst über den Spaltennamen {@link #value()}.
+ * Bei Feldern ist der Spaltenname standardmäßig der Feldname.
+ * <p>
+ * Ohne eigenen Parser werden folgende Typen unterstützt: <code>String</code>, <code>int</code>, <code>long</code>,
+ * <code>double</code>, <code>boolean</code>, die zugehörigen Wrapper-Klassen und Enums. Bei Wrapper-Klassen, Enums
+ * und eigenen Parsern ergibt eine leere Zelle <code>null</code>.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+public @interface CsvField {
+
+	/**
+	 * Spaltenname, bei Feldern standardmäßig der Feldname
+	 * @return Spaltenname oder ""
+	 */
+	String value() default "";
+
+	/**
+	 * Spaltenindex, hat Vorrang vor dem Spaltennamen
+	 * @return Spaltenindex oder -1
+	 */
+	int index() default -1;
+
+	/**
+	 * Parser für die Zellinhalte, muss einen öffentlichen Konstruktor ohne Parameter besitzen. Standardmäßig wird der
+	 * Parser aus dem Typ des Feldes bestimmt.
+	 * @return Parser-Klasse
+	 */
+	Class<? extends CsvParser<?>> parser() default DefaultParser.class;
+
+	/**
+	 * Platzhalter für {@link #parser()}, der Parser wird dann aus dem Typ des Feldes bestimmt
+	 */
+	final class DefaultParser implements CsvParser<Object> {
+		private DefaultParser() {
+		}
+
+		@Override
+		public Object parseString(final String s) throws IllegalArgumentException {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator über die Datensätze einer auf Byte-Ebene gelesenen Datei. Beim ersten {@link #trySplit()} wird die Datei
+ * wie bei {@link ParallelCsvFileParser} anhand der Anführungszeichen in Bereiche aufgeteilt, die jeweils an einem
+ * Datensatzanfang beginnen. Die Datensätze je Bereich werden vorab gezählt, damit die Zeilennummern der Datensätze und
+ * Fehlermeldungen mit dem {@link IterableCsvData#iterator() Iterator} übereinstimmen, der nur gelieferte Datensätze
+ * zählt. Ein einzelner Bereich wird wie bei {@link Spliterators.AbstractSpliterator} in Blöcken von Datensätzen
+ * aufgeteilt. Mit einem Filter ist die Anzahl gelieferter Datensätze je Bereich vorab nicht bekannt, dann wird nur
+ * blockweise aufgeteilt.
+ * <p>
+ * Die Aufteilung ist nur exakt, wenn höchstens leere Zeilen ignoriert werden (siehe
+ * {@link CsvLineSkipPolicy#skipsOnlyEmptyLines()}), da Anführungszeichen in ignorierten Zeilen sonst die Zuordnung
+ * verfälschen könnten.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class CsvFileSpliterator extends Spliterators.AbstractSpliterator<IterableCsvData.CsvRow> {
+
+	private final IterableCsvData _csvData;
+
+	/**
+	 * Tokenizer der Datei, aus dem die Tokenizer der Bereiche erzeugt werden
+	 */
+	private final MappedCsvTokenizer _fileTokenizer;
+
+	/**
+	 * Filter für die Datensätze oder <code>null</code>
+	 */
+	private final CsvRowFilter _rowFilter;
+
+	/**
+	 * Zeilen ohne Strings erzeugen
+	 */
+	private final boolean _lazy;
+
+	/**
+	 * Bereichsgrenzen, der letzte Eintrag ist das Ende des letzten Bereichs
+	 */
+	private long[] _bounds;
+
+	/**
+	 * Zeilennummer vor dem ersten Datensatz jedes Bereichs, gezählt wird wie beim Iterator je gelieferten Datensatz
+	 */
+	private int[] _lineOffsets;
+
+	/**
+	 * Erster noch nicht vollständig gelesener Bereich
+	 */
+	private int _from;
+
+	/**
+	 * Ende (exklusiv) der Bereiche dieses Spliterators
+	 */
+	private int _to;
+
+	/**
+	 * Die Bereiche wurden bereits mit {@link ParallelCsvFileParser#planChunks(long)} bestimmt
+	 */
+	private boolean _planned;
+
+	/**
+	 * Tokenizer des Bereichs {@link #_from} oder <code>null</code>, falls dieser noch nicht begonnen wurde
+	 */
+	private MappedCsvTokenizer _tokenizer;
+
+	private int _lineNum;
+
+	/**
+	 * Erzeugt einen Spliterator ab der aktuellen Position eines Tokenizers bis zum Dateiende
+	 * @param csvData CSV-Daten, zu denen die Zeilen gehören
+	 * @param fileTokenizer Tokenizer, dessen aktuelle Position den Beginn der Daten markiert
+	 * @param lineNum Zeilennummer vor dem ersten Datensatz
+	 * @param rowFilter Filter mit aufgelösten Spaltenüberschriften oder <code>null</code>
+	 * @param lazy Zeilen ohne Strings erzeugen
+	 * @throws IOException IO-Fehler
+	 */
+	CsvFileSpliterator(final IterableCsvData csvData, final MappedCsvTokenizer fileTokenizer, final int lineNum, final CsvRowFilter rowFilter, final boolean lazy) throws IOException {
+		this(csvData, fileTokenizer, rowFilter, lazy, new long[]{fileTokenizer.getLinePosition(), fileTokenizer.getChannel().size()}, new int[]{lineNum}, 0, 1, false);
+	}
+
+	private CsvFileSpliterator(final IterableCsvData csvData, final MappedCsvTokenizer fileTokenizer, final CsvRowFilter rowFilter, final boolean lazy, final long[] bounds, final int[] lineOffsets, final int from, final int to, final boolean planned) {
+		super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+		_csvData = csvData;
+		_fileTokenizer = fileTokenizer;
+		_rowFilter = rowFilter;
+		_lazy = lazy;
+		_bounds = bounds;
+		_lineOffsets = lineOffsets;
+		_from = from;
+		_to = to;
+		_planned = planned;
+	}
+
+	@Override
+	public boolean tryAdvance(final Consumer<? super IterableCsvData.CsvRow> action) {
+		try {
+			while(true) {
+				if(_tokenizer == null) {
+					if(_from >= _to) return false;
+					_tokenizer = _fileTokenizer.createRangeTokenizer(_bounds[_from], _bounds[_from + 1]);
+					_lineNum = _lineOffsets[_from];
+				}
+				if(!_tokenizer.nextLine()) {
+					_tokenizer = null;
+					_from++;
+					continue;
+				}
+				// Zählung wie CsvReader.readNextRow(): Fehlermeldungen mit der Nummer des nächsten Datensatzes, die
+				// Zeile selbst erhält wie beim vorauslesenden Iterator die Nummer danach
+				if(!_tokenizer.tokenizeLine(_lineNum + 1)) continue;
+				final CsvRecord record = _tokenizer.getRecord();
+				if(_rowFilter != null && !_rowFilter.accept(record)) continue;
+				_lineNum++;
+				final int row = _lineNum + 1;
+				if(_lazy) {
+					action.accept(_csvData.new CsvRow(row, record.copyChars(), record.copyCellBounds()));
+				}
+				else {
+					action.accept(_csvData.new CsvRow(row, record.toStringArray()));
+				}
+				return true;
+			}
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public Spliterator<IterableCsvData.CsvRow> trySplit() {
+		try {
+			if(!_planned && _tokenizer == null && _rowFilter == null) {
+				plan();
+			}
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		// Abgegeben wird der vordere Teil, ein begonnener Bereich kann daher nur blockweise aufgeteilt werden
+		if(_tokenizer == null && _to - _from >= 2) {
+			final int mid = (_from + _to) >>> 1;
+			final CsvFileSpliterator prefix = new CsvFileSpliterator(_csvData, _fileTokenizer, _rowFilter, _lazy, _bounds, _lineOffsets, _from, mid, true);
+			_from = mid;
+			return prefix;
+		}
+		return super.trySplit();
+	}
+
+	/**
+	 * Teilt den restlichen Teil der Datei in Bereiche auf und zählt deren Zeilen
+	 * @throws IOException IO-Fehler
+	 */
+	private void plan() throws IOException {
+		_planned = true;
+		final ParallelCsvFileParser parser = new ParallelCsvFileParser(_fileTokenizer, _rowFilter, ForkJoinPool.commonPool());
+		final long[] bounds = parser.planChunks(_bounds[_from]);
+		if(bounds.length <= 2) return;
+		final int[] lineCounts = parser.countLines(bounds, !_fileTokenizer._lineSkipPolicy.isSkipped(""));
+		final int[] lineOffsets = new int[bounds.length - 1];
+		lineOffsets[0] = _lineOffsets[_from];
+		for(int i = 1; i < lineOffsets.length; i++) {
+			lineOffsets[i] = lineOffsets[i - 1] + lineCounts[i - 1];
+		}
+		_bounds = bounds;
+		_lineOffsets = lineOffsets;
+		_from = 0;
+		_to = lineOffsets.length;
+	}
+}
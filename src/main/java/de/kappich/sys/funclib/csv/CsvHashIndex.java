@@ -0,0 +1,257 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Hash-Index über eine oder mehrere Spalten eines {@link CsvData}-Objekts, um die Zeilen zu einem Schlüsselwert in
+ * konstanter Zeit zu finden, z.B. alle Datensätze eines Detektors. Wird mit {@link CsvData#createHashIndex(CsvColumn[])}
+ * erstellt.
+ * <p>
+ * Die Werte aller Zeilen werden parallel mit den Parsern der Spalten geparst. Bei einer einzelnen Spalte mit
+ * {@link IterableCsvData#getIntColumn(String) int}-, {@link IterableCsvData#getLongColumn(String) long}- oder
+ * {@link IterableCsvData#getDoubleColumn(String) double}-Werten werden die Schlüssel ohne Boxing in einer Hashtabelle
+ * mit offener Adressierung gespeichert, sonst in einer {@link HashMap}. Zu jedem Schlüssel werden die Zeilen als
+ * verkettete Liste in einem int-Array gehalten, so dass je Zeile nur 4 Byte zusätzlich anfallen. Zeilen, in denen
+ * eine der Spalten leer ist, werden nicht indiziert.
+ * <p>
+ * Der Index ist unveränderlich und kann von mehreren Threads gleichzeitig verwendet werden.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public final class CsvHashIndex {
+
+	private final CsvData _data;
+
+	/**
+	 * Art der Schlüssel, siehe {@link CsvIndexKeys}
+	 */
+	private final int _kind;
+
+	/**
+	 * Anzahl Schlüsselspalten
+	 */
+	private final int _numColumns;
+
+	/**
+	 * Hashtabelle der primitiven Schlüssel (bei double-Spalten die Bits des Wertes)
+	 */
+	private final long[] _tableKeys;
+
+	/**
+	 * Erste Zeile je Eintrag von {@link #_tableKeys} plus 1, 0 für einen freien Eintrag
+	 */
+	private final int[] _tableHeads;
+
+	/**
+	 * Erste Zeile je Schlüssel bei nicht primitiven Schlüsseln
+	 */
+	private final HashMap<Object, Integer> _objectHeads;
+
+	/**
+	 * Nächste Zeile mit demselben Schlüssel je Zeile, -1 am Listenende
+	 */
+	private final int[] _next;
+
+	/**
+	 * Anzahl verschiedener Schlüssel
+	 */
+	private final int _numKeys;
+
+	/**
+	 * Erstellt den Index
+	 * @param data CSV-Daten
+	 * @param columns Schlüsselspalten
+	 * @throws CsvParseException Falls ein Wert nicht geparst werden kann
+	 */
+	CsvHashIndex(final CsvData data, final CsvColumn<?>... columns) throws CsvParseException {
+		_data = data;
+		_numColumns = columns.length;
+		final CsvIndexKeys keys = CsvIndexKeys.extract(data, columns);
+		_kind = keys._kind;
+		final int numRows = data.getNumRows();
+		_next = new int[numRows];
+		int numKeys = 0;
+		if(_kind == CsvIndexKeys.OBJECT) {
+			_tableKeys = null;
+			_tableHeads = null;
+			_objectHeads = new HashMap<Object, Integer>();
+			// Rückwärts einfügen, damit die Listen aufsteigend sortiert sind
+			for(int i = numRows - 1; i >= 0; i--) {
+				if(!keys._present[i]) continue;
+				final Integer head = _objectHeads.put(keys._objects[i], i);
+				_next[i] = head == null ? -1 : head;
+			}
+			numKeys = _objectHeads.size();
+		}
+		else {
+			_objectHeads = null;
+			int numPresent = 0;
+			for(final boolean present : keys._present) {
+				if(present) numPresent++;
+			}
+			int capacity = 2;
+			while(capacity < numPresent * 2) capacity <<= 1;
+			_tableKeys = new long[capacity];
+			_tableHeads = new int[capacity];
+			for(int i = numRows - 1; i >= 0; i--) {
+				if(!keys._present[i]) continue;
+				final long key = _kind == CsvIndexKeys.LONG ? keys._longs[i] : doubleKey(keys._doubles[i]);
+				final int slot = findSlot(key);
+				if(_tableHeads[slot] == 0) {
+					_tableKeys[slot] = key;
+					_next[i] = -1;
+					numKeys++;
+				}
+				else {
+					_next[i] = _tableHeads[slot] - 1;
+				}
+				_tableHeads[slot] = i + 1;
+			}
+		}
+		_numKeys = numKeys;
+	}
+
+	/**
+	 * Sucht den Eintrag eines Schlüssels in der Hashtabelle
+	 * @param key Schlüssel
+	 * @return Eintrag mit dem Schlüssel oder freier Eintrag, an dem der Schlüssel stehen müsste
+	 */
+	private int findSlot(final long key) {
+		final int mask = _tableKeys.length - 1;
+		int slot = hash(key) & mask;
+		while(_tableHeads[slot] != 0 && _tableKeys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private static int hash(final long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		h ^= h >>> 32;
+		return (int) (h ^ (h >>> 16));
+	}
+
+	/**
+	 * Wandelt einen double-Wert in einen Schlüssel um. Wie bei {@link Double#equals(Object)} sind alle NaN-Werte gleich,
+	 * 0.0 und -0.0 aber verschieden.
+	 */
+	private static long doubleKey(final double value) {
+		return Double.doubleToLongBits(value);
+	}
+
+	/**
+	 * Gibt die Zeilen mit einem ganzzahligen Schlüssel zurück. Nur für Indizes über eine int- oder long-Spalte.
+	 * @param key Schlüssel
+	 * @return Zeilenindizes in aufsteigender Reihenfolge, leer falls der Schlüssel nicht vorkommt
+	 * @throws IllegalStateException Falls der Index nicht über eine int- oder long-Spalte erstellt wurde
+	 */
+	public int[] getRows(final long key) {
+		if(_kind != CsvIndexKeys.LONG) throw new IllegalStateException("Der Index hat keine ganzzahligen Schlüssel");
+		return collect(_tableHeads[findSlot(key)] - 1);
+	}
+
+	/**
+	 * Gibt die Zeilen mit einem Fließkomma-Schlüssel zurück. Nur für Indizes über eine double-Spalte.
+	 * @param key Schlüssel
+	 * @return Zeilenindizes in aufsteigender Reihenfolge, leer falls der Schlüssel nicht vorkommt
+	 * @throws IllegalStateException Falls der Index nicht über eine double-Spalte erstellt wurde
+	 */
+	public int[] getRows(final double key) {
+		if(_kind != CsvIndexKeys.DOUBLE) throw new IllegalStateException("Der Index hat keine Fließkomma-Schlüssel");
+		return collect(_tableHeads[findSlot(doubleKey(key))] - 1);
+	}
+
+	/**
+	 * Gibt die Zeilen zu einem Schlüssel zurück. Die Werte werden in der Reihenfolge der Spalten angegeben und haben
+	 * den Typ, den die Parser der Spalten liefern (z.B. Integer bei {@link IterableCsvData#getIntColumn(String)}).
+	 * @param values Schlüsselwerte, einer je Spalte
+	 * @return Zeilenindizes in aufsteigender Reihenfolge, leer falls der Schlüssel nicht vorkommt
+	 * @throws IllegalArgumentException Falls die Anzahl Werte nicht zur Anzahl Spalten passt
+	 */
+	public int[] getRows(final Object... values) {
+		if(values.length != _numColumns) {
+			throw new IllegalArgumentException("Anzahl Werte " + values.length + " passt nicht zur Anzahl Spalten " + _numColumns);
+		}
+		switch(_kind) {
+			case CsvIndexKeys.LONG:
+				// Nicht ganzzahlige Werte kommen in einer ganzzahligen Spalte nicht vor und dürfen nicht abgeschnitten werden
+				if(!(values[0] instanceof Number) || !CsvIndexKeys.isIntegral((Number) values[0])) return new int[0];
+				return getRows(((Number) values[0]).longValue());
+			case CsvIndexKeys.DOUBLE:
+				if(!(values[0] instanceof Number)) return new int[0];
+				return getRows(((Number) values[0]).doubleValue());
+			default:
+				final Integer head = _objectHeads.get(_numColumns == 1 ? values[0] : Arrays.asList(values));
+				return collect(head == null ? -1 : head);
+		}
+	}
+
+	/**
+	 * Gibt die Datensätze zu einem Schlüssel zurück, siehe {@link #getRows(Object...)}
+	 * @param values Schlüsselwerte, einer je Spalte
+	 * @return Datensätze in der Reihenfolge der Datei
+	 */
+	public List<IterableCsvData.CsvRow> get(final Object... values) {
+		final int[] rows = getRows(values);
+		final IterableCsvData.CsvRow[] result = new IterableCsvData.CsvRow[rows.length];
+		for(int i = 0; i < rows.length; i++) {
+			result[i] = _data.getRow(rows[i]);
+		}
+		return Arrays.asList(result);
+	}
+
+	private int[] collect(final int head) {
+		int count = 0;
+		for(int row = head; row >= 0; row = _next[row]) {
+			count++;
+		}
+		final int[] result = new int[count];
+		count = 0;
+		for(int row = head; row >= 0; row = _next[row]) {
+			result[count++] = row;
+		}
+		return result;
+	}
+
+	/**
+	 * Gibt die Anzahl verschiedener Schlüssel zurück
+	 * @return Anzahl Schlüssel
+	 */
+	public int getNumKeys() {
+		return _numKeys;
+	}
+
+	@Override
+	public String toString() {
+		return "CsvHashIndex{" + "Spalten=" + _numColumns + ", Schlüssel=" + _numKeys + '}';
+	}
+}
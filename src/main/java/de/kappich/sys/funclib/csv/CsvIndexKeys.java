@@ -0,0 +1,164 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.util.Arrays;
+
+/**
+ * Schlüsselwerte aller Zeilen eines {@link CsvData}-Objekts für {@link CsvHashIndex} und {@link CsvSortedIndex}. Die
+ * Werte werden mit {@link ParallelRowRanges} parallel geparst. Für eine einzelne Spalte, deren Parser
+ * {@link CsvIntValueParser}, {@link CsvLongValueParser} oder {@link CsvDoubleValueParser} implementiert, werden die Werte
+ * ohne Boxing in einem primitiven Array gespeichert, sonst als Objekte (bei mehreren Spalten als Liste der Werte).
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class CsvIndexKeys {
+
+	/**
+	 * Ganzzahlige Schlüssel in {@link #_longs}
+	 */
+	static final int LONG = 0;
+
+	/**
+	 * Fließkomma-Schlüssel in {@link #_doubles}
+	 */
+	static final int DOUBLE = 1;
+
+	/**
+	 * Beliebige Schlüssel in {@link #_objects}
+	 */
+	static final int OBJECT = 2;
+
+	/**
+	 * Art der Schlüssel
+	 */
+	final int _kind;
+
+	final long[] _longs;
+
+	final double[] _doubles;
+
+	final Object[] _objects;
+
+	/**
+	 * Zeilen, in denen alle Schlüsselspalten einen Wert haben. Zeilen mit leeren Zellen werden nicht indiziert.
+	 */
+	final boolean[] _present;
+
+	private CsvIndexKeys(final int kind, final int numRows) {
+		_kind = kind;
+		_longs = kind == LONG ? new long[numRows] : null;
+		_doubles = kind == DOUBLE ? new double[numRows] : null;
+		_objects = kind == OBJECT ? new Object[numRows] : null;
+		_present = new boolean[numRows];
+	}
+
+	/**
+	 * Parst die Schlüsselwerte aller Zeilen
+	 * @param data CSV-Daten
+	 * @param columns Schlüsselspalten, mindestens eine
+	 * @return Schlüssel
+	 * @throws CsvParseException Falls ein Wert nicht geparst werden kann, der Fehler mit der kleinsten Zeilennummer
+	 * @throws IllegalArgumentException Falls eine Spalte nicht zu <code>data</code> gehört
+	 */
+	static CsvIndexKeys extract(final CsvData data, final CsvColumn<?>... columns) throws CsvParseException {
+		if(columns.length == 0) throw new IllegalArgumentException("Keine Spalte angegeben");
+		for(final CsvColumn<?> column : columns) {
+			if(column.getCsvData() != data) {
+				throw new IllegalArgumentException("Der column-Parameter passt nicht zum CsvData-Objekt.");
+			}
+		}
+		final CsvParser<?> parser = columns[0].getParser();
+		final int kind;
+		if(columns.length > 1) {
+			kind = OBJECT;
+		}
+		else if(parser instanceof CsvIntValueParser || parser instanceof CsvLongValueParser) {
+			kind = LONG;
+		}
+		else if(parser instanceof CsvDoubleValueParser) {
+			kind = DOUBLE;
+		}
+		else {
+			kind = OBJECT;
+		}
+		final CsvIndexKeys keys = new CsvIndexKeys(kind, data.getNumRows());
+		ParallelRowRanges.forEach(data.getNumRows(), new ParallelRowRanges.RangeAction() {
+			@Override
+			public void apply(final int from, final int to) throws CsvParseException {
+				for(int i = from; i < to; i++) {
+					keys.extractRow(data.getRow(i), i, columns);
+				}
+			}
+		});
+		return keys;
+	}
+
+	/**
+	 * Prüft, ob eine Zahl ganzzahlig ist und daher als Schlüssel einer int- oder long-Spalte vorkommen kann
+	 * @param number Zahl
+	 * @return <code>true</code>, falls {@link Number#longValue()} den Wert nicht verändert
+	 */
+	static boolean isIntegral(final Number number) {
+		if(number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) return true;
+		return number.doubleValue() == (double) number.longValue();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void extractRow(final IterableCsvData.CsvRow row, final int index, final CsvColumn<?>[] columns) throws CsvParseException {
+		for(final CsvColumn<?> column : columns) {
+			if(!row.hasValue(column)) return;
+		}
+		final CsvColumn<?> column = columns[0];
+		switch(_kind) {
+			case LONG:
+				if(column.getParser() instanceof CsvIntValueParser) {
+					_longs[index] = row.getInt((CsvColumn<Integer>) column);
+				}
+				else {
+					_longs[index] = row.getLong((CsvColumn<Long>) column);
+				}
+				break;
+			case DOUBLE:
+				_doubles[index] = row.getDouble((CsvColumn<Double>) column);
+				break;
+			default:
+				if(columns.length == 1) {
+					_objects[index] = row.getValue(column);
+				}
+				else {
+					final Object[] values = new Object[columns.length];
+					for(int i = 0; i < values.length; i++) {
+						values[i] = row.getValue(columns[i]);
+					}
+					_objects[index] = Arrays.asList(values);
+				}
+		}
+		_present[index] = true;
+	}
+}
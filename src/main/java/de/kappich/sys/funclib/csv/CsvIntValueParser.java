@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+/**
+ * Interface für Parser, die einen Integer-Wert direkt aus einem Ausschnitt einer {@link CharSequence} lesen, ohne einen
+ * String zu erzeugen oder den Wert zu boxen. Wird von
+ * {@link IterableCsvData.CsvRow#getInt(CsvColumn)} verwendet, wenn der Parser einer Spalte dieses Interface implementiert.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public interface CsvIntValueParser {
+
+	/**
+	 * Wandelt einen Ausschnitt einer Zeichenfolge in einen int-Wert um
+	 * @param s Zeichenfolge, z.B. ein String oder der Lesepuffer des CsvReaders
+	 * @param start Startposition
+	 * @param end Endposition (exklusiv)
+	 * @return Wert, der geparst wurde
+	 * @throws IllegalArgumentException Falls der Ausschnitt ein ungültiges Format hat
+	 */
+	int parseInt(CharSequence s, int start, int end) throws IllegalArgumentException;
+
+}
@@ -32,9 +32,28 @@ package de.kappich.sys.funclib.csv;
  * @author Kappich Systemberatung
  * @version $Revision$
  */
-class CsvIntegerParser implements CsvParser<Integer> {
+class CsvIntegerParser implements CsvParser<Integer>, CsvIntValueParser {
 	@Override
 	public Integer parseString(final String s) throws IllegalArgumentException {
-		return Integer.parseInt(s.trim());
+		return parseInt(s, 0, s.length());
+	}
+
+	@Override
+	public int parseInt(final CharSequence s, final int start, final int end) throws IllegalArgumentException {
+		return CsvNumbers.parseInt(s, start, end);
+	}
+
+	/**
+	 * Der Parser hat keinen Zustand, daher sind alle Instanzen gleich. So werden umgewandelte Spalten auch für später
+	 * erzeugte Spaltenobjekte wiederverwendet (siehe {@link CsvData#toIntArray(CsvColumn)}).
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		return obj != null && obj.getClass() == getClass();
+	}
+
+	@Override
+	public int hashCode() {
+		return getClass().hashCode();
 	}
 }
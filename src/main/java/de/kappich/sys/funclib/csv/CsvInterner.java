@@ -0,0 +1,189 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+/**
+ * Cache, über den gleiche Zellinhalte beim Einlesen dieselbe String-Instanz erhalten. Das spart Speicher, wenn wenige
+ * Werte häufig wiederholt werden (z.B. Kennungen, Statuswerte oder Fahrstreifennamen). Ein Interner wird mit
+ * {@link CsvReader#setInterner(CsvInterner)} für alle Spalten oder mit {@link CsvReader#setInterner(String, CsvInterner)}
+ * für einzelne Spalten festgelegt.
+ * <p>
+ * Die Suche erfolgt direkt auf dem Lesepuffer, ein String wird nur bei einem Fehltreffer erzeugt. Der Cache hat eine
+ * feste Anzahl Einträge, jeder Wert kann nur an einer durch seinen Hashwert bestimmten Stelle stehen und verdrängt dort
+ * den bisherigen Wert. Werte mit mehr als {@link #MAX_LENGTH} Zeichen werden nicht aufgenommen.
+ * <p>
+ * Die Trefferquote wird fortlaufend in Abschnitten von {@link #SAMPLE_SIZE} Zugriffen bestimmt. Liegt sie unter
+ * {@link #MIN_HIT_RATE}, wird der Cache abgeschaltet und der Speicher freigegeben, da sich das Nachschlagen bei Spalten
+ * mit vielen verschiedenen Werten nicht lohnt. Für solche Spalten sollten daher eigene Interner verwendet werden, damit
+ * sie den Cache der übrigen Spalten nicht abschalten.
+ * <p>
+ * Ein Interner kann von mehreren Threads gleichzeitig verwendet werden, z.B. bei
+ * {@link CsvReader#readAllParallel()}. Die Zähler für die Trefferquote sind dann nur näherungsweise genau.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public final class CsvInterner {
+
+	/**
+	 * Maximale Länge eines Wertes, der im Cache gespeichert wird
+	 */
+	public static final int MAX_LENGTH = 64;
+
+	/**
+	 * Anzahl Zugriffe, nach denen die Trefferquote geprüft wird
+	 */
+	public static final int SAMPLE_SIZE = 1 << 14;
+
+	/**
+	 * Minimale Trefferquote, unterhalb der der Cache abgeschaltet wird
+	 */
+	public static final double MIN_HIT_RATE = 0.25;
+
+	/**
+	 * Standardanzahl Einträge
+	 */
+	private static final int DEFAULT_CAPACITY = 1 << 12;
+
+	private final int _mask;
+
+	/**
+	 * Gespeicherte Werte, <code>null</code> falls abgeschaltet
+	 */
+	private volatile String[] _table;
+
+	/**
+	 * Zugriffe im aktuellen Abschnitt
+	 */
+	private int _lookups;
+
+	/**
+	 * Treffer im aktuellen Abschnitt
+	 */
+	private int _hits;
+
+	/**
+	 * Treffer insgesamt
+	 */
+	private long _totalHits;
+
+	/**
+	 * Zugriffe insgesamt
+	 */
+	private long _totalLookups;
+
+	/**
+	 * Erstellt einen Interner mit 4096 Einträgen
+	 */
+	public CsvInterner() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Erstellt einen Interner
+	 * @param capacity Anzahl Einträge, wird auf die nächste Zweierpotenz aufgerundet
+	 */
+	public CsvInterner(final int capacity) {
+		if(capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("capacity: " + capacity);
+		int size = 1;
+		while(size < capacity) size <<= 1;
+		_table = new String[size];
+		_mask = size - 1;
+	}
+
+	/**
+	 * Gibt den String für einen Ausschnitt eines char-Arrays zurück, bei einem Treffer die gespeicherte Instanz
+	 * @param chars Zeichen
+	 * @param offset Startposition
+	 * @param length Anzahl Zeichen
+	 * @return String
+	 */
+	String intern(final char[] chars, final int offset, final int length) {
+		final String[] table = _table;
+		if(table == null || length > MAX_LENGTH) {
+			return new String(chars, offset, length);
+		}
+		int hash = 0;
+		for(int i = offset, end = offset + length; i < end; i++) {
+			hash = 31 * hash + chars[i];
+		}
+		final int index = (hash ^ (hash >>> 16)) & _mask;
+		final String cached = table[index];
+		if(cached != null && matches(cached, chars, offset, length)) {
+			_hits++;
+			count();
+			return cached;
+		}
+		final String value = new String(chars, offset, length);
+		table[index] = value;
+		count();
+		return value;
+	}
+
+	private static boolean matches(final String cached, final char[] chars, final int offset, final int length) {
+		if(cached.length() != length) return false;
+		for(int i = 0; i < length; i++) {
+			if(cached.charAt(i) != chars[offset + i]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Zählt einen Zugriff und prüft am Ende eines Abschnitts die Trefferquote
+	 */
+	private void count() {
+		if(++_lookups < SAMPLE_SIZE) return;
+		_totalLookups += _lookups;
+		_totalHits += _hits;
+		if(_hits < SAMPLE_SIZE * MIN_HIT_RATE) {
+			_table = null;
+		}
+		_lookups = 0;
+		_hits = 0;
+	}
+
+	/**
+	 * Prüft, ob der Cache wegen einer zu geringen Trefferquote abgeschaltet wurde
+	 * @return true, falls abgeschaltet
+	 */
+	public boolean isDisabled() {
+		return _table == null;
+	}
+
+	/**
+	 * Gibt die Trefferquote der abgeschlossenen Abschnitte zurück
+	 * @return Trefferquote zwischen 0 und 1 oder <code>NaN</code>, falls noch kein Abschnitt abgeschlossen wurde
+	 */
+	public double getHitRate() {
+		return _totalLookups == 0 ? Double.NaN : (double) _totalHits / _totalLookups;
+	}
+
+	@Override
+	public String toString() {
+		return "CsvInterner{" + "Einträge=" + (_mask + 1) + ", Trefferquote=" + getHitRate() + (isDisabled() ? ", abgeschaltet" : "") + '}';
+	}
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Legt fest, welche Zeilen beim Einlesen ignoriert werden (z.B. leere Zeilen oder Kommentare). Geprüft wird jeweils die
+ * erste physikalische Zeile eines Datensatzes, bevor diese in Zellen zerlegt wird.
+ * <p>
+ * Die vordefinierten Varianten {@link #emptyLines()} und {@link #startsWith(String...)} kommen ohne reguläre Ausdrücke
+ * und ohne Objekterzeugung aus. Bei Dateien, die auf Byte-Ebene zerlegt werden, müssen die Zeilen dafür nicht einmal
+ * dekodiert werden. Nur {@link #matches(String)} verwendet einen regulären Ausdruck, dessen {@link Matcher} für jeden
+ * Tokenizer einmal erzeugt und danach wiederverwendet wird.
+ * <p>
+ * Eigene Varianten können durch Ableiten dieser Klasse erstellt werden. Da eine Instanz beim parallelen Einlesen von
+ * mehreren Threads verwendet werden kann, darf {@link #isSkipped(CharSequence)} keinen veränderlichen Zustand haben.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public abstract class CsvLineSkipPolicy {
+
+	private static final CsvLineSkipPolicy NONE = new CsvLineSkipPolicy() {
+		@Override
+		public boolean isSkipped(final CharSequence line) {
+			return false;
+		}
+
+		@Override
+		boolean isAsciiOnly() {
+			return true;
+		}
+
+		@Override
+		boolean skipsOnlyEmptyLines() {
+			return true;
+		}
+	};
+
+	private static final CsvLineSkipPolicy EMPTY_LINES = new CsvLineSkipPolicy() {
+		@Override
+		public boolean isSkipped(final CharSequence line) {
+			return line.length() == 0;
+		}
+
+		@Override
+		boolean isAsciiOnly() {
+			return true;
+		}
+
+		@Override
+		boolean skipsOnlyEmptyLines() {
+			return true;
+		}
+	};
+
+	/**
+	 * Gibt eine Variante zurück, bei der keine Zeilen ignoriert werden
+	 * @return Variante
+	 */
+	public static CsvLineSkipPolicy none() {
+		return NONE;
+	}
+
+	/**
+	 * Gibt eine Variante zurück, bei der leere Zeilen ignoriert werden. Entspricht dem regulären Ausdruck
+	 * {@link CsvReader#DEFAULT_IGNORE_LINE_PATTERN}.
+	 * @return Variante
+	 */
+	public static CsvLineSkipPolicy emptyLines() {
+		return EMPTY_LINES;
+	}
+
+	/**
+	 * Erzeugt eine Variante, bei der Zeilen ignoriert werden, die mit einem der angegebenen Präfixe beginnen, z.B. "#"
+	 * für Kommentarzeilen
+	 * @param prefixes Präfixe
+	 * @return Variante
+	 */
+	public static CsvLineSkipPolicy startsWith(final String... prefixes) {
+		return new Prefixes(prefixes.clone());
+	}
+
+	/**
+	 * Erzeugt eine Variante, bei der Zeilen ignoriert werden, die vollständig auf einen regulären Ausdruck passen
+	 * @param regex Regulärer Ausdruck
+	 * @return Variante
+	 */
+	public static CsvLineSkipPolicy matches(final String regex) {
+		return new RegexMatch(Pattern.compile(regex));
+	}
+
+	/**
+	 * Erzeugt eine Variante, bei der Zeilen ignoriert werden, die vollständig auf einen regulären Ausdruck passen
+	 * @param pattern Regulärer Ausdruck
+	 * @return Variante
+	 */
+	public static CsvLineSkipPolicy matches(final Pattern pattern) {
+		return new RegexMatch(pattern);
+	}
+
+	/**
+	 * Erzeugt eine Variante, bei der Zeilen ignoriert werden, wenn sie von mindestens einer der angegebenen Varianten
+	 * ignoriert werden, z.B. <code>anyOf(emptyLines(), startsWith("#"))</code>
+	 * @param policies Varianten
+	 * @return Variante
+	 */
+	public static CsvLineSkipPolicy anyOf(final CsvLineSkipPolicy... policies) {
+		return new AnyOf(policies.clone());
+	}
+
+	/**
+	 * Bestimmt die Variante zu einem regulären Ausdruck, wie er in den Konstruktoren von {@link CsvReader} angegeben
+	 * werden kann
+	 * @param ignoreLinePattern Regulärer Ausdruck oder <code>null</code>
+	 * @return Variante
+	 */
+	static CsvLineSkipPolicy forPattern(final String ignoreLinePattern) {
+		if(ignoreLinePattern == null) return NONE;
+		if(ignoreLinePattern.equals(CsvReader.DEFAULT_IGNORE_LINE_PATTERN)) return EMPTY_LINES;
+		return matches(ignoreLinePattern);
+	}
+
+	/**
+	 * Prüft, ob eine Zeile ignoriert wird
+	 * @param line Zeile ohne Zeilenende, ist nur während des Aufrufs gültig
+	 * @return <code>true</code>, falls die Zeile ignoriert wird
+	 */
+	public abstract boolean isSkipped(CharSequence line);
+
+	/**
+	 * Bestimmt, ob die Entscheidung allein anhand der ASCII-Zeichen einer Zeile getroffen werden kann. In diesem Fall
+	 * wird eine auf Byte-Ebene gelesene Zeile nicht dekodiert, alle Zeichen außerhalb des ASCII-Bereichs werden als
+	 * U+FFFD übergeben.
+	 * @return <code>true</code>, falls nur ASCII-Zeichen ausgewertet werden
+	 */
+	boolean isAsciiOnly() {
+		return false;
+	}
+
+	/**
+	 * Bestimmt, ob höchstens leere Zeilen ignoriert werden. Dann kann eine Datei anhand der Anführungszeichen in
+	 * Bereiche aufgeteilt werden, ohne die ignorierten Zeilen zu kennen.
+	 * @return <code>true</code>, falls nur leere Zeilen ignoriert werden
+	 */
+	boolean skipsOnlyEmptyLines() {
+		return false;
+	}
+
+	/**
+	 * Gibt eine Instanz für einen Tokenizer zurück. Varianten mit Zustand erzeugen dabei eine neue Instanz.
+	 * @return Variante
+	 */
+	CsvLineSkipPolicy copy() {
+		return this;
+	}
+
+	private static final class Prefixes extends CsvLineSkipPolicy {
+		private final String[] _prefixes;
+
+		private final boolean _asciiOnly;
+
+		private Prefixes(final String[] prefixes) {
+			_prefixes = prefixes;
+			boolean asciiOnly = true;
+			for(final String prefix : prefixes) {
+				for(int i = 0; i < prefix.length(); i++) {
+					if(prefix.charAt(i) >= 0x80) asciiOnly = false;
+				}
+			}
+			_asciiOnly = asciiOnly;
+		}
+
+		@Override
+		public boolean isSkipped(final CharSequence line) {
+			final int length = line.length();
+			for(final String prefix : _prefixes) {
+				final int prefixLength = prefix.length();
+				if(prefixLength > length) continue;
+				int i = 0;
+				while(i < prefixLength && line.charAt(i) == prefix.charAt(i)) i++;
+				if(i == prefixLength) return true;
+			}
+			return false;
+		}
+
+		@Override
+		boolean isAsciiOnly() {
+			return _asciiOnly;
+		}
+	}
+
+	private static final class RegexMatch extends CsvLineSkipPolicy {
+		private final Pattern _pattern;
+
+		/**
+		 * Wiederverwendeter Matcher, daher muss jeder Tokenizer eine eigene Instanz verwenden (siehe {@link #copy()})
+		 */
+		private final Matcher _matcher;
+
+		private RegexMatch(final Pattern pattern) {
+			_pattern = pattern;
+			_matcher = pattern.matcher("");
+		}
+
+		@Override
+		public boolean isSkipped(final CharSequence line) {
+			return _matcher.reset(line).matches();
+		}
+
+		@Override
+		CsvLineSkipPolicy copy() {
+			return new RegexMatch(_pattern);
+		}
+	}
+
+	private static final class AnyOf extends CsvLineSkipPolicy {
+		private final CsvLineSkipPolicy[] _policies;
+
+		private AnyOf(final CsvLineSkipPolicy[] policies) {
+			_policies = policies;
+		}
+
+		@Override
+		public boolean isSkipped(final CharSequence line) {
+			for(final CsvLineSkipPolicy policy : _policies) {
+				if(policy.isSkipped(line)) return true;
+			}
+			return false;
+		}
+
+		@Override
+		boolean isAsciiOnly() {
+			for(final CsvLineSkipPolicy policy : _policies) {
+				if(!policy.isAsciiOnly()) return false;
+			}
+			return true;
+		}
+
+		@Override
+		boolean skipsOnlyEmptyLines() {
+			for(final CsvLineSkipPolicy policy : _policies) {
+				if(!policy.skipsOnlyEmptyLines()) return false;
+			}
+			return true;
+		}
+
+		@Override
+		CsvLineSkipPolicy copy() {
+			final CsvLineSkipPolicy[] policies = new CsvLineSkipPolicy[_policies.length];
+			for(int i = 0; i < policies.length; i++) {
+				policies[i] = _policies[i].copy();
+			}
+			return new AnyOf(policies);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wiederverwendbare Sicht auf eine Zeile im Lesepuffer eines Tokenizers, mit der {@link CsvLineSkipPolicy} eine Zeile
+ * prüfen kann, ohne dass die Zeichen kopiert werden. Die Zeile liegt entweder als char-Array oder als Bytes vor. Bei
+ * Bytes werden nur ASCII-Zeichen übernommen, alle anderen Bytes werden als U+FFFD geliefert.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class CsvLineView implements CharSequence {
+
+	private char[] _chars;
+
+	private ByteBuffer _bytes;
+
+	private int _start;
+
+	private int _length;
+
+	/**
+	 * Setzt die Sicht auf einen Bereich eines char-Arrays
+	 * @param chars Zeichen
+	 * @param start Startposition
+	 * @param end Endposition (exklusiv)
+	 * @return diese Sicht
+	 */
+	CsvLineView set(final char[] chars, final int start, final int end) {
+		_chars = chars;
+		_bytes = null;
+		_start = start;
+		_length = end - start;
+		return this;
+	}
+
+	/**
+	 * Setzt die Sicht auf einen Bereich eines ByteBuffers
+	 * @param bytes Bytes
+	 * @param start Startposition
+	 * @param end Endposition (exklusiv)
+	 * @return diese Sicht
+	 */
+	CsvLineView set(final ByteBuffer bytes, final int start, final int end) {
+		_chars = null;
+		_bytes = bytes;
+		_start = start;
+		_length = end - start;
+		return this;
+	}
+
+	@Override
+	public int length() {
+		return _length;
+	}
+
+	@Override
+	public char charAt(final int index) {
+		if(index < 0 || index >= _length) throw new IndexOutOfBoundsException(String.valueOf(index));
+		if(_chars != null) return _chars[_start + index];
+		final byte b = _bytes.get(_start + index);
+		return b >= 0 ? (char) b : '\uFFFD';
+	}
+
+	@Override
+	public CharSequence subSequence(final int start, final int end) {
+		if(start < 0 || end > _length || start > end) throw new IndexOutOfBoundsException(start + ", " + end);
+		final StringBuilder result = new StringBuilder(end - start);
+		for(int i = start; i < end; i++) {
+			result.append(charAt(i));
+		}
+		return result.toString();
+	}
+
+	@Override
+	public String toString() {
+		return subSequence(0, _length).toString();
+	}
+}
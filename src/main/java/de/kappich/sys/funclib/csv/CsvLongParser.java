@@ -32,9 +32,27 @@ package de.kappich.sys.funclib.csv;
  * @author Kappich Systemberatung
  * @version $Revision$
  */
-class CsvLongParser implements CsvParser<Long> {
+class CsvLongParser implements CsvParser<Long>, CsvLongValueParser {
 	@Override
 	public Long parseString(final String s) throws IllegalArgumentException {
-		return Long.parseLong(s.trim());
+		return parseLong(s, 0, s.length());
+	}
+
+	@Override
+	public long parseLong(final CharSequence s, final int start, final int end) throws IllegalArgumentException {
+		return CsvNumbers.parseLong(s, start, end);
+	}
+
+	/**
+	 * Alle Instanzen sind gleich, siehe {@link CsvData#toLongArray(CsvColumn)}
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		return obj != null && obj.getClass() == getClass();
+	}
+
+	@Override
+	public int hashCode() {
+		return getClass().hashCode();
 	}
 }
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+/**
+ * Hilfsmethoden zum Parsen von Zahlen direkt aus einem Ausschnitt einer {@link CharSequence}, ohne dafür einen String zu
+ * erzeugen. Führende und folgende Leerzeichen werden wie bei {@link String#trim()} ignoriert, bei Fließkommazahlen
+ * kann '.' oder ',' als Komma verwendet werden.
+ * <p>
+ * Die Methoden verarbeiten die üblichen Schreibweisen (Vorzeichen, ASCII-Ziffern und bei Fließkommazahlen höchstens 15
+ * signifikante Stellen ohne Exponent) selbst. Alle anderen Eingaben, einschließlich ungültiger, werden an
+ * {@link Integer#parseInt(String)}, {@link Long#parseLong(String)} bzw. {@link Double#parseDouble(String)} weitergereicht,
+ * so dass Ergebnis und Fehlermeldungen identisch zu diesen Methoden sind.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class CsvNumbers {
+
+	/**
+	 * Exakt darstellbare Zehnerpotenzen
+	 */
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/**
+	 * Maximale Anzahl Ziffern, die ohne Überlaufprüfung in einem long verarbeitet werden
+	 */
+	private static final int MAX_LONG_DIGITS = 18;
+
+	/**
+	 * Maximale Anzahl signifikanter Ziffern, für die eine Fließkommazahl exakt berechnet werden kann
+	 */
+	private static final int MAX_DOUBLE_DIGITS = 15;
+
+	private CsvNumbers() {
+	}
+
+	/**
+	 * Parst eine Ganzzahl wie <code>Integer.parseInt(s.trim())</code>
+	 * @param s Zeichen
+	 * @param start Startposition
+	 * @param end Endposition (exklusiv)
+	 * @return Wert
+	 * @throws NumberFormatException Falls die Zeichen keine gültige Zahl darstellen
+	 */
+	static int parseInt(final CharSequence s, final int start, final int end) throws NumberFormatException {
+		final long value = parseSmallLong(s, start, end);
+		if(value != Long.MIN_VALUE && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+			return (int) value;
+		}
+		return Integer.parseInt(trimmed(s, start, end));
+	}
+
+	/**
+	 * Parst eine Ganzzahl wie <code>Long.parseLong(s.trim())</code>
+	 * @param s Zeichen
+	 * @param start Startposition
+	 * @param end Endposition (exklusiv)
+	 * @return Wert
+	 * @throws NumberFormatException Falls die Zeichen keine gültige Zahl darstellen
+	 */
+	static long parseLong(final CharSequence s, final int start, final int end) throws NumberFormatException {
+		final long value = parseSmallLong(s, start, end);
+		if(value != Long.MIN_VALUE) {
+			return value;
+		}
+		return Long.parseLong(trimmed(s, start, end));
+	}
+
+	/**
+	 * Parst eine Fließkommazahl wie <code>Double.parseDouble(s.replace(',', '.').trim())</code>
+	 * @param s Zeichen
+	 * @param start Startposition
+	 * @param end Endposition (exklusiv)
+	 * @return Wert
+	 * @throws NumberFormatException Falls die Zeichen keine gültige Zahl darstellen
+	 */
+	static double parseDouble(final CharSequence s, final int start, final int end) throws NumberFormatException {
+		int from = trimStart(s, start, end);
+		final int to = trimEnd(s, from, end);
+		boolean negative = false;
+		if(from < to) {
+			final char c = s.charAt(from);
+			if(c == '-' || c == '+') {
+				negative = c == '-';
+				from++;
+			}
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = -1;
+		boolean anyDigit = false;
+		boolean simple = from < to;
+		for(int i = from; i < to && simple; i++) {
+			final char c = s.charAt(i);
+			if(c >= '0' && c <= '9') {
+				if(mantissa != 0 || c != '0') {
+					digits++;
+				}
+				mantissa = mantissa * 10 + (c - '0');
+				anyDigit = true;
+				if(fractionDigits >= 0) fractionDigits++;
+			}
+			else if((c == '.' || c == ',') && fractionDigits < 0) {
+				fractionDigits = 0;
+			}
+			else {
+				simple = false;
+			}
+		}
+		if(fractionDigits < 0) fractionDigits = 0;
+		// Mindestens eine Ziffer muss vorhanden sein ("." oder "-" sind ungültig)
+		if(simple && digits <= MAX_DOUBLE_DIGITS && fractionDigits < POWERS_OF_TEN.length && anyDigit) {
+			final double value = mantissa / POWERS_OF_TEN[fractionDigits];
+			return negative ? -value : value;
+		}
+		return Double.parseDouble(s.subSequence(start, end).toString().replace(',', '.').trim());
+	}
+
+	/**
+	 * Parst eine Ganzzahl mit höchstens {@link #MAX_LONG_DIGITS} ASCII-Ziffern
+	 * @param s Zeichen
+	 * @param start Startposition
+	 * @param end Endposition (exklusiv)
+	 * @return Wert oder {@link Long#MIN_VALUE}, falls die Zeichen nicht in dieser einfachen Form vorliegen
+	 */
+	private static long parseSmallLong(final CharSequence s, final int start, final int end) {
+		int from = trimStart(s, start, end);
+		final int to = trimEnd(s, from, end);
+		if(from == to) return Long.MIN_VALUE;
+		boolean negative = false;
+		final char first = s.charAt(from);
+		if(first == '-' || first == '+') {
+			negative = first == '-';
+			from++;
+		}
+		if(from == to || to - from > MAX_LONG_DIGITS) return Long.MIN_VALUE;
+		long value = 0;
+		for(int i = from; i < to; i++) {
+			final char c = s.charAt(i);
+			if(c < '0' || c > '9') return Long.MIN_VALUE;
+			value = value * 10 + (c - '0');
+		}
+		return negative ? -value : value;
+	}
+
+	private static int trimStart(final CharSequence s, final int start, final int end) {
+		int from = start;
+		while(from < end && s.charAt(from) <= ' ') from++;
+		return from;
+	}
+
+	private static int trimEnd(final CharSequence s, final int from, final int end) {
+		int to = end;
+		while(to > from && s.charAt(to - 1) <= ' ') to--;
+		return to;
+	}
+
+	private static String trimmed(final CharSequence s, final int start, final int end) {
+		final int from = trimStart(s, start, end);
+		return s.subSequence(from, trimEnd(s, from, end)).toString();
+	}
+}
@@ -37,28 +37,72 @@ public class CsvParseException extends IOException {
 	private final int _row;
 	private final int _col;
 
+	/**
+	 * Fehlermeldung ohne Zeilen- und Spaltenangabe
+	 */
+	private final String _reason;
+
+	/**
+	 * Bestimmt, ob die Fehlermeldung eine Spaltenangabe enthält
+	 */
+	private final boolean _hasCol;
+
 	CsvParseException(final Throwable cause, final int row, final int col) {
 		super(cause.getMessage() + " Zeile: " + row + " Spalte: " + col, cause);
 		_row = row;
 		_col = col;
+		_reason = cause.getMessage();
+		_hasCol = true;
 	}
 
 	CsvParseException(final Throwable cause, final int row) {
 		super(cause.getMessage() + " Zeile: " + row, cause);
 		_row = row;
 		_col = -1;
+		_reason = cause.getMessage();
+		_hasCol = false;
 	}
 
 	CsvParseException(final String message, final int row, final int col) {
 		super(message + " Zeile: " + row + " Spalte: " + col);
 		_row = row;
 		_col = col;
+		_reason = message;
+		_hasCol = true;
 	}
 
 	CsvParseException(final String message, final int row) {
 		super(message + " Zeile: " + row);
 		_row = row;
 		_col = -1;
+		_reason = message;
+		_hasCol = false;
+	}
+
+	/**
+	 * Erzeugt eine gleichartige Exception, deren Zeilennummer um einen Versatz verschoben ist. Wird verwendet, wenn
+	 * Teile einer Datei unabhängig voneinander mit lokalen Zeilennummern verarbeitet wurden.
+	 * @param rowOffset Versatz der Zeilennummer
+	 * @return neue Exception
+	 */
+	CsvParseException withRowOffset(final int rowOffset) {
+		final CsvParseException result;
+		if(!_hasCol) {
+			result = new CsvParseException(_reason, _row + rowOffset);
+		}
+		else {
+			result = new CsvParseException(_reason, _row + rowOffset, _col);
+		}
+		if(getCause() != null) result.initCause(getCause());
+		return result;
+	}
+
+	/**
+	 * Gibt die Fehlermeldung ohne Zeilen- und Spaltenangabe zurück
+	 * @return Fehlermeldung
+	 */
+	String getReason() {
+		return _reason;
 	}
 
 	public int getRow() {
@@ -28,23 +28,40 @@ package de.kappich.sys.funclib.csv;
 
 import java.io.*;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * Klasse zum einlesen von CSV-Daten
+ * <p>
+ * Wird eine Datei als {@link Path} übergeben, wird sie in den Speicher eingeblendet und auf Byte-Ebene zerlegt, sofern
+ * die Kodierung dies erlaubt (z.B. UTF-8 oder ISO-8859-1). Es werden dann nur die Zellinhalte dekodiert.
  *
  * @author Kappich Systemberatung
  * @version $Revision$
  */
 @SuppressWarnings("IOResourceOpenedButNotSafelyClosed")
-public class CsvReader {
+public class CsvReader implements Closeable {
 
 	/**
 	 * Leere Zeilen standardmäßig ignorieren
 	 */
 	public static final String DEFAULT_IGNORE_LINE_PATTERN = "^$";
 
+	/**
+	 * Standardanzahl Datensätze je Block bei {@link #readPipelined(String[], int, int)}
+	 */
+	public static final int DEFAULT_PIPELINE_BATCH_SIZE = 1024;
+
+	/**
+	 * Standardanzahl Blöcke in der Warteschlange bei {@link #readPipelined(String[], int, int)}
+	 */
+	public static final int DEFAULT_PIPELINE_QUEUE_CAPACITY = 16;
+
 	/**
 	 * CSV-Trennzeichen (z.B. Komma oder Semikolon)
 	 */
@@ -66,14 +83,84 @@ public class CsvReader {
 	private int _lastCellCount = -1;
 
 	/**
-	 * Reader, der die CSV-Daten einliest
+	 * Tokenizer, der die CSV-Daten einliest und in Zellen zerlegt
+	 */
+	private final CsvTokenizer _tokenizer;
+
+	/**
+	 * Datei, falls die Daten aus einer Datei gelesen werden, sonst <code>null</code>
+	 */
+	private final Path _file;
+
+	/**
+	 * Zeilen bei {@link #read()} ohne Strings erzeugen, siehe {@link #setLazyRows(boolean)}
+	 */
+	private boolean _lazyRows;
+
+	/**
+	 * Speicherung der Datensätze bei {@link #readAll()}, siehe {@link #setStorage(CsvDataStorage)}
+	 */
+	private CsvDataStorage _storage = CsvDataStorage.STRINGS;
+
+	/**
+	 * Spaltenüberschriften der einzulesenden Spalten, siehe {@link #selectColumns(String...)}
+	 */
+	private String[] _selectedColumnNames;
+
+	/**
+	 * Indizes der einzulesenden Spalten, siehe {@link #selectColumns(int...)}
+	 */
+	private int[] _selectedColumnIndexes;
+
+	/**
+	 * Filter für Datensätze, siehe {@link #setRowFilter(CsvRowFilter)}
+	 */
+	private CsvRowFilter _rowFilter;
+
+	/**
+	 * {@link #_rowFilter} mit aufgelösten Spaltenüberschriften, wird nach dem Lesen des Spaltenkopfs gesetzt
+	 */
+	private CsvRowFilter _boundRowFilter;
+
+	/**
+	 * Interner für alle Spalten ohne eigenen Interner, siehe {@link #setInterner(CsvInterner)}
+	 */
+	private CsvInterner _interner;
+
+	/**
+	 * Interner je Spaltenüberschrift, siehe {@link #setInterner(String, CsvInterner)}
+	 */
+	private final Map<String, CsvInterner> _columnInterners = new LinkedHashMap<String, CsvInterner>();
+
+	/**
+	 * Laufendes Einlesen im Hintergrund oder <code>null</code>
+	 */
+	private PipelinedCsvData _pipeline;
+
+	/**
+	 * <code>true</code>, falls der Spaltenkopf bereits gelesen bzw. übergeben wurde
+	 */
+	private boolean _headerRead;
+
+	/**
+	 * Zuletzt verwendeter Spaltenkopf, für {@link #checkpoint()}
 	 */
-	private final BufferedReader _reader;
+	private String[] _headerCells;
 
 	/**
-	 * Pattern, mit dem leere Zeilen und ähnliches ignoriert werden können.
+	 * Der Spaltenkopf stammt aus einem {@link CsvCheckpoint} und wird beim nächsten Lesen nicht aus der Datei gelesen
 	 */
-	private Pattern _ignoreLinePattern;
+	private boolean _resumeHeader;
+
+	/**
+	 * Dateiposition nach dem zuletzt gelieferten Datensatz, falls der Tokenizer bereits weiter gelesen hat, sonst -1
+	 */
+	private long _checkpointPosition = -1;
+
+	/**
+	 * Zeilennummer zu {@link #_checkpointPosition}
+	 */
+	private int _checkpointLineNum;
 
 	/**
 	 * Erstellt einen neuen CsvReader mit ';' als Trennzeichen und '"' als Anführungszeichen
@@ -136,16 +223,7 @@ public class CsvReader {
 	 * @param ignoreLinePattern Regulärer Ausdruck, mit dem zu ignorierende Zeilen vorgegeben werden können
 	 */
 	public CsvReader(final Charset encoding, final InputStream inputStream, final char csvSeparator, final char csvQuote, final String ignoreLinePattern) {
-		if(ignoreLinePattern != null){
-			_ignoreLinePattern = Pattern.compile(ignoreLinePattern);
-		}
-		else {
-			_ignoreLinePattern = null;
-		}
-		_reader = new BufferedReader(new InputStreamReader(inputStream, encoding));
-		_csvSeparator = csvSeparator;
-		_csvQuote = csvQuote;
-		_lineNum = 0;
+		this(new InputStreamReader(new DecompressingInputStream(inputStream), encoding), csvSeparator, csvQuote, ignoreLinePattern);
 	}
 
 	/**
@@ -174,13 +252,90 @@ public class CsvReader {
 	 * @param ignoreLinePattern Regulärer Ausdruck, mit dem zu ignorierende Zeilen vorgegeben werden können
 	 */
 	public CsvReader(final Reader reader, final char csvSeparator, final char csvQuote, final String ignoreLinePattern) {
-		if(ignoreLinePattern != null){
-			_ignoreLinePattern = Pattern.compile(ignoreLinePattern);
+		this(new ReaderCsvTokenizer(reader, csvSeparator, csvQuote, CsvLineSkipPolicy.forPattern(ignoreLinePattern)), null, csvSeparator, csvQuote);
+	}
+
+	/**
+	 * Erstellt einen neuen CsvReader für eine Datei mit ';' als Trennzeichen und '"' als Anführungszeichen
+	 * @param file Datei als Datenquelle
+	 * @param encoding Dateikodierung, z.B. UTF-8
+	 * @throws IOException Die Datei kann nicht geöffnet werden
+	 */
+	public CsvReader(final Path file, final Charset encoding) throws IOException {
+		this(file, encoding, ';', '"');
+	}
+
+	/**
+	 * Erstellt einen neuen CsvReader für eine Datei
+	 * @param file Datei als Datenquelle
+	 * @param encoding Dateikodierung, z.B. UTF-8
+	 * @param csvSeparator Trennzeichen
+	 * @param csvQuote Maskierungszeichen (Anführungszeichen)
+	 * @throws IOException Die Datei kann nicht geöffnet werden
+	 */
+	public CsvReader(final Path file, final Charset encoding, final char csvSeparator, final char csvQuote) throws IOException {
+		this(file, encoding, csvSeparator, csvQuote, DEFAULT_IGNORE_LINE_PATTERN);
+	}
+
+	/**
+	 * Erstellt einen neuen CsvReader für eine Datei. Die Datei sollte nach dem Lesen mit {@link #close()} geschlossen werden.
+	 * @param file Datei als Datenquelle
+	 * @param encoding Dateikodierung, z.B. UTF-8
+	 * @param csvSeparator Trennzeichen
+	 * @param csvQuote Maskierungszeichen (Anführungszeichen)
+	 * @param ignoreLinePattern Regulärer Ausdruck, mit dem zu ignorierende Zeilen vorgegeben werden können
+	 * @throws IOException Die Datei kann nicht geöffnet werden
+	 */
+	public CsvReader(final Path file, final Charset encoding, final char csvSeparator, final char csvQuote, final String ignoreLinePattern) throws IOException {
+		this(MappedCsvTokenizer.open(file, encoding, csvSeparator, csvQuote, CsvLineSkipPolicy.forPattern(ignoreLinePattern)), file, csvSeparator, csvQuote);
+	}
+
+	/**
+	 * Erstellt einen CsvReader, der einen unterbrochenen Lesevorgang an einem {@link CsvCheckpoint} fortsetzt. Kodierung,
+	 * Trennzeichen und Anführungszeichen werden aus dem Checkpoint übernommen, leere Zeilen werden ignoriert.
+	 * @param file Datei als Datenquelle
+	 * @param checkpoint Checkpoint, siehe {@link #checkpoint()}
+	 * @throws IOException Die Datei kann nicht geöffnet werden oder passt nicht zum Checkpoint
+	 * @see #CsvReader(Path, CsvCheckpoint, String)
+	 */
+	public CsvReader(final Path file, final CsvCheckpoint checkpoint) throws IOException {
+		this(file, checkpoint, DEFAULT_IGNORE_LINE_PATTERN);
+	}
+
+	/**
+	 * Erstellt einen CsvReader, der einen unterbrochenen Lesevorgang an einem {@link CsvCheckpoint} fortsetzt. Die Datei
+	 * wird direkt an die Position des Checkpoints gesetzt. Wurde der Spaltenkopf vor dem Checkpoint bereits gelesen,
+	 * verwenden {@link #read()}, {@link #readAll()} und deren Varianten den Spaltenkopf aus dem Checkpoint, die Daten
+	 * werden also genau ab dem ersten noch nicht gelieferten Datensatz gelesen. Zeilennummern werden fortgezählt.
+	 * Spaltenauswahl, Filter und Interner werden nicht gespeichert und müssen wie beim ursprünglichen Reader gesetzt
+	 * werden.
+	 * @param file Datei als Datenquelle
+	 * @param checkpoint Checkpoint, siehe {@link #checkpoint()}
+	 * @param ignoreLinePattern Regulärer Ausdruck, mit dem zu ignorierende Zeilen vorgegeben werden können
+	 * @throws IOException Die Datei kann nicht geöffnet werden oder passt nicht zum Checkpoint
+	 * @throws UnsupportedOperationException Falls die Datei nicht auf Byte-Ebene zerlegt werden kann
+	 */
+	public CsvReader(final Path file, final CsvCheckpoint checkpoint, final String ignoreLinePattern) throws IOException {
+		this(file, checkpoint.getEncoding(), checkpoint.getCsvSeparator(), checkpoint.getCsvQuote(), ignoreLinePattern);
+		boolean resumed = false;
+		try {
+			final MappedCsvTokenizer tokenizer = getMappedTokenizer();
+			checkpoint.verify(tokenizer.getChannel());
+			tokenizer.seek(checkpoint.getPosition());
+			resumed = true;
 		}
-		else {
-			_ignoreLinePattern = null;
+		finally {
+			if(!resumed) _tokenizer.close();
 		}
-		_reader = new BufferedReader(reader);
+		_lineNum = checkpoint.getLineNum();
+		_headerRead = checkpoint.isHeaderRead();
+		_headerCells = checkpoint.getHeaderCells();
+		_resumeHeader = _headerRead;
+	}
+
+	private CsvReader(final CsvTokenizer tokenizer, final Path file, final char csvSeparator, final char csvQuote) {
+		_tokenizer = tokenizer;
+		_file = file;
 		_csvSeparator = csvSeparator;
 		_csvQuote = csvQuote;
 		_lineNum = 0;
@@ -195,13 +350,7 @@ public class CsvReader {
 	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
 	 */
 	public CsvData readAll() throws IOException {
-		_lineNum++;
-		String[] headerCells = null;
-		while(headerCells == null){
-			final String headerLine = _reader.readLine();
-			if(headerLine == null) throw new CsvParseException("Datei enthält keine Spaltenüberschriften (ist leer).", _lineNum, 0);
-			headerCells = splitLineToCells(headerLine, _reader);
-		}
+		final String[] headerCells = readHeaderCells();
 		return readAll(headerCells);
 	}
 
@@ -212,13 +361,7 @@ public class CsvReader {
 	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
 	 */
 	public IterableCsvData read() throws IOException {
-		_lineNum++;
-		String[] headerCells = null;
-		while(headerCells == null){
-			final String headerLine = _reader.readLine();
-			if(headerLine == null) throw new CsvParseException("Datei enthält keine Spaltenüberschriften (ist leer).", _lineNum, 0);
-			headerCells = splitLineToCells(headerLine, _reader);
-		}
+		final String[] headerCells = readHeaderCells();
 		return read(headerCells);
 	}
 
@@ -233,26 +376,120 @@ public class CsvReader {
 	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
 	 */
 	public CsvData readAll(String[] headerCells) throws IOException {
+		prepareRead(headerCells);
 		// Datei zeilenweise einlesen
-		final List<String[]> entries = new ArrayList<String[]>();
-		String line;
-		while((line = _reader.readLine()) != null) {
+		final CsvRowStore entries = CsvRowStore.create(_storage);
+		while(_tokenizer.nextLine()) {
 			_lineNum++;
-			final String[] cells = splitLineToCells(line, _reader);
-			if(cells != null){
-				entries.add(cells);
+			if(tokenizeLine()){
+				entries.add(_tokenizer.getRecord());
 			}
 		}
 
-		final HashMap<String,Integer> columnNameToIndexMap = new HashMap<String, Integer>();
-		if(headerCells != null){
-			// Spaltenindex initialisieren
-			for(int i = 0; i < headerCells.length; i++) {
-				final String headerCell = headerCells[i];
-				columnNameToIndexMap.put(headerCell, i);
+		final HashMap<String,Integer> columnNameToIndexMap = createColumnNameToIndexMap(headerCells);
+		return new CsvData(headerCells, columnNameToIndexMap, entries);
+	}
+
+	/**
+	 * Verarbeitet die CSV-Daten wie {@link #readAll()}, zerlegt eine Datei aber parallel in mehreren Threads des
+	 * {@link ForkJoinPool#commonPool() gemeinsamen ForkJoinPools}. Das Ergebnis ist identisch mit {@link #readAll()}.
+	 * Parallel gelesen werden nur Dateien, die als {@link Path} übergeben wurden und auf Byte-Ebene zerlegt werden können,
+	 * andere Datenquellen werden sequentiell gelesen.
+	 * @return CsvData-Objekt, welchen des Dateiinhalt enthält
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 */
+	public CsvData readAllParallel() throws IOException {
+		final String[] headerCells = readHeaderCells();
+		return readAllParallel(headerCells);
+	}
+
+	/**
+	 * Verarbeitet die CSV-Daten wie {@link #readAll(String[])}, zerlegt eine Datei aber parallel in mehreren Threads des
+	 * {@link ForkJoinPool#commonPool() gemeinsamen ForkJoinPools}.
+	 * @param headerCells Spaltenkopf (falls null, kann auf die Spalten nur über Index zugegriffen werden)
+	 * @return CsvData-Objekt, welchen des Dateiinhalt enthält
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 * @see #readAllParallel()
+	 */
+	public CsvData readAllParallel(String[] headerCells) throws IOException {
+		return readAllParallel(headerCells, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Verarbeitet die CSV-Daten wie {@link #readAll(String[])}, zerlegt eine Datei aber parallel in mehreren Threads
+	 * des angegebenen Pools.
+	 * @param headerCells Spaltenkopf (falls null, kann auf die Spalten nur über Index zugegriffen werden)
+	 * @param pool Pool, in dem die Teile der Datei verarbeitet werden
+	 * @return CsvData-Objekt, welchen des Dateiinhalt enthält
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 * @see #readAllParallel()
+	 */
+	public CsvData readAllParallel(String[] headerCells, ForkJoinPool pool) throws IOException {
+		prepareRead(headerCells);
+		if(!(_tokenizer instanceof MappedCsvTokenizer)) {
+			return readAll(headerCells);
+		}
+		final ParallelCsvFileParser parser = new ParallelCsvFileParser((MappedCsvTokenizer) _tokenizer, _boundRowFilter, pool);
+		final CsvRowStore entries = parser.parse(_lineNum, _storage);
+		_lineNum += parser.getLineCount();
+		_checkpointPosition = ((MappedCsvTokenizer) _tokenizer).getFileSize();
+		_checkpointLineNum = _lineNum;
+		if(_lastCellCount < 0 && entries.size() > 0) {
+			_lastCellCount = entries.getCellCount(0);
+		}
+		return new CsvData(headerCells, createColumnNameToIndexMap(headerCells), entries);
+	}
+
+	/**
+	 * Verarbeitet die CSV-Daten und speichert sie spaltenweise mit primitiven Datentypen. Die erste Zeile wird als
+	 * Spaltenkopf interpretiert. Spalten, für die kein Typ angegeben wurde, werden als {@link CsvColumnType#STRING}
+	 * gespeichert.
+	 * @param columnTypes Zuordnung Spaltenüberschrift zu Datentyp
+	 * @return ColumnarCsvData-Objekt, welches den Dateiinhalt enthält
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei, unbekannte Spaltenüberschrift oder ein Wert, der nicht
+	 * in den Datentyp der Spalte umgewandelt werden kann
+	 */
+	public ColumnarCsvData readColumnar(final Map<String, CsvColumnType> columnTypes) throws IOException {
+		final String[] headerCells = readHeaderCells();
+		final HashMap<String, Integer> columnNameToIndexMap = createColumnNameToIndexMap(headerCells);
+		final CsvColumnType[] types = new CsvColumnType[headerCells.length];
+		Arrays.fill(types, CsvColumnType.STRING);
+		for(final Map.Entry<String, CsvColumnType> entry : columnTypes.entrySet()) {
+			final Integer index = columnNameToIndexMap.get(entry.getKey());
+			if(index == null) {
+				throw new CsvParseException("Spalte \"" + entry.getKey() + "\" nicht gefunden", _lineNum);
 			}
+			types[index] = entry.getValue();
 		}
-		return new CsvData(headerCells, columnNameToIndexMap, entries);
+		return readColumnar(headerCells, types);
+	}
+
+	/**
+	 * Verarbeitet die CSV-Daten und speichert sie spaltenweise mit primitiven Datentypen. Der Spaltenkopf wird als
+	 * Parameter übergeben, die erste Zeile wird als Daten gewertet. Die Anzahl der Spalten ergibt sich aus der Anzahl der
+	 * angegebenen Typen, weitere Zellen einer Zeile werden ignoriert.
+	 * @param headerCells Spaltenkopf (falls null, kann auf die Spalten nur über Index zugegriffen werden)
+	 * @param columnTypes Datentyp jeder Spalte
+	 * @return ColumnarCsvData-Objekt, welches den Dateiinhalt enthält
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei oder ein Wert, der nicht in den Datentyp der Spalte
+	 * umgewandelt werden kann
+	 */
+	public ColumnarCsvData readColumnar(final String[] headerCells, final CsvColumnType... columnTypes) throws IOException {
+		prepareRead(headerCells);
+		final ColumnarCsvData data = new ColumnarCsvData(headerCells, createColumnNameToIndexMap(headerCells), columnTypes.clone());
+		while(_tokenizer.nextLine()) {
+			_lineNum++;
+			if(tokenizeLine()){
+				data.addRecord(_tokenizer.getRecord(), _lineNum);
+			}
+		}
+		data.trimToSize();
+		return data;
 	}
 
 	/**
@@ -263,6 +500,326 @@ public class CsvReader {
 	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
 	 */
 	public IterableCsvData read(String[] headerCells) throws IOException {
+		prepareRead(headerCells);
+		final HashMap<String,Integer> columnNameToIndexMap = createColumnNameToIndexMap(headerCells);
+		return new CsvIterableData(headerCells, columnNameToIndexMap);
+	}
+
+	/**
+	 * Verarbeitet die CSV-Daten wie {@link #read()}, liest und zerlegt die Datensätze aber in einem eigenen Thread. Die
+	 * Datensätze werden blockweise über eine Warteschlange begrenzter Größe übergeben, so dass das Einlesen und die
+	 * Verarbeitung der Datensätze gleichzeitig stattfinden, ohne dass mehr als einige Blöcke im Voraus gelesen werden.
+	 * Die erste Zeile wird als Spaltenkopf interpretiert.
+	 * @return IterableCsvData-Objekt, mit dem man über den Dateiinhalt iterieren kann
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der Spaltenüberschriften
+	 * @see #readPipelined(String[], int, int)
+	 */
+	public IterableCsvData readPipelined() throws IOException {
+		final String[] headerCells = readHeaderCells();
+		return readPipelined(headerCells, DEFAULT_PIPELINE_BATCH_SIZE, DEFAULT_PIPELINE_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * Verarbeitet die CSV-Daten wie {@link #read(String[])}, liest und zerlegt die Datensätze aber in einem eigenen
+	 * Thread. Der Thread legt Blöcke von Datensätzen in einer Warteschlange ab und wartet, wenn diese voll ist.
+	 * <p>
+	 * Der {@link IterableCsvData#iterator() Iterator} liefert die Datensätze in der Reihenfolge der Datei, ein Fehler
+	 * beim Einlesen wird wie bei {@link #read(String[])} als letzter Datensatz geliefert und beim Zugriff auf dessen
+	 * Werte ausgelöst. Bei {@link IterableCsvData#stream()} wird ein Fehler als {@link UncheckedIOException} ausgelöst.
+	 * Ein paralleler Stream übergibt die Blöcke an die Threads des Streams, so dass die Datensätze von mehreren Threads
+	 * verarbeitet werden können.
+	 * <p>
+	 * Iterator bzw. Stream können nur einmal verwendet werden. Bis alle Datensätze gelesen wurden, dürfen keine anderen
+	 * Methoden dieses Readers aufgerufen werden, außer {@link #close()}. {@link #close()} beendet auch den Thread und wartet
+	 * auf dessen Ende, falls nicht alle Datensätze abgeholt wurden.
+	 * @param headerCells Spaltenkopf (falls null, kann auf die Spalten nur über Index zugegriffen werden)
+	 * @param batchSize Anzahl Datensätze je Block
+	 * @param queueCapacity Maximale Anzahl Blöcke in der Warteschlange
+	 * @return IterableCsvData-Objekt, mit dem man über den Dateiinhalt iterieren kann
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 */
+	public IterableCsvData readPipelined(String[] headerCells, final int batchSize, final int queueCapacity) throws IOException {
+		if(batchSize <= 0) throw new IllegalArgumentException("batchSize: " + batchSize);
+		if(queueCapacity <= 0) throw new IllegalArgumentException("queueCapacity: " + queueCapacity);
+		prepareRead(headerCells);
+		final PipelinedCsvData data = new PipelinedCsvData(headerCells, createColumnNameToIndexMap(headerCells), batchSize, queueCapacity);
+		_pipeline = data;
+		data.start();
+		return data;
+	}
+
+	/**
+	 * Liest die CSV-Daten in Blöcken von Datensätzen, die spaltenweise in wiederverwendeten primitiven Arrays
+	 * bereitgestellt werden (siehe {@link CsvRowBlock}). Die erste Zeile wird als Spaltenkopf interpretiert. Eingelesen
+	 * werden nur die angegebenen Spalten.
+	 * @param columnTypes Zuordnung Spaltenüberschrift zu Datentyp der benötigten Spalten
+	 * @param blockSize Anzahl Datensätze je Block, z.B. 4096
+	 * @return Reader für die Blöcke
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der Spaltenüberschriften oder unbekannte Spaltenüberschrift
+	 */
+	public CsvBlockReader readBlocks(final Map<String, CsvColumnType> columnTypes, final int blockSize) throws IOException {
+		final String[] headerCells = readHeaderCells();
+		final HashMap<String, Integer> columnNameToIndexMap = createColumnNameToIndexMap(headerCells);
+		final CsvColumnType[] types = new CsvColumnType[headerCells.length];
+		for(final Map.Entry<String, CsvColumnType> entry : columnTypes.entrySet()) {
+			final Integer index = columnNameToIndexMap.get(entry.getKey());
+			if(index == null) {
+				throw new CsvParseException("Spalte \"" + entry.getKey() + "\" nicht gefunden", _lineNum);
+			}
+			types[index] = entry.getValue();
+		}
+		return readBlocks(headerCells, blockSize, types);
+	}
+
+	/**
+	 * Liest die CSV-Daten in Blöcken von Datensätzen, siehe {@link #readBlocks(Map, int)}. Der Spaltenkopf wird als
+	 * Parameter übergeben, die erste Zeile wird als Daten gewertet.
+	 * @param headerCells Spaltenkopf (falls null, kann auf die Spalten nur über Index zugegriffen werden)
+	 * @param blockSize Anzahl Datensätze je Block, z.B. 4096
+	 * @param columnTypes Datentyp jeder Spalte, <code>null</code> für Spalten, die nicht benötigt werden
+	 * @return Reader für die Blöcke
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 */
+	public CsvBlockReader readBlocks(final String[] headerCells, final int blockSize, final CsvColumnType... columnTypes) throws IOException {
+		if(blockSize <= 0) throw new IllegalArgumentException("blockSize: " + blockSize);
+		int numColumns = 0;
+		for(final CsvColumnType type : columnTypes) {
+			if(type != null) numColumns++;
+		}
+		final int[] columns = new int[numColumns];
+		numColumns = 0;
+		for(int i = 0; i < columnTypes.length; i++) {
+			if(columnTypes[i] != null) columns[numColumns++] = i;
+		}
+		prepareRead(headerCells, columns);
+		return new CsvBlockReader(this, headerCells, createColumnNameToIndexMap(headerCells), new CsvRowBlock(blockSize, columnTypes.clone()));
+	}
+
+	/**
+	 * Erstellt einen Index mit der Dateiposition jedes Datensatzes, mit dem später über
+	 * {@link #readRows(CsvRowIndex, int, int)} direkt auf einzelne Datensätze zugegriffen werden kann. Die erste Zeile
+	 * wird als Spaltenkopf interpretiert. Die Datei wird dazu vollständig gelesen, die Zellinhalte werden aber nicht
+	 * kopiert. Ein Filter ({@link #setRowFilter(CsvRowFilter)}) wird nicht berücksichtigt.
+	 * @return Index
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 * @throws UnsupportedOperationException Falls die Daten nicht aus einer Datei stammen, die auf Byte-Ebene zerlegt werden
+	 * kann (siehe {@link #CsvReader(Path, Charset, char, char, String)})
+	 */
+	public CsvRowIndex buildRowIndex() throws IOException {
+		getMappedTokenizer();
+		final String[] headerCells = readHeaderCells();
+		return buildRowIndex(headerCells);
+	}
+
+	/**
+	 * Erstellt einen Index wie {@link #buildRowIndex()}. Der Spaltenkopf wird als Parameter übergeben, die erste Zeile wird
+	 * als Daten gewertet.
+	 * @param headerCells Spaltenkopf (falls null, kann auf die Spalten nur über Index zugegriffen werden)
+	 * @return Index
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 * @throws UnsupportedOperationException Falls die Daten nicht aus einer Datei stammen, die auf Byte-Ebene zerlegt werden
+	 * kann
+	 */
+	public CsvRowIndex buildRowIndex(final String[] headerCells) throws IOException {
+		final MappedCsvTokenizer tokenizer = getMappedTokenizer();
+		// Nur die Grenzen der Datensätze werden benötigt, keine Zellinhalte
+		tokenizer.setSelectedCells(new boolean[0]);
+		long[] positions = new long[1024];
+		int[] lineNums = new int[1024];
+		int numRows = 0;
+		long position = tokenizer.getLinePosition();
+		while(tokenizer.nextLine()) {
+			_lineNum++;
+			if(tokenizer.tokenizeLine(_lineNum)) {
+				if(numRows + 1 == positions.length) {
+					positions = Arrays.copyOf(positions, positions.length * 2);
+					lineNums = Arrays.copyOf(lineNums, lineNums.length * 2);
+				}
+				positions[numRows] = position;
+				lineNums[numRows] = _lineNum;
+				numRows++;
+			}
+			position = tokenizer.getLinePosition();
+		}
+		positions[numRows] = position;
+		return new CsvRowIndex(
+				headerCells == null ? null : headerCells.clone(),
+				tokenizer.getChannel().size(),
+				Arrays.copyOf(positions, numRows + 1),
+				Arrays.copyOf(lineNums, numRows)
+		);
+	}
+
+	/**
+	 * Liest einen Bereich von Datensätzen anhand eines mit {@link #buildRowIndex()} erstellten Index. Die Datei wird dazu
+	 * direkt an die Position des ersten Datensatzes gesetzt, die Dauer hängt also nur von der Anzahl gelesener Datensätze
+	 * ab. Die Methode kann beliebig oft aufgerufen werden. Spaltenauswahl, Filter und Speicherung werden wie bei
+	 * {@link #readAll()} berücksichtigt, bei einem Filter kann das Ergebnis also weniger Zeilen enthalten.
+	 * <p>
+	 * Der Reader muss mit denselben Einstellungen (Kodierung, Trennzeichen usw.) erzeugt worden sein wie beim Erstellen
+	 * des Index. Die Zeilen des Ergebnisses werden ab 0 gezählt, Fehlermeldungen enthalten die Zeilennummer in der Datei.
+	 * @param index Index der Datei
+	 * @param fromRow Index des ersten Datensatzes
+	 * @param toRow Index nach dem letzten Datensatz (exklusiv)
+	 * @return CsvData-Objekt mit den gelesenen Datensätzen
+	 * @throws IOException Ein-Ausgabe-Fehler oder der Index passt nicht zur Dateigröße
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 * @throws IndexOutOfBoundsException Falls der Bereich ungültig ist
+	 * @throws UnsupportedOperationException Falls die Daten nicht aus einer Datei stammen, die auf Byte-Ebene zerlegt werden
+	 * kann
+	 */
+	public CsvData readRows(final CsvRowIndex index, final int fromRow, final int toRow) throws IOException {
+		final MappedCsvTokenizer tokenizer = getMappedTokenizer();
+		if(fromRow < 0 || toRow > index.getNumRows() || fromRow > toRow) {
+			throw new IndexOutOfBoundsException("fromRow: " + fromRow + ", toRow: " + toRow + ", Datensätze: " + index.getNumRows());
+		}
+		if(tokenizer.getChannel().size() != index.getFileSize()) {
+			throw new IOException("Der Index passt nicht zur Datei (Dateigröße " + tokenizer.getChannel().size() + " statt " + index.getFileSize() + " Byte)");
+		}
+		final String[] headerCells = index.getHeaderCells();
+		prepareRead(headerCells);
+		final CsvRowStore entries = CsvRowStore.create(_storage);
+		if(fromRow < toRow) {
+			tokenizer.seek(index.getPosition(fromRow));
+			_lineNum = index.getLineNum(fromRow) - 1;
+			int row = fromRow;
+			while(row < toRow && tokenizer.nextLine()) {
+				_lineNum++;
+				if(!tokenizer.tokenizeLine(_lineNum)) continue;
+				row++;
+				if(_boundRowFilter == null || _boundRowFilter.accept(tokenizer.getRecord())) {
+					entries.add(tokenizer.getRecord());
+				}
+			}
+		}
+		return new CsvData(headerCells, createColumnNameToIndexMap(headerCells), entries);
+	}
+
+	/**
+	 * Liest einen einzelnen Datensatz anhand eines Index, siehe {@link #readRows(CsvRowIndex, int, int)}
+	 * @param index Index der Datei
+	 * @param row Index des Datensatzes
+	 * @return Datensatz oder <code>null</code>, falls er den Filter nicht erfüllt
+	 * @throws IOException Ein-Ausgabe-Fehler oder der Index passt nicht zur Dateigröße
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 * @throws IndexOutOfBoundsException Falls es den Datensatz nicht gibt
+	 */
+	public IterableCsvData.CsvRow readRow(final CsvRowIndex index, final int row) throws IOException {
+		final CsvData data = readRows(index, row, row + 1);
+		return data.getNumRows() == 0 ? null : data.getRow(0);
+	}
+
+	/**
+	 * Liest eine Datei, an die laufend Datensätze angehängt werden, siehe {@link CsvTailer}. Die erste Zeile wird als
+	 * Spaltenkopf interpretiert und muss bereits vollständig in der Datei stehen. Spaltenauswahl, Filter, Interner und
+	 * {@link #setLazyRows(boolean)} werden wie bei {@link #read()} berücksichtigt. Der Reader darf danach nur noch über
+	 * den Tailer verwendet werden, {@link CsvTailer#close()} schließt auch den Reader.
+	 * @return Tailer, der ab dem ersten Datensatz liest
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der Spaltenüberschriften
+	 * @throws UnsupportedOperationException Falls die Daten nicht aus einer Datei stammen, die auf Byte-Ebene zerlegt werden
+	 * kann (siehe {@link #CsvReader(Path, Charset, char, char, String)})
+	 */
+	public CsvTailer tail() throws IOException {
+		getMappedTokenizer();
+		final String[] headerCells = readHeaderCells();
+		return createTailer(headerCells, true);
+	}
+
+	/**
+	 * Liest eine Datei, an die laufend Datensätze angehängt werden, wie {@link #tail()}. Der Spaltenkopf wird als
+	 * Parameter übergeben, die erste Zeile wird als Daten gewertet. Die Datei darf daher auch noch leer sein.
+	 * @param headerCells Spaltenkopf (falls null, kann auf die Spalten nur über Index zugegriffen werden)
+	 * @return Tailer, der ab dem ersten Datensatz liest
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Eine ausgewählte oder gefilterte Spalte ist nicht im Spaltenkopf enthalten
+	 * @throws UnsupportedOperationException Falls die Daten nicht aus einer Datei stammen, die auf Byte-Ebene zerlegt werden
+	 * kann
+	 */
+	public CsvTailer tail(final String[] headerCells) throws IOException {
+		getMappedTokenizer();
+		return createTailer(headerCells, false);
+	}
+
+	private CsvTailer createTailer(final String[] headerCells, final boolean headerInFile) throws IOException {
+		final MappedCsvTokenizer tokenizer = getMappedTokenizer();
+		prepareRead(headerCells);
+		return new CsvTailer(
+				headerCells, createColumnNameToIndexMap(headerCells), _file, tokenizer, this, headerInFile,
+				tokenizer.getLinePosition(), _lineNum, _boundRowFilter, _lazyRows
+		);
+	}
+
+	/**
+	 * Erstellt einen Checkpoint nach dem zuletzt gelieferten Datensatz, an dem ein unterbrochener Lesevorgang mit
+	 * {@link #CsvReader(Path, CsvCheckpoint)} fortgesetzt werden kann. Beim Iterator von {@link #read()} ist das der
+	 * zuletzt von {@link Iterator#next()} zurückgegebene Datensatz, auch wenn der Iterator intern bereits den nächsten
+	 * Datensatz gelesen hat. Nach {@link #readAll()} und {@link #readAllParallel()} liegt der Checkpoint am Ende der
+	 * gelesenen Daten, so dass ein fortgesetzter Reader nur später angehängte Datensätze liest.
+	 * <p>
+	 * Die Methode kann während der Iteration beliebig oft aufgerufen werden, z.B. nach jeweils einer Million
+	 * Datensätze. Der Fortschritt von {@link IterableCsvData#stream()} und {@link #readPipelined()} wird nicht erfasst.
+	 * @return Checkpoint
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws UnsupportedOperationException Falls die Daten nicht aus einer Datei stammen, die auf Byte-Ebene zerlegt werden
+	 * kann (siehe {@link #CsvReader(Path, Charset, char, char, String)})
+	 * @throws IllegalStateException Falls die Daten mit {@link #readPipelined()} gelesen werden
+	 */
+	public CsvCheckpoint checkpoint() throws IOException {
+		final MappedCsvTokenizer tokenizer = getMappedTokenizer();
+		if(_pipeline != null) {
+			throw new IllegalStateException("Beim Einlesen in einem eigenen Thread ist kein Checkpoint möglich");
+		}
+		final long position;
+		final int lineNum;
+		if(_checkpointPosition >= 0) {
+			position = _checkpointPosition;
+			lineNum = _checkpointLineNum;
+		}
+		else {
+			position = tokenizer.getLinePosition();
+			lineNum = _lineNum;
+		}
+		return new CsvCheckpoint(
+				tokenizer.getEncoding(), _csvSeparator, _csvQuote, _headerRead, _headerCells, position, lineNum, tokenizer.getChannel()
+		);
+	}
+
+	/**
+	 * Liest den Spaltenkopf aus der ersten nicht ignorierten Zeile. Bei einem mit {@link #CsvReader(Path, CsvCheckpoint)}
+	 * fortgesetzten Reader wird stattdessen einmalig der Spaltenkopf des Checkpoints zurückgegeben.
+	 * @return Spaltenkopf
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der Spaltenüberschriften oder die Datei ist leer
+	 */
+	private String[] readHeaderCells() throws IOException {
+		if(_resumeHeader) {
+			_resumeHeader = false;
+			return _headerCells;
+		}
+		_lineNum++;
+		String[] headerCells = null;
+		while(headerCells == null){
+			if(!_tokenizer.nextLine()) throw new CsvParseException("Datei enthält keine Spaltenüberschriften (ist leer).", _lineNum, 0);
+			headerCells = splitLineToCells();
+		}
+		return headerCells;
+	}
+
+	private MappedCsvTokenizer getMappedTokenizer() {
+		if(!(_tokenizer instanceof MappedCsvTokenizer)) {
+			throw new UnsupportedOperationException("Wahlfreier Zugriff ist nur bei Dateien möglich, die auf Byte-Ebene zerlegt werden können");
+		}
+		return (MappedCsvTokenizer) _tokenizer;
+	}
+
+	private static HashMap<String, Integer> createColumnNameToIndexMap(final String[] headerCells) {
 		final HashMap<String,Integer> columnNameToIndexMap = new HashMap<String, Integer>();
 		if(headerCells != null){
 			// Spaltenindex initialisieren
@@ -271,92 +828,296 @@ public class CsvReader {
 				columnNameToIndexMap.put(headerCell, i);
 			}
 		}
-		return new CsvIterableData(headerCells, columnNameToIndexMap);
+		return columnNameToIndexMap;
 	}
 
 	/**
-	 * Zerlegt eine Zeile in ein String-Array mit den einzelnen Einträgen
-	 *
-	 * @param line Zeile
-	 * @param reader Reader (falls weitere Zeilen benötigt werden)
-	 * @return String-Array
-	 * @throws IOException IO-Fehler
-	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 * Legt fest, ob die Zeilen bei {@link #read()} und {@link #read(String[])} ohne Strings erzeugt werden. Ist dies
+	 * aktiviert, speichert jede {@link IterableCsvData.CsvRow} nur die Zeichen und Zellgrenzen der Zeile. Strings werden
+	 * erst beim Zugriff auf einen Wert erzeugt, {@link IterableCsvData.CsvRow#getCharSequence(int)} und die primitiven
+	 * Getter kommen ganz ohne Strings aus. Das lohnt sich, wenn nur wenige Spalten einer Datei ausgewertet werden.
+	 * @param lazyRows <code>true</code>, wenn Strings erst bei Bedarf erzeugt werden sollen
 	 */
-	String[] splitLineToCells(final String line, final BufferedReader reader) throws IOException {
+	public void setLazyRows(final boolean lazyRows) {
+		_lazyRows = lazyRows;
+	}
 
-		if(_ignoreLinePattern != null){
-			if(_ignoreLinePattern.matcher(line).matches()){
-				return null;
+	/**
+	 * Legt fest, wie {@link #readAll()}, {@link #readAllParallel()} und deren Varianten die Datensätze im Speicher halten.
+	 * Mit {@link CsvDataStorage#COMPACT} lassen sich auch sehr große Dateien vollständig im Speicher halten, die Strings
+	 * werden dann erst beim Zugriff auf eine Zelle erzeugt. Mit {@link CsvDataStorage#OFF_HEAP} und
+	 * {@link CsvDataStorage#MAPPED_FILE} liegen die Datensätze außerhalb des Java-Heaps.
+	 * @param storage Art der Speicherung, Standard ist {@link CsvDataStorage#STRINGS}
+	 */
+	public void setStorage(final CsvDataStorage storage) {
+		if(storage == null) throw new IllegalArgumentException("storage ist null");
+		_storage = storage;
+	}
+
+	/**
+	 * Legt fest, dass beim Einlesen nur die Inhalte der angegebenen Spalten übernommen werden. Die übrigen Zellen werden
+	 * zwar zerlegt (Anführungszeichen werden also korrekt ausgewertet), ihr Inhalt wird aber verworfen, ohne dass dafür
+	 * Zeichen kopiert oder Strings erzeugt werden. Nicht ausgewählte Zellen sind in den Ergebnissen leer, die Spaltenindizes
+	 * bleiben unverändert. Die Auswahl gilt für alle folgenden Aufrufe von {@link #read()}, {@link #readAll()} und deren
+	 * Varianten, die Spaltenüberschriften werden immer vollständig gelesen.
+	 * @param headers Spaltenüberschriften der benötigten Spalten oder <code>null</code> für alle Spalten
+	 */
+	public void selectColumns(final String... headers) {
+		_selectedColumnNames = headers == null ? null : headers.clone();
+		_selectedColumnIndexes = null;
+	}
+
+	/**
+	 * Legt fest, dass beim Einlesen nur die Inhalte der angegebenen Spalten übernommen werden, siehe
+	 * {@link #selectColumns(String...)}.
+	 * @param columnIndexes Indizes der benötigten Spalten oder <code>null</code> für alle Spalten
+	 * @throws IllegalArgumentException Falls ein Spaltenindex negativ ist
+	 */
+	public void selectColumns(final int... columnIndexes) {
+		if(columnIndexes != null) {
+			for(final int columnIndex : columnIndexes) {
+				if(columnIndex < 0) throw new IllegalArgumentException("columnIndex: " + columnIndex);
 			}
 		}
+		_selectedColumnIndexes = columnIndexes == null ? null : columnIndexes.clone();
+		_selectedColumnNames = null;
+	}
 
-		char[] chars = line.toCharArray();
-		boolean inQuote = false;
+	/**
+	 * Legt fest, welche Zeilen ignoriert werden. Ersetzt den im Konstruktor angegebenen regulären Ausdruck, gilt also
+	 * für alle ab jetzt gelesenen Zeilen einschließlich der Spaltenüberschriften. Die vordefinierten Varianten von
+	 * {@link CsvLineSkipPolicy} prüfen die Zeilen ohne regulären Ausdruck.
+	 * @param lineSkipPolicy Zu ignorierende Zeilen, z.B. {@link CsvLineSkipPolicy#startsWith(String...)}
+	 */
+	public void setLineSkipPolicy(final CsvLineSkipPolicy lineSkipPolicy) {
+		_tokenizer.setLineSkipPolicy(lineSkipPolicy);
+	}
 
-		final ArrayList<String> cells = new ArrayList<String>();
+	/**
+	 * Legt einen Filter für die Datensätze fest. Der Filter wird beim Einlesen direkt auf den zerlegten Zellen
+	 * ausgewertet, bevor Strings erzeugt werden. Datensätze, die den Filter nicht erfüllen, werden wie ignorierte
+	 * Zeilen übersprungen. Die vom Filter geprüften Spalten werden auch dann eingelesen, wenn sie nicht mit
+	 * {@link #selectColumns(String...)} ausgewählt wurden. Der Filter gilt für alle folgenden Aufrufe von
+	 * {@link #read()}, {@link #readAll()} und deren Varianten.
+	 * @param rowFilter Filter oder <code>null</code>, um alle Datensätze zu übernehmen
+	 */
+	public void setRowFilter(final CsvRowFilter rowFilter) {
+		_rowFilter = rowFilter;
+	}
 
-		final StringBuilder cell = new StringBuilder();
+	/**
+	 * Legt einen Interner fest, über den die Strings aller Spalten ohne eigenen Interner erzeugt werden. Gleiche Werte
+	 * erhalten dann dieselbe String-Instanz, was bei häufig wiederholten Werten Speicher spart. Der Interner schaltet
+	 * sich bei einer geringen Trefferquote selbst ab, Spalten mit vielen verschiedenen Werten sollten daher mit
+	 * <code>setInterner(header, null)</code> ausgenommen werden, siehe {@link CsvInterner}. Gilt für alle folgenden Aufrufe
+	 * von {@link #read()}, {@link #readAll()} und deren Varianten. Zeilen aus {@link #setLazyRows(boolean)} erzeugen ihre
+	 * Strings erst beim Zugriff und ohne Interner.
+	 * @param interner Interner oder <code>null</code>
+	 */
+	public void setInterner(final CsvInterner interner) {
+		_interner = interner;
+	}
 
-		while(true) {
-			for(int i = 0; i < chars.length; i++) {
-				final char c = chars[i];
-				if(inQuote) {
-					if(c == _csvQuote) {
-						// Doppelte Anführungszeichen innerhalb Anführungszeichen durch eins ersetzen
-						if((i + 1 < chars.length) && (chars[i + 1] == _csvQuote)) {
-							cell.append(_csvQuote);
-							++i;
-						}
-						else {
-							inQuote = false;
-						}
-					}
-					else {
-						cell.append(c);
-					}
-				}
-				else {
-					if(c == _csvQuote) {
-						inQuote = true;
-					}
-					else if(c == _csvSeparator) {
-						cells.add(cell.toString());
-						cell.setLength(0);
-					}
-					else {
-						cell.append(c);
-					}
-				}
+	/**
+	 * Legt den Interner für eine einzelne Spalte fest, siehe {@link #setInterner(CsvInterner)}. Derselbe Interner kann
+	 * für mehrere Spalten mit gleichartigen Werten verwendet werden.
+	 * @param header Spaltenüberschrift
+	 * @param interner Interner oder <code>null</code>, um die Spalte nicht zu internieren
+	 */
+	public void setInterner(final String header, final CsvInterner interner) {
+		_columnInterners.put(header, interner);
+	}
+
+	/**
+	 * Überträgt die mit {@link #selectColumns(String...)} bzw. {@link #selectColumns(int...)} gewählten Spalten an den
+	 * Tokenizer und ordnet den Spalten des Filters ihren Spaltenindex zu
+	 * @param headerCells Spaltenkopf
+	 * @throws CsvParseException Falls eine ausgewählte oder gefilterte Spalte nicht im Spaltenkopf enthalten ist
+	 */
+	private void prepareRead(final String[] headerCells) throws CsvParseException {
+		prepareRead(headerCells, null);
+	}
+
+	/**
+	 * Wie {@link #prepareRead(String[])}, die benötigten Spalten werden aber vom Aufrufer vorgegeben und ersetzen die
+	 * Auswahl von {@link #selectColumns(String...)}
+	 * @param headerCells Spaltenkopf
+	 * @param requiredColumns Indizes der benötigten Spalten oder <code>null</code> für die gewählten Spalten
+	 * @throws CsvParseException Falls eine ausgewählte oder gefilterte Spalte nicht im Spaltenkopf enthalten ist
+	 */
+	private void prepareRead(final String[] headerCells, final int[] requiredColumns) throws CsvParseException {
+		_headerRead = true;
+		_headerCells = headerCells;
+		_resumeHeader = false;
+		_checkpointPosition = -1;
+		final HashMap<String, Integer> columnNameToIndexMap = createColumnNameToIndexMap(headerCells);
+		final List<Integer> filterColumns = new ArrayList<Integer>();
+		if(_rowFilter == null) {
+			_boundRowFilter = null;
+		}
+		else {
+			try {
+				_boundRowFilter = _rowFilter.bind(columnNameToIndexMap);
 			}
-			if(inQuote){
-				// Mehrzeiliger Text, weitere Zeile einlesen
-				String tmp = reader.readLine();
-				if(tmp == null) {
-					throw new CsvParseException("Unerwartetes Dateiende", _lineNum, cells.size() - 1);
+			catch(CsvParseException e) {
+				throw new CsvParseException(e.getMessage(), _lineNum);
+			}
+			_boundRowFilter.collectColumns(filterColumns);
+		}
+		bindInterners(columnNameToIndexMap);
+		int[] indexes = _selectedColumnIndexes;
+		if(_selectedColumnNames != null) {
+			indexes = new int[_selectedColumnNames.length];
+			for(int i = 0; i < indexes.length; i++) {
+				final Integer index = columnNameToIndexMap.get(_selectedColumnNames[i]);
+				if(index == null) {
+					throw new CsvParseException("Spalte \"" + _selectedColumnNames[i] + "\" nicht gefunden", _lineNum);
 				}
-				chars = tmp.toCharArray();
-				cell.append('\n');
+				indexes[i] = index;
 			}
-			else {
-				break;
+		}
+		if(requiredColumns != null) {
+			indexes = requiredColumns;
+		}
+		if(indexes == null) {
+			_tokenizer.setSelectedCells(null);
+			return;
+		}
+		int numCells = 0;
+		for(final int index : indexes) {
+			numCells = Math.max(numCells, index + 1);
+		}
+		for(final int index : filterColumns) {
+			numCells = Math.max(numCells, index + 1);
+		}
+		final boolean[] selection = new boolean[numCells];
+		for(final int index : indexes) {
+			selection[index] = true;
+		}
+		for(final int index : filterColumns) {
+			selection[index] = true;
+		}
+		_tokenizer.setSelectedCells(selection);
+	}
+
+	/**
+	 * Überträgt die mit {@link #setInterner(CsvInterner)} und {@link #setInterner(String, CsvInterner)} festgelegten
+	 * Interner an den Tokenizer
+	 * @param columnNameToIndexMap Spaltenindizes
+	 * @throws CsvParseException Falls eine Spalte nicht im Spaltenkopf enthalten ist
+	 */
+	private void bindInterners(final Map<String, Integer> columnNameToIndexMap) throws CsvParseException {
+		if(_columnInterners.isEmpty()) {
+			_tokenizer.setInterners(_interner, null);
+			return;
+		}
+		int numCells = 0;
+		for(final String header : _columnInterners.keySet()) {
+			final Integer index = columnNameToIndexMap.get(header);
+			if(index == null) {
+				throw new CsvParseException("Spalte \"" + header + "\" nicht gefunden", _lineNum);
 			}
+			numCells = Math.max(numCells, index + 1);
 		}
+		final CsvInterner[] cellInterners = new CsvInterner[numCells];
+		for(int i = 0; i < numCells; i++) {
+			cellInterners[i] = _interner;
+		}
+		for(final Map.Entry<String, CsvInterner> entry : _columnInterners.entrySet()) {
+			cellInterners[columnNameToIndexMap.get(entry.getKey())] = entry.getValue();
+		}
+		_tokenizer.setInterners(_interner, cellInterners);
+	}
 
-		cells.add(cell.toString());
+	/**
+	 * Schließt die Datenquelle
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 */
+	@Override
+	public void close() throws IOException {
+		if(_pipeline != null) {
+			// Der lesende Thread darf den Tokenizer nicht mehr verwenden, wenn dieser geschlossen wird
+			_pipeline.cancelAndJoin();
+		}
+		_tokenizer.close();
+	}
+
+	/**
+	 * Zerlegt die aktuelle Zeile des Tokenizers in ein String-Array mit den einzelnen Einträgen. Weitere Zeilen werden
+	 * gelesen, falls eine Zelle einen Zeilenumbruch enthält.
+	 *
+	 * @return String-Array oder <code>null</code>, falls die Zeile ignoriert wird oder den Filter nicht erfüllt
+	 * @throws IOException IO-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 */
+	String[] splitLineToCells() throws IOException {
+		return tokenizeLine() ? _tokenizer.getRecord().toStringArray() : null;
+	}
+
+	/**
+	 * Liest den nächsten Datensatz, der nicht ignoriert wird und den Filter erfüllt
+	 * @return Datensatz, nur bis zum nächsten Aufruf gültig, oder <code>null</code> am Ende der Daten
+	 * @throws IOException IO-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 */
+	CsvRecord nextRecord() throws IOException {
+		while(_tokenizer.nextLine()) {
+			_lineNum++;
+			if(tokenizeLine()) return _tokenizer.getRecord();
+		}
+		return null;
+	}
+
+	/**
+	 * Gibt die Nummer der zuletzt gelesenen Zeile zurück
+	 * @return Zeilennummer
+	 */
+	int getLineNum() {
+		return _lineNum;
+	}
+
+	/**
+	 * Liest den nächsten Datensatz für {@link #read()}, der nicht ignoriert wird und den Filter erfüllt. Wird vom Iterator
+	 * und vom sequentiellen Spliterator verwendet, damit beide die Zeilen gleich zählen: Die Zeilennummer wird einmal je
+	 * Aufruf erhöht, ignorierte Zeilen und Folgezeilen mehrzeiliger Zellen werden nicht mitgezählt.
+	 * @return <code>false</code> am Ende der Daten
+	 * @throws IOException IO-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 */
+	private boolean readNextRow() throws IOException {
+		_lineNum++;
+		while(_tokenizer.nextLine()) {
+			if(tokenizeLine()) return true;
+		}
+		return false;
+	}
 
+	/**
+	 * Zerlegt die aktuelle Zeile des Tokenizers in Zellen, die danach in {@link CsvTokenizer#getRecord()} stehen.
+	 *
+	 * @return <code>false</code>, falls die Zeile ignoriert wird oder den Filter nicht erfüllt
+	 * @throws IOException IO-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 */
+	private boolean tokenizeLine() throws IOException {
+		if(!_tokenizer.tokenizeLine(_lineNum)) return false;
 		if(_lastCellCount < 0) {
-			_lastCellCount = cells.size();
+			_lastCellCount = _tokenizer.getRecord().getCellCount();
 		}
-		return cells.toArray(new String[cells.size()]);
+		return _boundRowFilter == null || _boundRowFilter.accept(_tokenizer.getRecord());
 	}
 
 
 	private class CsvIterableData extends IterableCsvData {
 
+		/**
+		 * Zeilen ohne Strings erzeugen
+		 */
+		private final boolean _lazy;
 
 		public CsvIterableData(final String[] headerCells, final HashMap<String, Integer> columnNameToIndexMap) {
 			super(headerCells, columnNameToIndexMap);
+			_lazy = _lazyRows;
 		}
 
 		@Override
@@ -364,9 +1125,62 @@ public class CsvReader {
 			return new CsvRowIterator();
 		}
 
+		/**
+		 * Gibt einen Spliterator über die Datensätze zurück. Dateien, die auf Byte-Ebene zerlegt werden, werden für
+		 * parallele Streams in Byte-Bereiche aufgeteilt, falls höchstens leere Zeilen ignoriert werden. Andere
+		 * Datenquellen werden sequentiell gelesen und blockweise aufgeteilt. Wie der Iterator kann auch der Spliterator
+		 * nur einmal verwendet werden.
+		 * @return Spliterator
+		 */
+		@Override
+		public Spliterator<CsvRow> spliterator() {
+			if(_tokenizer instanceof MappedCsvTokenizer && _tokenizer._lineSkipPolicy.skipsOnlyEmptyLines()) {
+				try {
+					return new CsvFileSpliterator(this, (MappedCsvTokenizer) _tokenizer, _lineNum, _boundRowFilter, _lazy);
+				}
+				catch(IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+			return new CsvRowSpliterator();
+		}
+
+
+		/**
+		 * Sequentieller Spliterator, Fehler werden als {@link UncheckedIOException} ausgelöst
+		 */
+		private class CsvRowSpliterator extends Spliterators.AbstractSpliterator<CsvRow> {
+
+			public CsvRowSpliterator() {
+				super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			}
+
+			@Override
+			public boolean tryAdvance(final Consumer<? super CsvRow> action) {
+				try {
+					if(!readNextRow()) return false;
+					// Zeilennummer wie beim Iterator, der zum Zeitpunkt der Rückgabe bereits den nächsten Datensatz liest
+					final int row = _lineNum + 1;
+					final CsvRecord record = _tokenizer.getRecord();
+					if(_lazy) {
+						action.accept(new CsvRow(row, record.copyChars(), record.copyCellBounds()));
+					}
+					else {
+						action.accept(new CsvRow(row, record.toStringArray()));
+					}
+					return true;
+				}
+				catch(IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
 
 		private class CsvRowIterator implements Iterator<IterableCsvData.CsvRow> {
+			private boolean hasLine;
 			private String[] line;
+			private char[] lineChars;
+			private int[] lineBounds;
 			private IOException exception;
 
 			public CsvRowIterator() {
@@ -375,37 +1189,41 @@ public class CsvReader {
 
 			@Override
 			public boolean hasNext() {
-				return line != null;
+				return hasLine;
 			}
 
 			@Override
 			public IterableCsvData.CsvRow next() {
-				if(line == null) throw new NoSuchElementException();
+				if(!hasLine) throw new NoSuchElementException();
 				if(exception != null){
 					return new CsvRow(_lineNum, exception);
 				}
 				String[] tmp = line;
+				char[] tmpChars = lineChars;
+				int[] tmpBounds = lineBounds;
 				readNextLine();
+				if(_lazy) {
+					return new IterableCsvData.CsvRow(_lineNum, tmpChars, tmpBounds);
+				}
 				return new IterableCsvData.CsvRow(_lineNum, tmp);
 			}
 
 			private void readNextLine()  {
 				try {
-					_lineNum++;
-					String s = _reader.readLine();
-					if(s == null){
-						line = null;
+					if(_tokenizer instanceof MappedCsvTokenizer) {
+						// Der Tokenizer liest einen Datensatz voraus, ein Checkpoint muss vor diesem Datensatz liegen
+						_checkpointPosition = ((MappedCsvTokenizer) _tokenizer).getLinePosition();
+						_checkpointLineNum = _lineNum;
+					}
+					hasLine = readNextRow();
+					if(!hasLine) return;
+					final CsvRecord record = _tokenizer.getRecord();
+					if(_lazy) {
+						lineChars = record.copyChars();
+						lineBounds = record.copyCellBounds();
 					}
 					else {
-						line = splitLineToCells(s, _reader);
-						while(line == null){
-							s = _reader.readLine();
-							if(s == null){
-								line = null;
-								return;
-							}
-							line = splitLineToCells(s, _reader);
-						}
+						line = record.toStringArray();
 					}
 				}
 				catch(IOException e) {
@@ -419,4 +1237,242 @@ public class CsvReader {
 			}
 		}
 	}
+
+	/**
+	 * Block von Datensätzen, die zwischen dem lesenden Thread und den verarbeitenden Threads übergeben werden
+	 */
+	private static final class RowBatch {
+		private final IterableCsvData.CsvRow[] _rows;
+		private int _size;
+
+		/**
+		 * Fehler nach dem letzten Datensatz des Blocks oder <code>null</code>
+		 */
+		private IOException _exception;
+
+		/**
+		 * Zeilennummer des Fehlers
+		 */
+		private int _exceptionLine;
+
+		/**
+		 * Letzter Block
+		 */
+		private boolean _last;
+
+		/**
+		 * Anzahl der vom lesenden Thread bis zum Ende des Blocks gezählten Zeilen
+		 */
+		private int _lineNum;
+
+		private RowBatch(final int capacity) {
+			_rows = new IterableCsvData.CsvRow[capacity];
+		}
+	}
+
+	private class PipelinedCsvData extends IterableCsvData implements Runnable {
+
+		/**
+		 * Zeilen ohne Strings erzeugen
+		 */
+		private final boolean _lazy;
+
+		private final int _batchSize;
+
+		private final BlockingQueue<RowBatch> _queue;
+
+		private final Thread _thread;
+
+		/**
+		 * Zeilennummer vor dem ersten Datensatz, der lesende Thread zählt ab hier lokal weiter
+		 */
+		private final int _startLineNum;
+
+		private volatile boolean _cancelled;
+
+		/**
+		 * Aktueller Block des Verbrauchers
+		 */
+		private RowBatch _batch;
+
+		/**
+		 * Nächster Datensatz in {@link #_batch}
+		 */
+		private int _index;
+
+		PipelinedCsvData(final String[] headerCells, final HashMap<String, Integer> columnNameToIndexMap, final int batchSize, final int queueCapacity) {
+			super(headerCells, columnNameToIndexMap);
+			_lazy = _lazyRows;
+			_batchSize = batchSize;
+			_queue = new ArrayBlockingQueue<RowBatch>(queueCapacity);
+			_thread = new Thread(this, "CsvReader-Pipeline");
+			_thread.setDaemon(true);
+			_startLineNum = _lineNum;
+		}
+
+		void start() {
+			_thread.start();
+		}
+
+		void cancel() {
+			_cancelled = true;
+			_thread.interrupt();
+		}
+
+		/**
+		 * Bricht das Einlesen ab und wartet, bis der lesende Thread beendet ist
+		 */
+		void cancelAndJoin() {
+			cancel();
+			boolean interrupted = false;
+			while(true) {
+				try {
+					_thread.join();
+					break;
+				}
+				catch(InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if(interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public void run() {
+			// Die Zeilen werden nur lokal gezählt und mit jedem Block übergeben, der Reader selbst wird nur vom
+			// verarbeitenden Thread verändert
+			int lineNum = _startLineNum;
+			RowBatch batch = new RowBatch(_batchSize);
+			try {
+				while(!_cancelled && _tokenizer.nextLine()) {
+					lineNum++;
+					if(!_tokenizer.tokenizeLine(lineNum)) continue;
+					final CsvRecord record = _tokenizer.getRecord();
+					if(_boundRowFilter != null && !_boundRowFilter.accept(record)) continue;
+					if(_lazy) {
+						batch._rows[batch._size++] = new CsvRow(lineNum, record.copyChars(), record.copyCellBounds());
+					}
+					else {
+						batch._rows[batch._size++] = new CsvRow(lineNum, record.toStringArray());
+					}
+					if(batch._size == _batchSize) {
+						batch._lineNum = lineNum;
+						_queue.put(batch);
+						batch = new RowBatch(_batchSize);
+					}
+				}
+			}
+			catch(InterruptedException e) {
+				return;
+			}
+			catch(IOException e) {
+				batch._exception = e;
+				batch._exceptionLine = lineNum;
+			}
+			catch(RuntimeException e) {
+				// z.B. aus einem Prädikat von CsvRowFilter.matches
+				batch._exception = new CsvParseException(e, lineNum);
+				batch._exceptionLine = lineNum;
+			}
+			if(_cancelled) return;
+			batch._lineNum = lineNum;
+			batch._last = true;
+			try {
+				_queue.put(batch);
+			}
+			catch(InterruptedException ignored) {
+				// Abgebrochen
+			}
+		}
+
+		/**
+		 * Stellt sicher, dass {@link #_batch} einen weiteren Datensatz oder einen Fehler enthält
+		 * @return <code>false</code>, falls alle Datensätze gelesen wurden
+		 */
+		private boolean fetch() {
+			while(true) {
+				if(_batch != null) {
+					if(_index < _batch._size || _batch._exception != null) return true;
+					if(_batch._last) return false;
+				}
+				try {
+					_batch = _queue.take();
+					_lineNum = _batch._lineNum;
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					cancel();
+					_batch = new RowBatch(0);
+					_batch._exception = new InterruptedIOException("Einlesen unterbrochen");
+					_batch._exceptionLine = _lineNum;
+					_batch._last = true;
+				}
+				_index = 0;
+			}
+		}
+
+		@Override
+		public Iterator<CsvRow> iterator() {
+			return new Iterator<CsvRow>() {
+				@Override
+				public boolean hasNext() {
+					return fetch();
+				}
+
+				@Override
+				public CsvRow next() {
+					if(!fetch()) throw new NoSuchElementException();
+					if(_index < _batch._size) {
+						return _batch._rows[_index++];
+					}
+					final CsvRow row = new CsvRow(_batch._exceptionLine, _batch._exception);
+					_batch._exception = null;
+					return row;
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public Spliterator<CsvRow> spliterator() {
+			return new Spliterator<CsvRow>() {
+				@Override
+				public boolean tryAdvance(final Consumer<? super CsvRow> action) {
+					if(!fetch()) return false;
+					if(_index < _batch._size) {
+						action.accept(_batch._rows[_index++]);
+						return true;
+					}
+					final IOException exception = _batch._exception;
+					_batch._exception = null;
+					throw new UncheckedIOException(exception);
+				}
+
+				@Override
+				public Spliterator<CsvRow> trySplit() {
+					if(!fetch() || _index == _batch._size) return null;
+					// Die restlichen Datensätze des aktuellen Blocks abgeben, ein Fehler bleibt bei diesem Spliterator
+					final Spliterator<CsvRow> prefix = Spliterators.spliterator(_batch._rows, _index, _batch._size, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+					_index = _batch._size;
+					return prefix;
+				}
+
+				@Override
+				public long estimateSize() {
+					return Long.MAX_VALUE;
+				}
+
+				@Override
+				public int characteristics() {
+					return Spliterator.ORDERED | Spliterator.NONNULL;
+				}
+			};
+		}
+	}
 }
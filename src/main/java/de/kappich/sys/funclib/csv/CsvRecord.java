@@ -0,0 +1,356 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.util.Arrays;
+
+/**
+ * Wiederverwendbarer Puffer für einen zerlegten CSV-Datensatz. Der Text aller Zellen wird ohne Maskierungszeichen
+ * hintereinander in einem char-Array abgelegt, zu jeder Zelle wird das Ende im Puffer gespeichert. Strings werden erst
+ * beim Abruf einer Zelle erzeugt.
+ * <p>
+ * Mit {@link #setSelection(boolean[])} kann festgelegt werden, dass nur bestimmte Zellen übernommen werden. Zeichen
+ * nicht ausgewählter Zellen werden verworfen, die Zellen bleiben leer.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class CsvRecord implements CharSequence {
+
+	/**
+	 * Zellinhalte ohne Maskierungszeichen
+	 */
+	private char[] _chars = new char[256];
+
+	/**
+	 * Anzahl belegter Zeichen in {@link #_chars}
+	 */
+	private int _length;
+
+	/**
+	 * Endposition jeder abgeschlossenen Zelle in {@link #_chars}
+	 */
+	private int[] _cellEnds = new int[16];
+
+	/**
+	 * Anzahl abgeschlossener Zellen
+	 */
+	private int _cellCount;
+
+	/**
+	 * Ausgewählte Zellen oder <code>null</code>, falls alle Zellen übernommen werden
+	 */
+	private boolean[] _selection;
+
+	/**
+	 * Die aktuelle Zelle ist nicht ausgewählt, angehängte Zeichen werden verworfen
+	 */
+	private boolean _skipCell;
+
+	/**
+	 * Interner für alle Zellen ohne eigenen Interner oder <code>null</code>
+	 */
+	private CsvInterner _defaultInterner;
+
+	/**
+	 * Interner je Zellindex oder <code>null</code>
+	 */
+	private CsvInterner[] _cellInterners;
+
+	/**
+	 * Legt fest, welche Zellen übernommen werden. Zellen, deren Index außerhalb des Arrays liegt, werden nicht
+	 * übernommen.
+	 * @param selection Ausgewählte Zellen oder <code>null</code> für alle Zellen
+	 */
+	void setSelection(final boolean[] selection) {
+		_selection = selection;
+		_skipCell = isSkipped(_cellCount);
+	}
+
+	/**
+	 * Gibt die ausgewählten Zellen zurück
+	 * @return Ausgewählte Zellen oder <code>null</code>, falls alle Zellen übernommen werden
+	 */
+	boolean[] getSelection() {
+		return _selection;
+	}
+
+	/**
+	 * Legt fest, über welche Interner die Strings der Zellen erzeugt werden
+	 * @param defaultInterner Interner für alle Zellen ohne eigenen Interner oder <code>null</code>
+	 * @param cellInterners Interner je Zellindex (ersetzen den Standard-Interner, auch wenn sie <code>null</code> sind) oder
+	 * <code>null</code>
+	 */
+	void setInterners(final CsvInterner defaultInterner, final CsvInterner[] cellInterners) {
+		_defaultInterner = defaultInterner;
+		_cellInterners = cellInterners;
+	}
+
+	/**
+	 * Gibt den Interner für alle Zellen ohne eigenen Interner zurück
+	 * @return Interner oder <code>null</code>
+	 */
+	CsvInterner getDefaultInterner() {
+		return _defaultInterner;
+	}
+
+	/**
+	 * Gibt die Interner je Zellindex zurück
+	 * @return Interner oder <code>null</code>
+	 */
+	CsvInterner[] getCellInterners() {
+		return _cellInterners;
+	}
+
+	private boolean isSkipped(final int cellIndex) {
+		return _selection != null && (cellIndex >= _selection.length || !_selection[cellIndex]);
+	}
+
+	/**
+	 * Leert den Datensatz für die nächste Zeile
+	 */
+	void clear() {
+		_length = 0;
+		_cellCount = 0;
+		_skipCell = isSkipped(0);
+	}
+
+	/**
+	 * Hängt ein Zeichen an die aktuelle Zelle an
+	 * @param c Zeichen
+	 */
+	void append(final char c) {
+		if(_skipCell) return;
+		if(_length == _chars.length) {
+			_chars = Arrays.copyOf(_chars, _chars.length * 2);
+		}
+		_chars[_length++] = c;
+	}
+
+	/**
+	 * Hängt einen Bereich eines char-Arrays an die aktuelle Zelle an
+	 * @param src Quelle
+	 * @param offset Startposition in der Quelle
+	 * @param count Anzahl Zeichen
+	 */
+	void append(final char[] src, final int offset, final int count) {
+		if(count <= 0 || _skipCell) return;
+		ensureCapacity(_length + count);
+		System.arraycopy(src, offset, _chars, _length, count);
+		_length += count;
+	}
+
+	/**
+	 * Hängt Bytes als ISO-8859-1-Zeichen an die aktuelle Zelle an
+	 * @param src Quelle
+	 * @param from Startposition in der Quelle
+	 * @param to Endposition (exklusiv) in der Quelle
+	 */
+	void appendLatin1(final ByteBuffer src, final int from, final int to) {
+		if(_skipCell) return;
+		ensureCapacity(_length + to - from);
+		final char[] chars = _chars;
+		int length = _length;
+		for(int i = from; i < to; i++) {
+			chars[length++] = (char) (src.get(i) & 0xFF);
+		}
+		_length = length;
+	}
+
+	/**
+	 * Hängt Bytes als ASCII-Zeichen an die aktuelle Zelle an, bis das erste Byte außerhalb des ASCII-Bereichs gefunden wird
+	 * @param src Quelle
+	 * @param from Startposition in der Quelle
+	 * @param to Endposition (exklusiv) in der Quelle
+	 * @return Position des ersten nicht übernommenen Bytes, <code>to</code> falls alle Bytes übernommen (oder bei einer
+	 * nicht ausgewählten Zelle verworfen) wurden
+	 */
+	int appendAscii(final ByteBuffer src, final int from, final int to) {
+		if(_skipCell) return to;
+		ensureCapacity(_length + to - from);
+		final char[] chars = _chars;
+		int length = _length;
+		int i = from;
+		for(; i < to; i++) {
+			final byte b = src.get(i);
+			if(b < 0) break;
+			chars[length++] = (char) b;
+		}
+		_length = length;
+		return i;
+	}
+
+	/**
+	 * Dekodiert die verbleibenden Bytes eines Puffers und hängt sie an die aktuelle Zelle an
+	 * @param decoder Dekodierer
+	 * @param src Quelle, wird bis zum Limit gelesen
+	 */
+	void appendDecoded(final CharsetDecoder decoder, final ByteBuffer src) {
+		if(_skipCell) {
+			src.position(src.limit());
+			return;
+		}
+		ensureCapacity(_length + (int) Math.ceil(src.remaining() * (double) decoder.maxCharsPerByte()));
+		final CharBuffer out = CharBuffer.wrap(_chars, _length, _chars.length - _length);
+		decoder.reset();
+		decoder.decode(src, out, true);
+		decoder.flush(out);
+		_length = out.position();
+	}
+
+	/**
+	 * Stellt sicher, dass der Puffer mindestens die angegebene Anzahl Zeichen aufnehmen kann
+	 * @param capacity Mindestgröße
+	 */
+	void ensureCapacity(final int capacity) {
+		if(capacity > _chars.length) {
+			_chars = Arrays.copyOf(_chars, Math.max(capacity, _chars.length * 2));
+		}
+	}
+
+	/**
+	 * Schließt die aktuelle Zelle ab
+	 */
+	void endCell() {
+		if(_cellCount == _cellEnds.length) {
+			_cellEnds = Arrays.copyOf(_cellEnds, _cellEnds.length * 2);
+		}
+		_cellEnds[_cellCount++] = _length;
+		_skipCell = isSkipped(_cellCount);
+	}
+
+	/**
+	 * Gibt die Anzahl abgeschlossener Zellen zurück
+	 * @return Anzahl Zellen
+	 */
+	int getCellCount() {
+		return _cellCount;
+	}
+
+	/**
+	 * Gibt die Startposition einer Zelle innerhalb dieses Datensatzes zurück
+	 * @param cellIndex Zellindex
+	 * @return Startposition
+	 */
+	int getCellStart(final int cellIndex) {
+		return cellIndex == 0 ? 0 : _cellEnds[cellIndex - 1];
+	}
+
+	/**
+	 * Gibt die Endposition (exklusiv) einer Zelle innerhalb dieses Datensatzes zurück
+	 * @param cellIndex Zellindex
+	 * @return Endposition
+	 */
+	int getCellEnd(final int cellIndex) {
+		return _cellEnds[cellIndex];
+	}
+
+	/**
+	 * Erzeugt den String einer Zelle
+	 * @param cellIndex Zellindex
+	 * @return Zellinhalt
+	 */
+	String getCell(final int cellIndex) {
+		final int start = getCellStart(cellIndex);
+		final int end = _cellEnds[cellIndex];
+		return createString(cellIndex, start, end);
+	}
+
+	/**
+	 * Erzeugt ein String-Array mit allen Zellen
+	 * @return Zellinhalte
+	 */
+	String[] toStringArray() {
+		final String[] result = new String[_cellCount];
+		int start = 0;
+		for(int i = 0; i < _cellCount; i++) {
+			final int end = _cellEnds[i];
+			result[i] = createString(i, start, end);
+			start = end;
+		}
+		return result;
+	}
+
+	private String createString(final int cellIndex, final int start, final int end) {
+		if(start == end) return "";
+		final CsvInterner interner = _cellInterners != null && cellIndex < _cellInterners.length ? _cellInterners[cellIndex] : _defaultInterner;
+		if(interner != null) return interner.intern(_chars, start, end - start);
+		return new String(_chars, start, end - start);
+	}
+
+	/**
+	 * Kopiert die Zellinhalte aller Zellen
+	 * @return Zeichen, die Zellgrenzen liefert {@link #copyCellBounds()}
+	 */
+	char[] copyChars() {
+		return Arrays.copyOf(_chars, _length);
+	}
+
+	/**
+	 * Kopiert die Zellinhalte aller Zellen in ein vorhandenes Array
+	 * @param dest Ziel
+	 * @param destPos Startposition in <code>dest</code>
+	 */
+	void copyChars(final char[] dest, final int destPos) {
+		System.arraycopy(_chars, 0, dest, destPos, _length);
+	}
+
+	/**
+	 * Kopiert die Zellgrenzen
+	 * @return Startposition jeder Zelle, gefolgt vom Ende der letzten Zelle
+	 */
+	int[] copyCellBounds() {
+		final int[] bounds = new int[_cellCount + 1];
+		System.arraycopy(_cellEnds, 0, bounds, 1, _cellCount);
+		return bounds;
+	}
+
+	@Override
+	public int length() {
+		return _length;
+	}
+
+	@Override
+	public char charAt(final int index) {
+		if(index >= _length) throw new IndexOutOfBoundsException(String.valueOf(index));
+		return _chars[index];
+	}
+
+	@Override
+	public CharSequence subSequence(final int start, final int end) {
+		if(start < 0 || end > _length || start > end) throw new IndexOutOfBoundsException(start + ", " + end);
+		return new String(_chars, start, end - start);
+	}
+
+	@Override
+	public String toString() {
+		return new String(_chars, 0, _length);
+	}
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.util.Arrays;
+
+/**
+ * Block von Datensätzen, deren Werte spaltenweise in primitiven Arrays gespeichert sind. Ein Block wird von
+ * {@link CsvBlockReader} für jeden weiteren Block wiederverwendet, die Arrays behalten also ihre Identität und Größe
+ * ({@link #getCapacity()}). Gültig sind jeweils nur die ersten {@link #getSize()} Einträge.
+ * <p>
+ * Da die Werte einer Spalte hintereinander im Speicher liegen, können sie in einfachen Schleifen verarbeitet werden,
+ * die der JIT-Compiler gut optimieren kann:
+ * <pre>
+ * final double[] values = block.getDoubles(column);
+ * for(int i = 0; i &lt; block.getSize(); i++) {
+ *     sum += values[i];
+ * }
+ * </pre>
+ * Leere Zellen enthalten in numerischen Spalten 0 und in String-Spalten <code>null</code>, siehe
+ * {@link #isNull(int, int)}.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public final class CsvRowBlock {
+
+	/**
+	 * Datentyp jeder Spalte, <code>null</code> für nicht eingelesene Spalten
+	 */
+	private final CsvColumnType[] _types;
+
+	/**
+	 * Werte jeder Spalte (<code>int[]</code>, <code>long[]</code>, <code>double[]</code> oder <code>String[]</code>)
+	 */
+	private final Object[] _vectors;
+
+	/**
+	 * Bitmaske der leeren Zellen jeder Spalte
+	 */
+	private final long[][] _nulls;
+
+	/**
+	 * Eingelesene Spalten
+	 */
+	private final int[] _columns;
+
+	private final int _capacity;
+
+	private int _size;
+
+	/**
+	 * Zeilennummer des ersten Datensatzes
+	 */
+	private int _firstLineNum;
+
+	/**
+	 * Konstruktor
+	 * @param capacity Anzahl Datensätze je Block
+	 * @param types Datentyp jeder Spalte, <code>null</code> für nicht eingelesene Spalten
+	 */
+	CsvRowBlock(final int capacity, final CsvColumnType[] types) {
+		_capacity = capacity;
+		_types = types;
+		_vectors = new Object[types.length];
+		_nulls = new long[types.length][];
+		int numColumns = 0;
+		for(int i = 0; i < types.length; i++) {
+			if(types[i] == null) continue;
+			numColumns++;
+			_nulls[i] = new long[(capacity + 63) >>> 6];
+			switch(types[i]) {
+				case INT:
+					_vectors[i] = new int[capacity];
+					break;
+				case LONG:
+					_vectors[i] = new long[capacity];
+					break;
+				case DOUBLE:
+					_vectors[i] = new double[capacity];
+					break;
+				default:
+					_vectors[i] = new String[capacity];
+					break;
+			}
+		}
+		_columns = new int[numColumns];
+		numColumns = 0;
+		for(int i = 0; i < types.length; i++) {
+			if(types[i] != null) _columns[numColumns++] = i;
+		}
+	}
+
+	/**
+	 * Leert den Block für die nächsten Datensätze
+	 */
+	void clear() {
+		for(final int column : _columns) {
+			Arrays.fill(_nulls[column], 0L);
+		}
+		_size = 0;
+	}
+
+	/**
+	 * Prüft, ob der Block voll ist
+	 * @return true, falls keine weiteren Datensätze hinzugefügt werden können
+	 */
+	boolean isFull() {
+		return _size == _capacity;
+	}
+
+	/**
+	 * Fügt einen Datensatz hinzu. Fehlende Zellen werden als leer gewertet.
+	 * @param record Datensatz
+	 * @param lineNum Zeilennummer für Fehlermeldungen
+	 * @throws CsvParseException Falls eine Zelle nicht in den Typ der Spalte umgewandelt werden kann
+	 */
+	void addRecord(final CsvRecord record, final int lineNum) throws CsvParseException {
+		final int row = _size;
+		if(row == 0) _firstLineNum = lineNum;
+		final int cellCount = record.getCellCount();
+		for(final int column : _columns) {
+			final Object vector = _vectors[column];
+			if(column >= cellCount || record.getCellStart(column) == record.getCellEnd(column)) {
+				_nulls[column][row >>> 6] |= 1L << row;
+				if(vector instanceof int[]) ((int[]) vector)[row] = 0;
+				else if(vector instanceof long[]) ((long[]) vector)[row] = 0;
+				else if(vector instanceof double[]) ((double[]) vector)[row] = 0;
+				else ((String[]) vector)[row] = null;
+				continue;
+			}
+			final int start = record.getCellStart(column);
+			final int end = record.getCellEnd(column);
+			try {
+				if(vector instanceof int[]) ((int[]) vector)[row] = CsvNumbers.parseInt(record, start, end);
+				else if(vector instanceof long[]) ((long[]) vector)[row] = CsvNumbers.parseLong(record, start, end);
+				else if(vector instanceof double[]) ((double[]) vector)[row] = CsvNumbers.parseDouble(record, start, end);
+				else ((String[]) vector)[row] = record.getCell(column);
+			}
+			catch(IllegalArgumentException e) {
+				throw new CsvParseException(e, lineNum, column);
+			}
+		}
+		_size++;
+	}
+
+	/**
+	 * Gibt die Anzahl der Datensätze in diesem Block zurück
+	 * @return Anzahl Datensätze
+	 */
+	public int getSize() {
+		return _size;
+	}
+
+	/**
+	 * Gibt die maximale Anzahl Datensätze eines Blocks zurück, das ist auch die Länge der Arrays
+	 * @return Anzahl Datensätze
+	 */
+	public int getCapacity() {
+		return _capacity;
+	}
+
+	/**
+	 * Gibt die Zeilennummer des ersten Datensatzes dieses Blocks zurück
+	 * @return Zeilennummer
+	 */
+	public int getFirstLineNum() {
+		return _firstLineNum;
+	}
+
+	/**
+	 * Gibt den Datentyp einer Spalte zurück
+	 * @param columnIndex Spaltenindex
+	 * @return Datentyp oder <code>null</code>, falls die Spalte nicht eingelesen wird
+	 */
+	public CsvColumnType getColumnType(final int columnIndex) {
+		return columnIndex < _types.length ? _types[columnIndex] : null;
+	}
+
+	/**
+	 * Prüft, ob eine Zelle leer ist
+	 * @param rowIndex Index des Datensatzes im Block
+	 * @param columnIndex Spaltenindex
+	 * @return true, falls die Zelle leer ist
+	 */
+	public boolean isNull(final int rowIndex, final int columnIndex) {
+		checkRow(rowIndex);
+		return (getNullMask(columnIndex)[rowIndex >>> 6] & (1L << rowIndex)) != 0;
+	}
+
+	/**
+	 * Gibt die Bitmaske der leeren Zellen einer Spalte zurück. Bit <code>i % 64</code> von Eintrag <code>i / 64</code>
+	 * ist für leere Zellen gesetzt.
+	 * @param columnIndex Spaltenindex
+	 * @return Bitmaske, wird wiederverwendet
+	 */
+	public long[] getNullMask(final int columnIndex) {
+		vector(columnIndex);
+		return _nulls[columnIndex];
+	}
+
+	/**
+	 * Gibt die Werte einer {@link CsvColumnType#INT}-Spalte zurück
+	 * @param columnIndex Spaltenindex
+	 * @return Werte, wird wiederverwendet
+	 * @throws IllegalStateException Falls die Spalte einen anderen Typ hat oder nicht eingelesen wird
+	 */
+	public int[] getInts(final int columnIndex) {
+		return (int[]) vector(columnIndex, CsvColumnType.INT);
+	}
+
+	/**
+	 * Gibt die Werte einer {@link CsvColumnType#LONG}-Spalte zurück
+	 * @param columnIndex Spaltenindex
+	 * @return Werte, wird wiederverwendet
+	 * @throws IllegalStateException Falls die Spalte einen anderen Typ hat oder nicht eingelesen wird
+	 */
+	public long[] getLongs(final int columnIndex) {
+		return (long[]) vector(columnIndex, CsvColumnType.LONG);
+	}
+
+	/**
+	 * Gibt die Werte einer {@link CsvColumnType#DOUBLE}-Spalte zurück
+	 * @param columnIndex Spaltenindex
+	 * @return Werte, wird wiederverwendet
+	 * @throws IllegalStateException Falls die Spalte einen anderen Typ hat oder nicht eingelesen wird
+	 */
+	public double[] getDoubles(final int columnIndex) {
+		return (double[]) vector(columnIndex, CsvColumnType.DOUBLE);
+	}
+
+	/**
+	 * Gibt die Werte einer {@link CsvColumnType#STRING}-Spalte zurück
+	 * @param columnIndex Spaltenindex
+	 * @return Werte, wird wiederverwendet
+	 * @throws IllegalStateException Falls die Spalte einen anderen Typ hat oder nicht eingelesen wird
+	 */
+	public String[] getStrings(final int columnIndex) {
+		return (String[]) vector(columnIndex, CsvColumnType.STRING);
+	}
+
+	private Object vector(final int columnIndex, final CsvColumnType expected) {
+		final Object vector = vector(columnIndex);
+		if(_types[columnIndex] != expected) {
+			throw new IllegalStateException("Spalte " + columnIndex + " hat den Typ " + _types[columnIndex] + ", erwartet: " + expected);
+		}
+		return vector;
+	}
+
+	private Object vector(final int columnIndex) {
+		if(getColumnType(columnIndex) == null) {
+			throw new IllegalStateException("Spalte " + columnIndex + " wird nicht eingelesen");
+		}
+		return _vectors[columnIndex];
+	}
+
+	private void checkRow(final int rowIndex) {
+		if(rowIndex < 0 || rowIndex >= _size) {
+			throw new IndexOutOfBoundsException("Zeile " + rowIndex + ", Anzahl Zeilen: " + _size);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "CsvRowBlock{" + "Zeilen=" + _size + ", Spalten=" + Arrays.toString(_types) + '}';
+	}
+}
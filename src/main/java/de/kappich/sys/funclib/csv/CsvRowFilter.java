@@ -0,0 +1,420 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.nio.CharBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Filter für Datensätze, der beim Einlesen ausgewertet wird (siehe {@link CsvReader#setRowFilter(CsvRowFilter)}). Der
+ * Filter prüft die Zellen direkt im Lesepuffer, bevor Strings für die Zellen erzeugt werden. Datensätze, die den Filter
+ * nicht erfüllen, werden wie ignorierte Zeilen übersprungen.
+ * <p>
+ * Filter werden über die statischen Methoden erzeugt und können mit {@link #and(CsvRowFilter...)},
+ * {@link #or(CsvRowFilter...)} und {@link #not(CsvRowFilter)} kombiniert werden. Spalten können über die
+ * Spaltenüberschrift oder den Spaltenindex angegeben werden. Fehlt eine Zelle in einem Datensatz, ist die Bedingung für
+ * diese Zelle nicht erfüllt.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public abstract class CsvRowFilter {
+
+	CsvRowFilter() {
+	}
+
+	/**
+	 * Erzeugt einen Filter für Datensätze, deren Zelle genau den angegebenen Text enthält
+	 * @param header Spaltenüberschrift
+	 * @param value Text
+	 * @return Filter
+	 */
+	public static CsvRowFilter equalTo(final String header, final String value) {
+		return new EqualTo(header, -1, value);
+	}
+
+	/**
+	 * Erzeugt einen Filter für Datensätze, deren Zelle genau den angegebenen Text enthält
+	 * @param columnIndex Spaltenindex
+	 * @param value Text
+	 * @return Filter
+	 * @throws IllegalArgumentException Falls der Spaltenindex negativ ist
+	 */
+	public static CsvRowFilter equalTo(final int columnIndex, final String value) {
+		return new EqualTo(null, checkColumnIndex(columnIndex), value);
+	}
+
+	/**
+	 * Erzeugt einen Filter für Datensätze, deren Zelle eine Ganzzahl im angegebenen Bereich enthält. Leere Zellen und
+	 * Zellen, die keine Ganzzahl enthalten, erfüllen die Bedingung nicht.
+	 * @param header Spaltenüberschrift
+	 * @param min Kleinster zulässiger Wert
+	 * @param max Größter zulässiger Wert
+	 * @return Filter
+	 */
+	public static CsvRowFilter longRange(final String header, final long min, final long max) {
+		return new LongRange(header, -1, min, max);
+	}
+
+	/**
+	 * Erzeugt einen Filter für Datensätze, deren Zelle eine Ganzzahl im angegebenen Bereich enthält. Leere Zellen und
+	 * Zellen, die keine Ganzzahl enthalten, erfüllen die Bedingung nicht.
+	 * @param columnIndex Spaltenindex
+	 * @param min Kleinster zulässiger Wert
+	 * @param max Größter zulässiger Wert
+	 * @return Filter
+	 * @throws IllegalArgumentException Falls der Spaltenindex negativ ist
+	 */
+	public static CsvRowFilter longRange(final int columnIndex, final long min, final long max) {
+		return new LongRange(null, checkColumnIndex(columnIndex), min, max);
+	}
+
+	/**
+	 * Erzeugt einen Filter für Datensätze, deren Zelle eine Zahl im angegebenen Bereich enthält. Als Komma kann '.' oder
+	 * ',' verwendet werden. Leere Zellen und Zellen, die keine Zahl enthalten, erfüllen die Bedingung nicht.
+	 * @param header Spaltenüberschrift
+	 * @param min Kleinster zulässiger Wert
+	 * @param max Größter zulässiger Wert
+	 * @return Filter
+	 */
+	public static CsvRowFilter doubleRange(final String header, final double min, final double max) {
+		return new DoubleRange(header, -1, min, max);
+	}
+
+	/**
+	 * Erzeugt einen Filter für Datensätze, deren Zelle eine Zahl im angegebenen Bereich enthält. Als Komma kann '.' oder
+	 * ',' verwendet werden. Leere Zellen und Zellen, die keine Zahl enthalten, erfüllen die Bedingung nicht.
+	 * @param columnIndex Spaltenindex
+	 * @param min Kleinster zulässiger Wert
+	 * @param max Größter zulässiger Wert
+	 * @return Filter
+	 * @throws IllegalArgumentException Falls der Spaltenindex negativ ist
+	 */
+	public static CsvRowFilter doubleRange(final int columnIndex, final double min, final double max) {
+		return new DoubleRange(null, checkColumnIndex(columnIndex), min, max);
+	}
+
+	/**
+	 * Erzeugt einen Filter mit einer benutzerdefinierten Bedingung für eine Zelle. Die übergebene Zeichenfolge ist nur
+	 * während des Aufrufs gültig. Beim parallelen Einlesen wird die Bedingung aus mehreren Threads aufgerufen.
+	 * @param header Spaltenüberschrift
+	 * @param predicate Bedingung
+	 * @return Filter
+	 */
+	public static CsvRowFilter matches(final String header, final Predicate<? super CharSequence> predicate) {
+		return new Matches(header, -1, predicate);
+	}
+
+	/**
+	 * Erzeugt einen Filter mit einer benutzerdefinierten Bedingung für eine Zelle. Die übergebene Zeichenfolge ist nur
+	 * während des Aufrufs gültig. Beim parallelen Einlesen wird die Bedingung aus mehreren Threads aufgerufen.
+	 * @param columnIndex Spaltenindex
+	 * @param predicate Bedingung
+	 * @return Filter
+	 * @throws IllegalArgumentException Falls der Spaltenindex negativ ist
+	 */
+	public static CsvRowFilter matches(final int columnIndex, final Predicate<? super CharSequence> predicate) {
+		return new Matches(null, checkColumnIndex(columnIndex), predicate);
+	}
+
+	/**
+	 * Erzeugt einen Filter, der erfüllt ist, wenn alle angegebenen Filter erfüllt sind
+	 * @param filters Filter
+	 * @return Filter
+	 */
+	public static CsvRowFilter and(final CsvRowFilter... filters) {
+		return new Combination(filters.clone(), true);
+	}
+
+	/**
+	 * Erzeugt einen Filter, der erfüllt ist, wenn mindestens einer der angegebenen Filter erfüllt ist
+	 * @param filters Filter
+	 * @return Filter
+	 */
+	public static CsvRowFilter or(final CsvRowFilter... filters) {
+		return new Combination(filters.clone(), false);
+	}
+
+	/**
+	 * Erzeugt einen Filter, der erfüllt ist, wenn der angegebene Filter nicht erfüllt ist
+	 * @param filter Filter
+	 * @return Filter
+	 */
+	public static CsvRowFilter not(final CsvRowFilter filter) {
+		return new Not(filter);
+	}
+
+	/**
+	 * Prüft einen über die Factory-Methoden angegebenen Spaltenindex
+	 * @param columnIndex Spaltenindex
+	 * @return Spaltenindex
+	 * @throws IllegalArgumentException Falls der Spaltenindex negativ ist
+	 */
+	private static int checkColumnIndex(final int columnIndex) {
+		if(columnIndex < 0) throw new IllegalArgumentException("columnIndex: " + columnIndex);
+		return columnIndex;
+	}
+
+	/**
+	 * Ordnet Spaltenüberschriften ihren Spaltenindex zu
+	 * @param columnNameToIndexMap Zuordnung Spaltenüberschrift zu Spaltenindex
+	 * @return Filter, der nur noch Spaltenindizes verwendet
+	 * @throws CsvParseException Falls eine Spalte nicht gefunden wurde
+	 */
+	abstract CsvRowFilter bind(Map<String, Integer> columnNameToIndexMap) throws CsvParseException;
+
+	/**
+	 * Fügt die Indizes aller vom Filter geprüften Spalten zu einer Liste hinzu. Nur für Filter, die mit
+	 * {@link #bind(Map)} erzeugt wurden.
+	 * @param columnIndexes Liste
+	 */
+	abstract void collectColumns(List<Integer> columnIndexes);
+
+	/**
+	 * Prüft einen Datensatz. Nur für Filter, die mit {@link #bind(Map)} erzeugt wurden.
+	 * @param record Datensatz
+	 * @return <code>true</code>, falls der Datensatz übernommen wird
+	 */
+	abstract boolean accept(CsvRecord record);
+
+	/**
+	 * Bedingung für eine einzelne Zelle
+	 */
+	private abstract static class CellFilter extends CsvRowFilter {
+
+		/**
+		 * Spaltenüberschrift oder <code>null</code>, falls die Spalte über den Index angegeben wurde
+		 */
+		private final String _header;
+
+		final int _columnIndex;
+
+		CellFilter(final String header, final int columnIndex) {
+			_header = header;
+			_columnIndex = columnIndex;
+		}
+
+		/**
+		 * Erzeugt eine Kopie dieses Filters für einen anderen Spaltenindex
+		 * @param columnIndex Spaltenindex
+		 * @return Filter
+		 */
+		abstract CellFilter withColumnIndex(int columnIndex);
+
+		/**
+		 * Prüft eine Zelle
+		 * @param record Datensatz
+		 * @param start Startposition der Zelle im Datensatz
+		 * @param end Endposition (exklusiv) der Zelle im Datensatz
+		 * @return <code>true</code>, falls die Bedingung erfüllt ist
+		 */
+		abstract boolean acceptCell(CsvRecord record, int start, int end);
+
+		@Override
+		final CsvRowFilter bind(final Map<String, Integer> columnNameToIndexMap) throws CsvParseException {
+			if(_header == null) return this;
+			final Integer index = columnNameToIndexMap.get(_header);
+			if(index == null) {
+				throw new CsvParseException("Spalte \"" + _header + "\" nicht gefunden", 0);
+			}
+			return withColumnIndex(index);
+		}
+
+		@Override
+		final void collectColumns(final List<Integer> columnIndexes) {
+			columnIndexes.add(_columnIndex);
+		}
+
+		@Override
+		final boolean accept(final CsvRecord record) {
+			if(_columnIndex >= record.getCellCount()) return false;
+			return acceptCell(record, record.getCellStart(_columnIndex), record.getCellEnd(_columnIndex));
+		}
+	}
+
+	private static final class EqualTo extends CellFilter {
+		private final String _value;
+
+		EqualTo(final String header, final int columnIndex, final String value) {
+			super(header, columnIndex);
+			_value = value;
+		}
+
+		@Override
+		CellFilter withColumnIndex(final int columnIndex) {
+			return new EqualTo(null, columnIndex, _value);
+		}
+
+		@Override
+		boolean acceptCell(final CsvRecord record, final int start, final int end) {
+			final String value = _value;
+			if(end - start != value.length()) return false;
+			for(int i = start; i < end; i++) {
+				if(record.charAt(i) != value.charAt(i - start)) return false;
+			}
+			return true;
+		}
+	}
+
+	private static final class LongRange extends CellFilter {
+		private final long _min;
+		private final long _max;
+
+		LongRange(final String header, final int columnIndex, final long min, final long max) {
+			super(header, columnIndex);
+			_min = min;
+			_max = max;
+		}
+
+		@Override
+		CellFilter withColumnIndex(final int columnIndex) {
+			return new LongRange(null, columnIndex, _min, _max);
+		}
+
+		@Override
+		boolean acceptCell(final CsvRecord record, final int start, final int end) {
+			if(start == end) return false;
+			try {
+				final long value = CsvNumbers.parseLong(record, start, end);
+				return value >= _min && value <= _max;
+			}
+			catch(NumberFormatException ignored) {
+				return false;
+			}
+		}
+	}
+
+	private static final class DoubleRange extends CellFilter {
+		private final double _min;
+		private final double _max;
+
+		DoubleRange(final String header, final int columnIndex, final double min, final double max) {
+			super(header, columnIndex);
+			_min = min;
+			_max = max;
+		}
+
+		@Override
+		CellFilter withColumnIndex(final int columnIndex) {
+			return new DoubleRange(null, columnIndex, _min, _max);
+		}
+
+		@Override
+		boolean acceptCell(final CsvRecord record, final int start, final int end) {
+			if(start == end) return false;
+			try {
+				final double value = CsvNumbers.parseDouble(record, start, end);
+				return value >= _min && value <= _max;
+			}
+			catch(NumberFormatException ignored) {
+				return false;
+			}
+		}
+	}
+
+	private static final class Matches extends CellFilter {
+		private final Predicate<? super CharSequence> _predicate;
+
+		Matches(final String header, final int columnIndex, final Predicate<? super CharSequence> predicate) {
+			super(header, columnIndex);
+			_predicate = predicate;
+		}
+
+		@Override
+		CellFilter withColumnIndex(final int columnIndex) {
+			return new Matches(null, columnIndex, _predicate);
+		}
+
+		@Override
+		boolean acceptCell(final CsvRecord record, final int start, final int end) {
+			return _predicate.test(CharBuffer.wrap(record, start, end));
+		}
+	}
+
+	private static final class Combination extends CsvRowFilter {
+		private final CsvRowFilter[] _filters;
+
+		/**
+		 * <code>true</code> für eine Und-Verknüpfung, <code>false</code> für eine Oder-Verknüpfung
+		 */
+		private final boolean _all;
+
+		Combination(final CsvRowFilter[] filters, final boolean all) {
+			_filters = filters;
+			_all = all;
+		}
+
+		@Override
+		CsvRowFilter bind(final Map<String, Integer> columnNameToIndexMap) throws CsvParseException {
+			final CsvRowFilter[] filters = new CsvRowFilter[_filters.length];
+			for(int i = 0; i < filters.length; i++) {
+				filters[i] = _filters[i].bind(columnNameToIndexMap);
+			}
+			return new Combination(filters, _all);
+		}
+
+		@Override
+		void collectColumns(final List<Integer> columnIndexes) {
+			for(final CsvRowFilter filter : _filters) {
+				filter.collectColumns(columnIndexes);
+			}
+		}
+
+		@Override
+		boolean accept(final CsvRecord record) {
+			for(final CsvRowFilter filter : _filters) {
+				if(filter.accept(record) != _all) return !_all;
+			}
+			return _all;
+		}
+	}
+
+	private static final class Not extends CsvRowFilter {
+		private final CsvRowFilter _filter;
+
+		Not(final CsvRowFilter filter) {
+			_filter = filter;
+		}
+
+		@Override
+		CsvRowFilter bind(final Map<String, Integer> columnNameToIndexMap) throws CsvParseException {
+			return new Not(_filter.bind(columnNameToIndexMap));
+		}
+
+		@Override
+		void collectColumns(final List<Integer> columnIndexes) {
+			_filter.collectColumns(columnIndexes);
+		}
+
+		@Override
+		boolean accept(final CsvRecord record) {
+			return !_filter.accept(record);
+		}
+	}
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Index mit der Dateiposition jedes Datensatzes einer CSV-Datei. Damit kann mit
+ * {@link CsvReader#readRows(CsvRowIndex, int, int)} direkt auf beliebige Datensätze zugegriffen werden, ohne die Datei
+ * bis dorthin zu lesen, z.B. um große Dateien seitenweise anzuzeigen.
+ * <p>
+ * Ein Index wird mit {@link CsvReader#buildRowIndex()} erstellt. Datensätze mit Zeilenumbrüchen in maskierten Zellen
+ * und ignorierte Zeilen werden dabei berücksichtigt. Mit {@link #save(Path)} kann der Index in einer Begleitdatei
+ * (z.B. {@link #getDefaultIndexFile(Path)}) gespeichert und später mit {@link #load(Path)} wieder geladen werden. Ob ein
+ * gespeicherter Index noch zur Datei passt, wird anhand der Dateigröße geprüft (siehe {@link #isValidFor(Path)}).
+ * <p>
+ * Der Index belegt 12 Byte je Datensatz. Objekte dieser Klasse sind unveränderlich.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public final class CsvRowIndex {
+
+	/**
+	 * Kennung am Anfang einer Indexdatei
+	 */
+	private static final int MAGIC = 0x43535649;
+
+	/**
+	 * Version des Dateiformats
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Spaltenköpfe oder <code>null</code>
+	 */
+	private final String[] _headerCells;
+
+	/**
+	 * Dateigröße beim Erstellen des Index
+	 */
+	private final long _fileSize;
+
+	/**
+	 * Dateiposition jedes Datensatzes, gefolgt von der Position nach dem letzten Datensatz
+	 */
+	private final long[] _positions;
+
+	/**
+	 * Zeilennummer jedes Datensatzes, wie sie beim sequentiellen Einlesen in Fehlermeldungen verwendet wird
+	 */
+	private final int[] _lineNums;
+
+	/**
+	 * Konstruktor
+	 * @param headerCells Spaltenköpfe oder <code>null</code>
+	 * @param fileSize Dateigröße
+	 * @param positions Dateiposition jedes Datensatzes, gefolgt von der Position nach dem letzten Datensatz
+	 * @param lineNums Zeilennummer jedes Datensatzes
+	 */
+	CsvRowIndex(final String[] headerCells, final long fileSize, final long[] positions, final int[] lineNums) {
+		_headerCells = headerCells;
+		_fileSize = fileSize;
+		_positions = positions;
+		_lineNums = lineNums;
+	}
+
+	/**
+	 * Gibt den üblichen Namen der Begleitdatei für eine CSV-Datei zurück (Dateiname mit der Endung ".idx")
+	 * @param csvFile CSV-Datei
+	 * @return Indexdatei im selben Verzeichnis
+	 */
+	public static Path getDefaultIndexFile(final Path csvFile) {
+		return csvFile.resolveSibling(csvFile.getFileName() + ".idx");
+	}
+
+	/**
+	 * Lädt einen mit {@link #save(Path)} gespeicherten Index
+	 * @param indexFile Indexdatei
+	 * @return Index
+	 * @throws IOException IO-Fehler oder ungültiges Dateiformat
+	 */
+	public static CsvRowIndex load(final Path indexFile) throws IOException {
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile), 1 << 16));
+		try {
+			if(in.readInt() != MAGIC) throw new IOException("Keine Indexdatei: " + indexFile);
+			final int version = in.readInt();
+			if(version != VERSION) throw new IOException("Nicht unterstützte Version " + version + " der Indexdatei " + indexFile);
+			final long fileSize = in.readLong();
+			final int numHeaderCells = in.readInt();
+			String[] headerCells = null;
+			if(numHeaderCells >= 0) {
+				headerCells = new String[numHeaderCells];
+				for(int i = 0; i < numHeaderCells; i++) {
+					headerCells[i] = in.readUTF();
+				}
+			}
+			final int numRows = in.readInt();
+			final long[] positions = new long[numRows + 1];
+			final int[] lineNums = new int[numRows];
+			for(int i = 0; i <= numRows; i++) {
+				positions[i] = in.readLong();
+			}
+			for(int i = 0; i < numRows; i++) {
+				lineNums[i] = in.readInt();
+			}
+			return new CsvRowIndex(headerCells, fileSize, positions, lineNums);
+		}
+		catch(EOFException e) {
+			throw new IOException("Indexdatei ist unvollständig: " + indexFile, e);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Speichert den Index in einer Datei. Eine vorhandene Datei wird überschrieben.
+	 * @param indexFile Indexdatei
+	 * @throws IOException IO-Fehler
+	 */
+	public void save(final Path indexFile) throws IOException {
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile), 1 << 16));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(_fileSize);
+			if(_headerCells == null) {
+				out.writeInt(-1);
+			}
+			else {
+				out.writeInt(_headerCells.length);
+				for(final String headerCell : _headerCells) {
+					out.writeUTF(headerCell);
+				}
+			}
+			out.writeInt(_lineNums.length);
+			for(final long position : _positions) {
+				out.writeLong(position);
+			}
+			for(final int lineNum : _lineNums) {
+				out.writeInt(lineNum);
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Prüft, ob der Index zu einer Datei passt. Geprüft wird nur die Dateigröße, ein Index wird also auch nach dem
+	 * Anhängen von Datensätzen als ungültig erkannt, nicht aber nach Änderungen, die die Größe beibehalten.
+	 * @param csvFile CSV-Datei
+	 * @return <code>true</code>, falls der Index verwendet werden kann
+	 * @throws IOException IO-Fehler
+	 */
+	public boolean isValidFor(final Path csvFile) throws IOException {
+		return Files.size(csvFile) == _fileSize;
+	}
+
+	/**
+	 * Gibt die Spaltenköpfe zurück
+	 * @return die Spaltenköpfe oder <code>null</code>, falls der Index ohne Spaltenköpfe erstellt wurde
+	 */
+	public String[] getHeaderCells() {
+		return _headerCells == null ? null : _headerCells.clone();
+	}
+
+	/**
+	 * Gibt die Anzahl Datensätze (ohne Spaltenköpfe und ignorierte Zeilen) zurück
+	 * @return Anzahl Datensätze
+	 */
+	public int getNumRows() {
+		return _lineNums.length;
+	}
+
+	/**
+	 * Gibt die Dateiposition eines Datensatzes zurück
+	 * @param row Zeilenindex, {@link #getNumRows()} liefert die Position nach dem letzten Datensatz
+	 * @return Dateiposition in Byte
+	 */
+	public long getPosition(final int row) {
+		return _positions[row];
+	}
+
+	/**
+	 * Gibt die Zeilennummer eines Datensatzes zurück, wie sie beim sequentiellen Einlesen in Fehlermeldungen verwendet wird
+	 * @param row Zeilenindex
+	 * @return Zeilennummer
+	 */
+	int getLineNum(final int row) {
+		return _lineNums[row];
+	}
+
+	/**
+	 * Gibt die Dateigröße beim Erstellen des Index zurück
+	 * @return Dateigröße in Byte
+	 */
+	long getFileSize() {
+		return _fileSize;
+	}
+
+	@Override
+	public String toString() {
+		return "CsvRowIndex{" + "Spaltenköpfe=" + Arrays.toString(_headerCells) + ", Datensätze=" + getNumRows() + ", Dateigröße=" + _fileSize + '}';
+	}
+}
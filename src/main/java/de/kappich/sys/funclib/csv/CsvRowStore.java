@@ -0,0 +1,176 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Speicher für die Datensätze eines {@link CsvData}-Objekts. Ein Speicher wird beim Einlesen aus einem einzelnen Thread
+ * befüllt und ist danach unveränderlich, so dass beliebig viele Threads lesend zugreifen können.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+abstract class CsvRowStore {
+
+	/**
+	 * Erzeugt einen leeren Speicher
+	 * @param storage Art der Speicherung
+	 * @return Speicher
+	 */
+	static CsvRowStore create(final CsvDataStorage storage) {
+		switch(storage) {
+			case COMPACT:
+				return new CompactCsvRowStore();
+			case OFF_HEAP:
+				return new OffHeapCsvRowStore(false);
+			case MAPPED_FILE:
+				return new OffHeapCsvRowStore(true);
+			default:
+				return new StringRowStore(new ArrayList<String[]>());
+		}
+	}
+
+	/**
+	 * Erzeugt einen Speicher für bereits als Strings vorliegende Datensätze
+	 * @param entries Datensätze, werden nicht kopiert
+	 * @return Speicher
+	 */
+	static CsvRowStore wrap(final List<String[]> entries) {
+		return new StringRowStore(entries);
+	}
+
+	/**
+	 * Hängt einen Datensatz an
+	 * @param record Zerlegter Datensatz, wird kopiert
+	 */
+	abstract void add(CsvRecord record);
+
+	/**
+	 * Hängt alle Datensätze eines anderen Speichers derselben Art an. Der andere Speicher darf danach nicht mehr
+	 * verwendet werden.
+	 * @param other Speicher
+	 */
+	abstract void addAll(CsvRowStore other);
+
+	/**
+	 * Gibt die Anzahl Datensätze zurück
+	 * @return Anzahl
+	 */
+	abstract int size();
+
+	/**
+	 * Gibt die Anzahl Zellen eines Datensatzes zurück
+	 * @param index Zeilenindex
+	 * @return Anzahl Zellen
+	 */
+	abstract int getCellCount(int index);
+
+	/**
+	 * Erzeugt das Zeilenobjekt für einen Datensatz
+	 * @param data CSV-Daten, zu denen die Zeile gehört
+	 * @param index Zeilenindex
+	 * @return Zeile
+	 */
+	abstract IterableCsvData.CsvRow getRow(IterableCsvData data, int index);
+
+	/**
+	 * Erzeugt die Strings aller Zellen eines Datensatzes
+	 * @param index Zeilenindex
+	 * @return Zellinhalte
+	 */
+	abstract String[] getEntry(int index);
+
+	/**
+	 * Gibt die Datensätze als Liste von String-Arrays zurück. Wird der Speicher nicht als Strings gehalten, werden die
+	 * Strings bei jedem Zugriff auf ein Listenelement erzeugt.
+	 * @return Unveränderliche Liste
+	 */
+	List<String[]> asList() {
+		return new AbstractList<String[]>() {
+			@Override
+			public String[] get(final int index) {
+				return getEntry(index);
+			}
+
+			@Override
+			public int size() {
+				return CsvRowStore.this.size();
+			}
+		};
+	}
+
+	/**
+	 * Speicherung als String-Arrays, siehe {@link CsvDataStorage#STRINGS}
+	 */
+	private static final class StringRowStore extends CsvRowStore {
+
+		private final List<String[]> _entries;
+
+		private StringRowStore(final List<String[]> entries) {
+			_entries = entries;
+		}
+
+		@Override
+		void add(final CsvRecord record) {
+			_entries.add(record.toStringArray());
+		}
+
+		@Override
+		void addAll(final CsvRowStore other) {
+			_entries.addAll(((StringRowStore) other)._entries);
+		}
+
+		@Override
+		int size() {
+			return _entries.size();
+		}
+
+		@Override
+		int getCellCount(final int index) {
+			return _entries.get(index).length;
+		}
+
+		@Override
+		String[] getEntry(final int index) {
+			return _entries.get(index);
+		}
+
+		@Override
+		IterableCsvData.CsvRow getRow(final IterableCsvData data, final int index) {
+			return data.new CsvRow(index, _entries.get(index));
+		}
+
+		@Override
+		List<String[]> asList() {
+			return Collections.unmodifiableList(_entries);
+		}
+	}
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sortierter Index über eine Spalte eines {@link CsvData}-Objekts für Bereichsabfragen in logarithmischer Zeit, z.B.
+ * alle Datensätze eines Zeitraums. Wird mit {@link CsvData#createSortedIndex(CsvColumn)} erstellt.
+ * <p>
+ * Die Werte werden parallel geparst und die Zeilen mit einem parallelen Mergesort nach dem Wert sortiert. Bei
+ * {@link IterableCsvData#getIntColumn(String) int}-, {@link IterableCsvData#getLongColumn(String) long}- und
+ * {@link IterableCsvData#getDoubleColumn(String) double}-Spalten werden die Werte ohne Boxing in einem primitiven Array
+ * gehalten, bei anderen Spalten müssen die Werte {@link Comparable} implementieren. Fließkommawerte werden wie bei
+ * {@link Double#compare(double, double)} verglichen. Zeilen mit gleichem Wert bleiben in der Reihenfolge der Datei,
+ * Zeilen mit leerer Zelle werden nicht indiziert.
+ * <p>
+ * Der Index ist unveränderlich und kann von mehreren Threads gleichzeitig verwendet werden.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public final class CsvSortedIndex {
+
+	/**
+	 * Mindestanzahl Zeilen, ab der beim Sortieren ein Bereich parallel sortiert wird
+	 */
+	private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+	/**
+	 * Maximale Anzahl Zeilen, die beim Sortieren per Insertionsort statt weiter rekursiv sortiert werden
+	 */
+	private static final int INSERTION_SORT_THRESHOLD = 32;
+
+	private final CsvData _data;
+
+	/**
+	 * Art der Schlüssel, siehe {@link CsvIndexKeys}
+	 */
+	private final int _kind;
+
+	/**
+	 * Zeilenindizes in sortierter Reihenfolge
+	 */
+	private final int[] _rows;
+
+	/**
+	 * Sortierte Schlüssel je nach Art, jeweils an derselben Position wie die Zeile in {@link #_rows}
+	 */
+	private final long[] _longs;
+
+	private final double[] _doubles;
+
+	private final Object[] _objects;
+
+	/**
+	 * Erstellt den Index
+	 * @param data CSV-Daten
+	 * @param column Spalte
+	 * @throws CsvParseException Falls ein Wert nicht geparst werden kann
+	 * @throws ClassCastException Falls die Werte nicht {@link Comparable} implementieren
+	 */
+	CsvSortedIndex(final CsvData data, final CsvColumn<?> column) throws CsvParseException {
+		_data = data;
+		final CsvIndexKeys keys = CsvIndexKeys.extract(data, column);
+		_kind = keys._kind;
+		int numPresent = 0;
+		for(final boolean present : keys._present) {
+			if(present) numPresent++;
+		}
+		final int[] rows = new int[numPresent];
+		numPresent = 0;
+		for(int i = 0; i < keys._present.length; i++) {
+			if(keys._present[i]) rows[numPresent++] = i;
+		}
+		if(rows.length < PARALLEL_SORT_THRESHOLD) {
+			MergeSort.sort(keys, rows, rows.clone(), 0, rows.length);
+		}
+		else {
+			ForkJoinPool.commonPool().invoke(new MergeSort(keys, rows, rows.clone(), 0, rows.length));
+		}
+		_rows = rows;
+		_longs = keys._longs == null ? null : new long[rows.length];
+		_doubles = keys._doubles == null ? null : new double[rows.length];
+		_objects = keys._objects == null ? null : new Object[rows.length];
+		for(int i = 0; i < rows.length; i++) {
+			switch(_kind) {
+				case CsvIndexKeys.LONG:
+					_longs[i] = keys._longs[rows[i]];
+					break;
+				case CsvIndexKeys.DOUBLE:
+					_doubles[i] = keys._doubles[rows[i]];
+					break;
+				default:
+					_objects[i] = keys._objects[rows[i]];
+			}
+		}
+	}
+
+	/**
+	 * Gibt die Zeilen zurück, deren Wert im Bereich <code>from &lt;= Wert &lt; to</code> liegt. Nur für Indizes über eine
+	 * int- oder long-Spalte.
+	 * @param from Untere Grenze (inklusiv)
+	 * @param to Obere Grenze (exklusiv)
+	 * @return Zeilenindizes, aufsteigend nach Wert sortiert
+	 * @throws IllegalStateException Falls der Index nicht über eine int- oder long-Spalte erstellt wurde
+	 */
+	public int[] getRows(final long from, final long to) {
+		if(_kind != CsvIndexKeys.LONG) throw new IllegalStateException("Der Index hat keine ganzzahligen Schlüssel");
+		return range(lowerBound(from), lowerBound(to));
+	}
+
+	/**
+	 * Gibt die Zeilen zurück, deren Wert im Bereich <code>from &lt;= Wert &lt; to</code> liegt. Nur für Indizes über eine
+	 * double-Spalte.
+	 * @param from Untere Grenze (inklusiv)
+	 * @param to Obere Grenze (exklusiv)
+	 * @return Zeilenindizes, aufsteigend nach Wert sortiert
+	 * @throws IllegalStateException Falls der Index nicht über eine double-Spalte erstellt wurde
+	 */
+	public int[] getRows(final double from, final double to) {
+		if(_kind != CsvIndexKeys.DOUBLE) throw new IllegalStateException("Der Index hat keine Fließkomma-Schlüssel");
+		return range(lowerBound(from), lowerBound(to));
+	}
+
+	/**
+	 * Gibt die Zeilen zurück, deren Wert im Bereich <code>from &lt;= Wert &lt; to</code> liegt. Die Grenzen haben den Typ,
+	 * den der Parser der Spalte liefert, bei primitiven Spalten genügt eine beliebige {@link Number}.
+	 * @param from Untere Grenze (inklusiv) oder <code>null</code> für keine Grenze
+	 * @param to Obere Grenze (exklusiv) oder <code>null</code> für keine Grenze
+	 * @return Zeilenindizes, aufsteigend nach Wert sortiert
+	 */
+	public int[] getRows(final Object from, final Object to) {
+		return range(from == null ? 0 : lowerBound(from), to == null ? _rows.length : lowerBound(to));
+	}
+
+	/**
+	 * Gibt die Zeilen mit einem bestimmten Wert zurück
+	 * @param value Wert, siehe {@link #getRows(Object, Object)}
+	 * @return Zeilenindizes in aufsteigender Reihenfolge
+	 */
+	public int[] getRowsEqualTo(final Object value) {
+		final int from = lowerBound(value);
+		int to = from;
+		while(to < _rows.length && compareAt(to, value) == 0) to++;
+		return range(from, to);
+	}
+
+	/**
+	 * Gibt die Datensätze zurück, deren Wert im Bereich <code>from &lt;= Wert &lt; to</code> liegt, siehe
+	 * {@link #getRows(Object, Object)}
+	 * @param from Untere Grenze (inklusiv) oder <code>null</code> für keine Grenze
+	 * @param to Obere Grenze (exklusiv) oder <code>null</code> für keine Grenze
+	 * @return Datensätze, aufsteigend nach Wert sortiert
+	 */
+	public List<IterableCsvData.CsvRow> get(final Object from, final Object to) {
+		final int[] rows = getRows(from, to);
+		final IterableCsvData.CsvRow[] result = new IterableCsvData.CsvRow[rows.length];
+		for(int i = 0; i < rows.length; i++) {
+			result[i] = _data.getRow(rows[i]);
+		}
+		return Arrays.asList(result);
+	}
+
+	/**
+	 * Gibt die Anzahl indizierter Zeilen zurück
+	 * @return Anzahl Zeilen mit Wert
+	 */
+	public int size() {
+		return _rows.length;
+	}
+
+	/**
+	 * Gibt die Zeile an einer Position der sortierten Reihenfolge zurück, z.B. 0 für die Zeile mit dem kleinsten Wert
+	 * @param position Position zwischen 0 und {@link #size()} (exklusiv)
+	 * @return Zeilenindex
+	 */
+	public int getRow(final int position) {
+		return _rows[position];
+	}
+
+	private int[] range(final int from, final int to) {
+		return from >= to ? new int[0] : Arrays.copyOfRange(_rows, from, to);
+	}
+
+	private int lowerBound(final long key) {
+		int low = 0;
+		int high = _longs.length;
+		while(low < high) {
+			final int mid = (low + high) >>> 1;
+			if(_longs[mid] < key) low = mid + 1;
+			else high = mid;
+		}
+		return low;
+	}
+
+	private int lowerBound(final double key) {
+		int low = 0;
+		int high = _doubles.length;
+		while(low < high) {
+			final int mid = (low + high) >>> 1;
+			if(Double.compare(_doubles[mid], key) < 0) low = mid + 1;
+			else high = mid;
+		}
+		return low;
+	}
+
+	private int lowerBound(final Object key) {
+		switch(_kind) {
+			case CsvIndexKeys.LONG:
+				return lowerBoundIntegral((Number) key);
+			case CsvIndexKeys.DOUBLE:
+				return lowerBound(((Number) key).doubleValue());
+			default:
+				int low = 0;
+				int high = _objects.length;
+				while(low < high) {
+					final int mid = (low + high) >>> 1;
+					if(compareAt(mid, key) < 0) low = mid + 1;
+					else high = mid;
+				}
+				return low;
+		}
+	}
+
+	/**
+	 * Bestimmt die erste Position mit einem Wert größer oder gleich einer beliebigen Zahl in einer ganzzahligen Spalte.
+	 * Nicht ganzzahlige Grenzen werden aufgerundet statt abgeschnitten.
+	 * @param key Grenze
+	 * @return Position
+	 */
+	private int lowerBoundIntegral(final Number key) {
+		if(CsvIndexKeys.isIntegral(key)) return lowerBound(key.longValue());
+		final double value = key.doubleValue();
+		// NaN ist wie bei Double.compare größer als alle Werte
+		if(Double.isNaN(value) || value >= 0x1p63) return _longs.length;
+		if(value < -0x1p63) return 0;
+		return lowerBound((long) Math.ceil(value));
+	}
+
+	@SuppressWarnings("unchecked")
+	private int compareAt(final int position, final Object key) {
+		switch(_kind) {
+			case CsvIndexKeys.LONG:
+				final Number number = (Number) key;
+				if(!CsvIndexKeys.isIntegral(number)) {
+					return Double.compare((double) _longs[position], number.doubleValue());
+				}
+				final long longKey = number.longValue();
+				return _longs[position] < longKey ? -1 : _longs[position] == longKey ? 0 : 1;
+			case CsvIndexKeys.DOUBLE:
+				return Double.compare(_doubles[position], ((Number) key).doubleValue());
+			default:
+				return ((Comparable<Object>) _objects[position]).compareTo(key);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "CsvSortedIndex{" + "Zeilen=" + _rows.length + '}';
+	}
+
+	/**
+	 * Stabiler Mergesort der Zeilenindizes nach den Schlüsseln. Nur Bereiche ab {@link #PARALLEL_SORT_THRESHOLD} Zeilen
+	 * werden als eigene Tasks parallel sortiert, kleinere Bereiche sequentiell ohne weitere Objekte. Das Ergebnis steht
+	 * in <code>rows</code>, <code>buffer</code> muss zu Beginn dieselben Werte enthalten.
+	 */
+	private static final class MergeSort extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final CsvIndexKeys _keys;
+		private final int[] _rows;
+		private final int[] _buffer;
+		private final int _from;
+		private final int _to;
+
+		private MergeSort(final CsvIndexKeys keys, final int[] rows, final int[] buffer, final int from, final int to) {
+			_keys = keys;
+			_rows = rows;
+			_buffer = buffer;
+			_from = from;
+			_to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(_to - _from < PARALLEL_SORT_THRESHOLD) {
+				sort(_keys, _rows, _buffer, _from, _to);
+				return;
+			}
+			final int mid = (_from + _to) >>> 1;
+			// Die Hälften werden in buffer sortiert und dann nach rows zusammengeführt
+			invokeAll(new MergeSort(_keys, _buffer, _rows, _from, mid), new MergeSort(_keys, _buffer, _rows, mid, _to));
+			merge(_keys, _buffer, _rows, _from, mid, _to);
+		}
+
+		/**
+		 * Sortiert einen Bereich sequentiell, ohne weitere Tasks zu erzeugen. Das Ergebnis steht in <code>rows</code>,
+		 * <code>buffer</code> muss im Bereich zu Beginn dieselben Werte enthalten.
+		 */
+		private static void sort(final CsvIndexKeys keys, final int[] rows, final int[] buffer, final int from, final int to) {
+			if(to - from <= INSERTION_SORT_THRESHOLD) {
+				insertionSort(keys, rows, from, to);
+				return;
+			}
+			final int mid = (from + to) >>> 1;
+			sort(keys, buffer, rows, from, mid);
+			sort(keys, buffer, rows, mid, to);
+			merge(keys, buffer, rows, from, mid, to);
+		}
+
+		/**
+		 * Stabiler Insertionsort eines kleinen Bereichs
+		 */
+		private static void insertionSort(final CsvIndexKeys keys, final int[] rows, final int from, final int to) {
+			for(int i = from + 1; i < to; i++) {
+				final int row = rows[i];
+				int j = i - 1;
+				while(j >= from && compare(keys, rows[j], row) > 0) {
+					rows[j + 1] = rows[j];
+					j--;
+				}
+				rows[j + 1] = row;
+			}
+		}
+
+		/**
+		 * Führt die sortierten Hälften <code>[from, mid)</code> und <code>[mid, to)</code> aus <code>source</code> nach
+		 * <code>target</code> zusammen, bei gleichen Schlüsseln zuerst aus der linken Hälfte
+		 */
+		private static void merge(final CsvIndexKeys keys, final int[] source, final int[] target, final int from, final int mid, final int to) {
+			int i = from;
+			int j = mid;
+			for(int k = from; k < to; k++) {
+				if(j >= to || (i < mid && compare(keys, source[i], source[j]) <= 0)) {
+					target[k] = source[i++];
+				}
+				else {
+					target[k] = source[j++];
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private static int compare(final CsvIndexKeys keys, final int rowA, final int rowB) {
+			switch(keys._kind) {
+				case CsvIndexKeys.LONG:
+					final long a = keys._longs[rowA];
+					final long b = keys._longs[rowB];
+					return a < b ? -1 : a == b ? 0 : 1;
+				case CsvIndexKeys.DOUBLE:
+					return Double.compare(keys._doubles[rowA], keys._doubles[rowB]);
+				default:
+					return ((Comparable<Object>) keys._objects[rowA]).compareTo(keys._objects[rowB]);
+			}
+		}
+	}
+}
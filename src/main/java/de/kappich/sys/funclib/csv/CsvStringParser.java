@@ -37,4 +37,17 @@ class CsvStringParser implements CsvParser<String> {
 	public String parseString(final String s) throws IllegalArgumentException {
 		return s;
 	}
+
+	/**
+	 * Alle Instanzen sind gleichwertig, siehe {@link CsvData#toList(CsvColumn)}
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		return obj != null && obj.getClass() == getClass();
+	}
+
+	@Override
+	public int hashCode() {
+		return getClass().hashCode();
+	}
 }
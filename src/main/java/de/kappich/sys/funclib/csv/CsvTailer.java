@@ -0,0 +1,369 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Liest eine CSV-Datei, an die laufend Datensätze angehängt werden (z.B. eine Protokolldatei), ähnlich wie
+ * <code>tail -f</code>. Ein Tailer wird mit {@link CsvReader#tail()} erzeugt.
+ * <p>
+ * Der Tailer merkt sich die Dateiposition nach dem letzten vollständig gelesenen Datensatz. Jeder Aufruf von
+ * {@link #poll()} liest nur die seitdem angehängten Daten. Ein Datensatz gilt erst als vollständig, wenn sein
+ * Zeilenende geschrieben wurde. Ein am Dateiende abgeschnittener Datensatz, auch innerhalb einer maskierten Zelle,
+ * wird daher nicht geliefert, sondern beim nächsten Aufruf ab seinem Anfang erneut gelesen. Ein mit
+ * <code>'\r'</code> abgeschlossener Datensatz gilt als vollständig, ein danach angehängtes <code>'\n'</code> wird
+ * übersprungen.
+ * <p>
+ * Wird die Datei gekürzt (z.B. bei einer Logrotation durch Abschneiden), liest der Tailer die Datei wieder ab dem
+ * Anfang, ein Spaltenkopf aus der Datei wird dabei erneut überlesen. Wird die Datei dagegen umbenannt und neu angelegt,
+ * liest der Tailer weiter die alte Datei.
+ * <p>
+ * Der {@link #iterator() Iterator} liefert die Datensätze, die zum Zeitpunkt des Aufrufs vollständig vorliegen. Nach
+ * dem Ende des Iterators kann später ein neuer Iterator für die inzwischen angehängten Datensätze geholt werden. Die
+ * Klasse ist nicht threadsicher, der zugrundeliegende {@link CsvReader} darf nicht mehr anderweitig verwendet werden.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+public final class CsvTailer extends IterableCsvData implements Closeable {
+
+	/**
+	 * Maximale Wartezeit zwischen zwei Prüfungen der Dateigröße in {@link #poll(long, TimeUnit)}, auch wenn keine
+	 * Änderung gemeldet wurde. Benachrichtigungen über Änderungen sind nicht auf allen Dateisystemen verfügbar
+	 * (z.B. Netzlaufwerke).
+	 */
+	private static final long POLL_INTERVAL_MILLIS = 500;
+
+	private final Path _file;
+
+	private final MappedCsvTokenizer _tokenizer;
+
+	private final Closeable _source;
+
+	/**
+	 * <code>true</code>, falls der Spaltenkopf aus der Datei stammt und nach dem Kürzen der Datei überlesen werden muss
+	 */
+	private final boolean _headerInFile;
+
+	private final CsvRowFilter _rowFilter;
+
+	private final boolean _lazy;
+
+	/**
+	 * Dateiposition nach dem letzten vollständig gelesenen Datensatz
+	 */
+	private long _position;
+
+	/**
+	 * Nummer der letzten vollständig gelesenen Zeile
+	 */
+	private int _lineNum;
+
+	/**
+	 * Der Spaltenkopf wurde seit dem Kürzen der Datei noch nicht überlesen
+	 */
+	private boolean _headerPending;
+
+	/**
+	 * Nach {@link #_position} liegen Daten eines noch unvollständigen Datensatzes
+	 */
+	private boolean _incomplete;
+
+	private WatchService _watchService;
+
+	/**
+	 * Es wurde bereits versucht, einen {@link WatchService} anzulegen
+	 */
+	private boolean _watchServiceCreated;
+
+	private final ByteBuffer _byteBuffer = ByteBuffer.allocate(1);
+
+	/**
+	 * Konstruktor
+	 * @param headerCells Spaltenkopf
+	 * @param columnNameToIndexMap Spaltenindizes
+	 * @param file Datei
+	 * @param tokenizer Tokenizer des Readers, dessen Einstellungen für alle weiteren Datensätze übernommen werden
+	 * @param source Beim Schließen ebenfalls zu schließender Reader
+	 * @param headerInFile Der Spaltenkopf wurde aus der Datei gelesen
+	 * @param position Dateiposition des ersten Datensatzes
+	 * @param lineNum Nummer der zuletzt gelesenen Zeile
+	 * @param rowFilter An den Spaltenkopf gebundener Filter oder <code>null</code>
+	 * @param lazy Zeilen ohne Strings erzeugen
+	 */
+	CsvTailer(final String[] headerCells, final HashMap<String, Integer> columnNameToIndexMap, final Path file, final MappedCsvTokenizer tokenizer, final Closeable source, final boolean headerInFile, final long position, final int lineNum, final CsvRowFilter rowFilter, final boolean lazy) {
+		super(headerCells, columnNameToIndexMap);
+		_file = file;
+		_tokenizer = tokenizer;
+		_source = source;
+		_headerInFile = headerInFile;
+		_position = position;
+		_lineNum = lineNum;
+		_rowFilter = rowFilter;
+		_lazy = lazy;
+	}
+
+	/**
+	 * Liest alle Datensätze, die seit dem letzten Aufruf vollständig angehängt wurden. Wartet nicht auf neue Daten.
+	 * @return Neue Datensätze, leer falls keine vorliegen
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 */
+	public List<CsvRow> poll() throws IOException {
+		long fileSize = _tokenizer.getChannel().size();
+		if(fileSize < _position) {
+			// Datei wurde gekürzt
+			_position = 0;
+			_lineNum = 0;
+			_headerPending = _headerInFile;
+		}
+		if(fileSize == _position) {
+			_incomplete = false;
+			return Collections.emptyList();
+		}
+		if(_position > 0 && readByte(_position - 1) == '\r' && readByte(_position) == '\n') {
+			// '\n' nach einem Datensatz, der beim letzten Aufruf mit '\r' am Dateiende endete
+			_position++;
+		}
+		final MappedCsvTokenizer tokenizer = _tokenizer.createRangeTokenizer(_position, Long.MAX_VALUE);
+		fileSize = tokenizer.getFileSize();
+		final CsvRecord record = tokenizer.getRecord();
+		final List<CsvRow> rows = new ArrayList<CsvRow>();
+		int lineNum = _lineNum;
+		_incomplete = false;
+		while(tokenizer.nextLine()) {
+			lineNum++;
+			final boolean tokenized;
+			try {
+				tokenized = tokenizer.tokenizeLine(lineNum);
+			}
+			catch(CsvParseException ignored) {
+				// Der Tokenizer meldet nur ein Dateiende innerhalb einer maskierten Zelle,
+				// der Rest des Datensatzes wurde noch nicht geschrieben
+				_incomplete = true;
+				break;
+			}
+			final long end = tokenizer.getLinePosition();
+			if(end == fileSize && !isLineBreak(readByte(fileSize - 1))) {
+				// Das Zeilenende des letzten Datensatzes fehlt noch
+				_incomplete = true;
+				break;
+			}
+			_position = end;
+			_lineNum = lineNum;
+			if(!tokenized) continue;
+			if(_headerPending) {
+				_headerPending = false;
+				continue;
+			}
+			if(_rowFilter != null && !_rowFilter.accept(record)) continue;
+			if(_lazy) {
+				rows.add(new CsvRow(lineNum, record.copyChars(), record.copyCellBounds()));
+			}
+			else {
+				rows.add(new CsvRow(lineNum, record.toStringArray()));
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Liest alle Datensätze, die seit dem letzten Aufruf vollständig angehängt wurden, und wartet dabei höchstens die
+	 * angegebene Zeit, bis mindestens ein neuer Datensatz vorliegt. Änderungen der Datei werden über einen
+	 * {@link WatchService} erkannt, sofern das Dateisystem dies unterstützt, zusätzlich wird die Dateigröße in kurzen
+	 * Abständen geprüft.
+	 * @param timeout Maximale Wartezeit
+	 * @param unit Einheit der Wartezeit
+	 * @return Neue Datensätze, leer falls innerhalb der Wartezeit keine angehängt wurden
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 * @throws InterruptedException Der Thread wurde beim Warten unterbrochen
+	 */
+	public List<CsvRow> poll(final long timeout, final TimeUnit unit) throws IOException, InterruptedException {
+		final long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while(true) {
+			final List<CsvRow> rows = poll();
+			if(!rows.isEmpty()) return rows;
+			final long remaining = deadline - System.nanoTime();
+			if(remaining <= 0) return rows;
+			awaitChange(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_INTERVAL_MILLIS)));
+		}
+	}
+
+	/**
+	 * Gibt die Dateiposition nach dem letzten vollständig gelesenen Datensatz zurück. Ab hier wird beim nächsten
+	 * Aufruf von {@link #poll()} gelesen.
+	 * @return Dateiposition
+	 */
+	public long getPosition() {
+		return _position;
+	}
+
+	/**
+	 * Bestimmt, ob beim letzten Aufruf von {@link #poll()} hinter dem letzten gelieferten Datensatz ein noch
+	 * unvollständiger Datensatz gefunden wurde
+	 * @return <code>true</code>, falls ein unvollständiger Datensatz vorliegt
+	 */
+	public boolean hasIncompleteRecord() {
+		return _incomplete;
+	}
+
+	/**
+	 * Gibt einen Iterator über die Datensätze zurück, die bis zum Ende der Iteration vollständig angehängt wurden.
+	 * Ein Fehler beim Einlesen wird als letzter Datensatz geliefert und beim Zugriff auf dessen Werte ausgelöst.
+	 * @return Iterator
+	 */
+	@Override
+	public Iterator<CsvRow> iterator() {
+		return new Iterator<CsvRow>() {
+			private List<CsvRow> _rows = Collections.emptyList();
+
+			private int _index;
+
+			private boolean _done;
+
+			@Override
+			public boolean hasNext() {
+				if(_index < _rows.size()) return true;
+				if(_done) return false;
+				try {
+					_rows = poll();
+				}
+				catch(IOException e) {
+					_rows = Collections.singletonList(new CsvRow(_lineNum + 1, e));
+					_done = true;
+				}
+				_index = 0;
+				if(_rows.isEmpty()) _done = true;
+				return !_rows.isEmpty();
+			}
+
+			@Override
+			public CsvRow next() {
+				if(!hasNext()) throw new NoSuchElementException();
+				return _rows.get(_index++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Schließt die Datei und beendet die Überwachung auf Änderungen
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if(_watchService != null) _watchService.close();
+		}
+		finally {
+			_source.close();
+		}
+	}
+
+	/**
+	 * Wartet, bis eine Änderung im Verzeichnis der Datei gemeldet wird oder die Zeit abgelaufen ist
+	 * @param nanos Maximale Wartezeit in Nanosekunden
+	 * @throws InterruptedException Der Thread wurde beim Warten unterbrochen
+	 */
+	private void awaitChange(final long nanos) throws InterruptedException {
+		final WatchService watchService = getWatchService();
+		if(watchService == null) {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+			return;
+		}
+		WatchKey key = watchService.poll(nanos, TimeUnit.NANOSECONDS);
+		while(key != null) {
+			key.pollEvents();
+			key.reset();
+			key = watchService.poll();
+		}
+	}
+
+	/**
+	 * Legt beim ersten Aufruf einen {@link WatchService} für das Verzeichnis der Datei an
+	 * @return WatchService oder <code>null</code>, falls das Dateisystem keine Überwachung unterstützt
+	 */
+	private WatchService getWatchService() {
+		if(_watchServiceCreated) return _watchService;
+		_watchServiceCreated = true;
+		final Path directory = _file.toAbsolutePath().getParent();
+		if(directory == null) return null;
+		WatchService watchService = null;
+		try {
+			watchService = _file.getFileSystem().newWatchService();
+			directory.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+			_watchService = watchService;
+		}
+		catch(IOException ignored) {
+			closeQuietly(watchService);
+		}
+		catch(UnsupportedOperationException ignored) {
+			closeQuietly(watchService);
+		}
+		return _watchService;
+	}
+
+	private static void closeQuietly(final WatchService watchService) {
+		if(watchService == null) return;
+		try {
+			watchService.close();
+		}
+		catch(IOException ignored) {
+		}
+	}
+
+	private byte readByte(final long position) throws IOException {
+		_byteBuffer.clear();
+		while(_byteBuffer.hasRemaining()) {
+			if(_tokenizer.getChannel().read(_byteBuffer, position) < 0) return -1;
+		}
+		return _byteBuffer.get(0);
+	}
+
+	private static boolean isLineBreak(final byte b) {
+		return b == '\n' || b == '\r';
+	}
+}
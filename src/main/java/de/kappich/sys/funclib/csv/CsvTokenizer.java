@@ -0,0 +1,139 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.IOException;
+
+/**
+ * Zerlegt CSV-Daten zeilenweise in Datensätze. Eine Implementierung liest physikalische Zeilen aus einer Datenquelle
+ * ({@link #nextLine()}) und zerlegt die aktuelle Zeile mit einem Zustandsautomaten in Zellen ({@link #tokenizeLine(int)}).
+ * Die Zellen werden in einem wiederverwendbaren {@link CsvRecord} abgelegt.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+abstract class CsvTokenizer {
+
+	/**
+	 * CSV-Trennzeichen (z.B. Komma oder Semikolon)
+	 */
+	protected final char _csvSeparator;
+
+	/**
+	 * CSV-Anführungszeichen
+	 */
+	protected final char _csvQuote;
+
+	/**
+	 * Legt fest, welche Zeilen ignoriert werden (z.B. leere Zeilen)
+	 */
+	protected CsvLineSkipPolicy _lineSkipPolicy;
+
+	/**
+	 * Zuletzt zerlegter Datensatz
+	 */
+	protected final CsvRecord _record = new CsvRecord();
+
+	/**
+	 * Konstruktor
+	 * @param csvSeparator Trennzeichen
+	 * @param csvQuote Maskierungszeichen (Anführungszeichen)
+	 * @param lineSkipPolicy Zu ignorierende Zeilen
+	 */
+	protected CsvTokenizer(final char csvSeparator, final char csvQuote, final CsvLineSkipPolicy lineSkipPolicy) {
+		_csvSeparator = csvSeparator;
+		_csvQuote = csvQuote;
+		_lineSkipPolicy = lineSkipPolicy.copy();
+	}
+
+	/**
+	 * Springt zur nächsten physikalischen Zeile der Datenquelle.
+	 * @return <code>false</code> falls das Ende der Daten erreicht wurde
+	 * @throws IOException IO-Fehler
+	 */
+	abstract boolean nextLine() throws IOException;
+
+	/**
+	 * Zerlegt die aktuelle Zeile in Zellen und legt diese in {@link #getRecord()} ab. Enthält eine Zelle einen Zeilenumbruch
+	 * innerhalb von Anführungszeichen, werden weitere Zeilen der Datenquelle gelesen.
+	 * @param lineNum Zeilennummer für Fehlermeldungen
+	 * @return <code>false</code> falls die Zeile ignoriert wird
+	 * @throws IOException IO-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 */
+	abstract boolean tokenizeLine(int lineNum) throws IOException;
+
+	/**
+	 * Schließt die Datenquelle
+	 * @throws IOException IO-Fehler
+	 */
+	abstract void close() throws IOException;
+
+	/**
+	 * Legt fest, welche Zeilen ignoriert werden
+	 * @param lineSkipPolicy Zu ignorierende Zeilen
+	 */
+	final void setLineSkipPolicy(final CsvLineSkipPolicy lineSkipPolicy) {
+		_lineSkipPolicy = lineSkipPolicy.copy();
+	}
+
+	/**
+	 * Legt fest, welche Zellen beim Zerlegen übernommen werden. Nicht ausgewählte Zellen werden weiterhin korrekt
+	 * (einschließlich Anführungszeichen) zerlegt, ihr Inhalt wird aber verworfen.
+	 * @param selection Ausgewählte Zellen oder <code>null</code> für alle Zellen
+	 */
+	final void setSelectedCells(final boolean[] selection) {
+		_record.setSelection(selection);
+	}
+
+	/**
+	 * Legt fest, über welche Interner die Strings der Zellen erzeugt werden
+	 * @param defaultInterner Interner für alle Zellen ohne eigenen Interner oder <code>null</code>
+	 * @param cellInterners Interner je Zellindex oder <code>null</code>
+	 */
+	final void setInterners(final CsvInterner defaultInterner, final CsvInterner[] cellInterners) {
+		_record.setInterners(defaultInterner, cellInterners);
+	}
+
+	/**
+	 * Gibt den zuletzt zerlegten Datensatz zurück. Der Inhalt wird beim nächsten Aufruf von {@link #tokenizeLine(int)}
+	 * überschrieben.
+	 * @return Datensatz
+	 */
+	final CsvRecord getRecord() {
+		return _record;
+	}
+
+	/**
+	 * Erzeugt die Exception für eine Zelle, deren Anführungszeichen bis zum Dateiende nicht geschlossen wurden.
+	 * @param lineNum Zeilennummer
+	 * @return Exception
+	 */
+	final CsvParseException unexpectedEndOfFile(final int lineNum) {
+		return new CsvParseException("Unerwartetes Dateiende", lineNum, _record.getCellCount() - 1);
+	}
+}
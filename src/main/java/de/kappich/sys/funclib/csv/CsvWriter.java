@@ -51,6 +51,16 @@ public class CsvWriter extends BufferedWriter{
 	 */
 	private boolean _quoteAll;
 
+	/**
+	 * Bestimmt, ob Fließkommazahlen mit ',' statt '.' als Dezimaltrennzeichen geschrieben werden
+	 */
+	private boolean _decimalComma;
+
+	/**
+	 * Puffer zum Formatieren von Zahlen
+	 */
+	private final char[] _numberBuffer = new char[24];
+
 	/**
 	 * Erstellt einen neuen CsvWriter mit ';' als Trennzeichen und '"' als Anführungszeichen
 	 * @param encoding Dateikodierung, z.B. UTF-8
@@ -118,6 +128,33 @@ public class CsvWriter extends BufferedWriter{
 		_quoteAll = quoteAll;
 	}
 
+	/**
+	 * Erstellt einen neuen CsvWriter mit ';' als Trennzeichen und '"' als Anführungszeichen, der die Daten komprimiert
+	 * schreibt
+	 * @param encoding Dateikodierung, z.B. UTF-8
+	 * @param outputStream OutputStream als Ziel zum schreiben
+	 * @param compression Kompression, z.B. {@link CsvCompression#GZIP}
+	 * @throws IOException Fehler beim Schreiben des Dateikopfs
+	 */
+	public CsvWriter(final Charset encoding, final OutputStream outputStream, final CsvCompression compression) throws IOException {
+		this(encoding, outputStream, ';', '"', false, compression);
+	}
+
+	/**
+	 * Erstellt einen neuen CsvWriter, der die Daten komprimiert schreibt. Komprimierte Daten werden von {@link CsvReader}
+	 * automatisch erkannt.
+	 * @param encoding Dateikodierung, z.B. UTF-8
+	 * @param outputStream OutputStream als Ziel zum schreiben
+	 * @param csvSeparator Trennzeichen
+	 * @param csvQuote Maskierungszeichen (Anführungszeichen)
+	 * @param quoteAll Bestimmt, ob Anführungszeichen überall gesetzt werden (true) oder nur dort wo notwendig (false)
+	 * @param compression Kompression, z.B. {@link CsvCompression#GZIP}
+	 * @throws IOException Fehler beim Schreiben des Dateikopfs
+	 */
+	public CsvWriter(final Charset encoding, final OutputStream outputStream, final char csvSeparator, final char csvQuote, final boolean quoteAll, final CsvCompression compression) throws IOException {
+		this(encoding, compression.compress(outputStream), csvSeparator, csvQuote, quoteAll);
+	}
+
 	/**
 	 * Erstellt einen neuen CsvWriter mit ';' als Trennzeichen und '"' als Anführungszeichen
 	 * @param writer Writer als Ziel zum schreiben
@@ -150,6 +187,30 @@ public class CsvWriter extends BufferedWriter{
 		_quoteAll = quoteAll;
 	}
 
+	/**
+	 * Konstruktor für Unterklassen, die die Zeichen selbst puffern und dazu die write-Methoden überschreiben
+	 * @param writer Writer für den Puffer von {@link BufferedWriter}
+	 * @param csvSeparator Trennzeichen
+	 * @param csvQuote Maskierungszeichen (Anführungszeichen)
+	 * @param quoteAll Bestimmt, ob Anführungszeichen überall gesetzt werden (true) oder nur dort wo notwendig (false)
+	 * @param bufferSize Größe des Puffers von {@link BufferedWriter}
+	 */
+	CsvWriter(final Writer writer, final char csvSeparator, final char csvQuote, final boolean quoteAll, final int bufferSize) {
+		super(writer, bufferSize);
+		_csvSeparator = csvSeparator;
+		_csvQuote = csvQuote;
+		_quoteAll = quoteAll;
+	}
+
+	/**
+	 * Legt fest, ob Fließkommazahlen ({@link Double}-Objekte und {@link #writeDouble(double)}) mit ',' statt '.' als
+	 * Dezimaltrennzeichen geschrieben werden. Ist ',' auch das Trennzeichen, werden die Werte in Anführungszeichen gesetzt.
+	 * @param decimalComma <code>true</code> für ',' als Dezimaltrennzeichen
+	 */
+	public void setDecimalComma(final boolean decimalComma) {
+		_decimalComma = decimalComma;
+	}
+
 	/**
 	 * Schreibt eine Zeile Csv-Daten. Die einzelnen Parameter werden wie folgt behandelt:
 	 * <ul>
@@ -185,6 +246,45 @@ public class CsvWriter extends BufferedWriter{
 		}
 	}
 
+	/**
+	 * Schreibt eine Zeile mit Ganzzahlen
+	 * @param data Zu schreibende Daten, Arraylänge = Anzahl der Daten in einer Zeile
+	 * @throws IOException
+	 */
+	public void writeCsv(final int[] data) throws IOException {
+		for(int i = 0; i < data.length; i++) {
+			if(i > 0) writeSeperator();
+			writeInt(data[i]);
+		}
+		writeNewLine();
+	}
+
+	/**
+	 * Schreibt eine Zeile mit Ganzzahlen
+	 * @param data Zu schreibende Daten, Arraylänge = Anzahl der Daten in einer Zeile
+	 * @throws IOException
+	 */
+	public void writeCsv(final long[] data) throws IOException {
+		for(int i = 0; i < data.length; i++) {
+			if(i > 0) writeSeperator();
+			writeLong(data[i]);
+		}
+		writeNewLine();
+	}
+
+	/**
+	 * Schreibt eine Zeile mit Fließkommazahlen
+	 * @param data Zu schreibende Daten, Arraylänge = Anzahl der Daten in einer Zeile
+	 * @throws IOException
+	 */
+	public void writeCsv(final double[] data) throws IOException {
+		for(int i = 0; i < data.length; i++) {
+			if(i > 0) writeSeperator();
+			writeDouble(data[i]);
+		}
+		writeNewLine();
+	}
+
 	public void writeNewLine() throws IOException {
 		write("\r\n");
 	}
@@ -217,7 +317,47 @@ public class CsvWriter extends BufferedWriter{
 	 * @throws IOException
 	 */
 	public void writeData(final Object data) throws IOException {
-		if(data != null && data.getClass().isArray()) {
+		if(data instanceof CharSequence) {
+			writeCharSequence((CharSequence) data);
+		}
+		else if(data instanceof Integer) {
+			writeInt((Integer) data);
+		}
+		else if(data instanceof Long) {
+			writeLong((Long) data);
+		}
+		else if(data instanceof Double) {
+			writeDouble((Double) data);
+		}
+		else if(data instanceof Object[]) {
+			final Object[] array = (Object[]) data;
+			for(int f = 0; f < array.length; f++) {
+				if(f > 0) writeSeperator();
+				writeData(array[f]);
+			}
+		}
+		else if(data instanceof int[]) {
+			final int[] array = (int[]) data;
+			for(int f = 0; f < array.length; f++) {
+				if(f > 0) writeSeperator();
+				writeInt(array[f]);
+			}
+		}
+		else if(data instanceof long[]) {
+			final long[] array = (long[]) data;
+			for(int f = 0; f < array.length; f++) {
+				if(f > 0) writeSeperator();
+				writeLong(array[f]);
+			}
+		}
+		else if(data instanceof double[]) {
+			final double[] array = (double[]) data;
+			for(int f = 0; f < array.length; f++) {
+				if(f > 0) writeSeperator();
+				writeDouble(array[f]);
+			}
+		}
+		else if(data != null && data.getClass().isArray()) {
 			int len = Array.getLength(data);
 			for(int f = 0; f < len; f++) {
 				writeData(Array.get(data, f));
@@ -232,28 +372,128 @@ public class CsvWriter extends BufferedWriter{
 		}
 	}
 
-
-	private void writeQuoted(final Object o) throws IOException {
-		if(o == null) return;
-		char[] chars = o.toString().toCharArray();
-		if(_quoteAll || needsQuote(chars)){
-			write(_csvQuote);
-			for(char c : chars) {
-				if(c == _csvQuote){
+	/**
+	 * Schreibt einen Text als Csv-Eintrag, falls notwendig mit Anführungszeichen. Es wird kein Trennzeichen geschrieben.
+	 * @param value Text, <code>null</code> führt zu einem leeren Eintrag
+	 * @throws IOException
+	 */
+	public void writeCharSequence(final CharSequence value) throws IOException {
+		if(value == null) return;
+		final boolean quote = _quoteAll || needsQuote(value);
+		if(quote) write(_csvQuote);
+		if(!quote) {
+			append(value);
+		}
+		else if(value instanceof String) {
+			// Abschnitte zwischen Anführungszeichen am Stück schreiben
+			final String s = (String) value;
+			int start = 0;
+			for(int i = s.indexOf(_csvQuote); i >= 0; i = s.indexOf(_csvQuote, i + 1)) {
+				write(s, start, i + 1 - start);
+				start = i;
+			}
+			write(s, start, s.length() - start);
+		}
+		else {
+			final int length = value.length();
+			for(int i = 0; i < length; i++) {
+				final char c = value.charAt(i);
+				if(c == _csvQuote) {
 					write(c);
 				}
 				write(c);
 			}
-			write(_csvQuote);
 		}
-		else {
-			write(chars);
+		if(quote) write(_csvQuote);
+	}
+
+	/**
+	 * Schreibt eine Ganzzahl als Csv-Eintrag. Es wird kein Trennzeichen geschrieben.
+	 * @param value Wert
+	 * @throws IOException
+	 */
+	public void writeInt(final int value) throws IOException {
+		writeLong(value);
+	}
+
+	/**
+	 * Schreibt eine Ganzzahl als Csv-Eintrag. Es wird kein Trennzeichen geschrieben.
+	 * @param value Wert
+	 * @throws IOException
+	 */
+	public void writeLong(final long value) throws IOException {
+		if(value == Long.MIN_VALUE) {
+			writeCharSequence(Long.toString(value));
+			return;
+		}
+		final char[] buf = _numberBuffer;
+		int pos = buf.length;
+		long v = Math.abs(value);
+		do {
+			buf[--pos] = (char) ('0' + (v % 10));
+			v /= 10;
+		}
+		while(v != 0);
+		if(value < 0) buf[--pos] = '-';
+		writeFormatted(pos, buf.length - pos);
+	}
+
+	/**
+	 * Schreibt eine Fließkommazahl als Csv-Eintrag im Format von {@link Double#toString(double)}, mit ',' als
+	 * Dezimaltrennzeichen falls {@link #setDecimalComma(boolean)} gesetzt ist. Es wird kein Trennzeichen geschrieben.
+	 * @param value Wert
+	 * @throws IOException
+	 */
+	public void writeDouble(final double value) throws IOException {
+		final char decimalSeparator = _decimalComma ? ',' : '.';
+		final long integral = (long) value;
+		if(integral == value && integral > -10000000 && integral < 10000000 && (integral != 0 || Double.doubleToRawLongBits(value) == 0)) {
+			// Ganzzahlige Werte, die Double.toString ohne Exponent schreibt, z.B. "42.0"
+			final char[] buf = _numberBuffer;
+			int pos = buf.length;
+			buf[--pos] = '0';
+			buf[--pos] = decimalSeparator;
+			long v = Math.abs(integral);
+			do {
+				buf[--pos] = (char) ('0' + (v % 10));
+				v /= 10;
+			}
+			while(v != 0);
+			if(integral < 0) buf[--pos] = '-';
+			writeFormatted(pos, buf.length - pos);
+			return;
 		}
+		final String s = Double.toString(value);
+		writeCharSequence(_decimalComma ? s.replace('.', ',') : s);
+	}
+
+	/**
+	 * Schreibt eine in {@link #_numberBuffer} formatierte Zahl
+	 * @param offset Startposition
+	 * @param length Anzahl Zeichen
+	 * @throws IOException
+	 */
+	private void writeFormatted(final int offset, final int length) throws IOException {
+		final char[] buf = _numberBuffer;
+		boolean quote = _quoteAll;
+		for(int i = offset; i < offset + length && !quote; i++) {
+			final char c = buf[i];
+			quote = c == _csvQuote || c == _csvSeparator;
+		}
+		if(quote) write(_csvQuote);
+		write(buf, offset, length);
+		if(quote) write(_csvQuote);
+	}
+
+	private void writeQuoted(final Object o) throws IOException {
+		if(o == null) return;
+		writeCharSequence(o.toString());
 	}
 
-	private boolean needsQuote(final char[] chars) {
-		if(chars.length == 0) return false;
-		for(char c : chars) {
+	private boolean needsQuote(final CharSequence chars) {
+		final int length = chars.length();
+		for(int i = 0; i < length; i++) {
+			final char c = chars.charAt(i);
 			if(c == '\r' || c == '\n' || c == _csvQuote || c == _csvSeparator) {
 				return true;
 			}
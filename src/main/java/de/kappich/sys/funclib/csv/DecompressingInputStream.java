@@ -0,0 +1,137 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Stream, der beim ersten Lesen anhand der ersten Bytes erkennt, ob die Daten mit gzip oder BGZF komprimiert sind
+ * (siehe {@link CsvCompression}), und sie dann entsprechend dekomprimiert. Unkomprimierte Daten werden unverändert
+ * weitergegeben. Da CSV-Dateien nicht mit den Steuerzeichen 0x1F 0x8B beginnen, ist die Erkennung eindeutig.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class DecompressingInputStream extends InputStream {
+
+	/**
+	 * Anzahl Bytes, die zur Erkennung gelesen werden (Kopf eines BGZF-Blocks)
+	 */
+	private static final int HEADER_SIZE = 18;
+
+	private InputStream _in;
+
+	private boolean _detected;
+
+	/**
+	 * Konstruktor
+	 * @param in Möglicherweise komprimierte Daten
+	 */
+	DecompressingInputStream(final InputStream in) {
+		_in = in;
+	}
+
+	/**
+	 * Prüft, ob Daten mit der Kennung des gzip-Formats beginnen
+	 * @param b0 Erstes Byte
+	 * @param b1 Zweites Byte
+	 * @return <code>true</code>, falls gzip
+	 */
+	static boolean isGzip(final int b0, final int b1) {
+		return b0 == 0x1F && b1 == 0x8B;
+	}
+
+	/**
+	 * Erkennt das Format. Zunächst wird nur die Kennung des gzip-Formats gelesen, damit unkomprimierte Daten, z.B. aus
+	 * einer Pipe, schon verarbeitet werden können, bevor der vollständige Kopf eines BGZF-Blocks verfügbar ist.
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 */
+	private void detect() throws IOException {
+		_detected = true;
+		final PushbackInputStream in = new PushbackInputStream(_in, HEADER_SIZE);
+		final byte[] header = new byte[HEADER_SIZE];
+		int length = readFully(in, header, 0, 2);
+		if(length < 2 || !isGzip(header[0] & 0xFF, header[1] & 0xFF)) {
+			in.unread(header, 0, length);
+			_in = in;
+			return;
+		}
+		// Ein gzip-Stream ist mindestens 18 Bytes lang, das Lesen des restlichen Kopfes blockiert also nicht unnötig
+		length += readFully(in, header, length, HEADER_SIZE - length);
+		in.unread(header, 0, length);
+		if(BgzfInputStream.isBgzfHeader(header, length)) {
+			_in = new BgzfInputStream(in);
+		}
+		else {
+			_in = new GZIPInputStream(in, CsvCompression.BUFFER_SIZE);
+		}
+	}
+
+	/**
+	 * Liest Bytes, bis die angegebene Anzahl erreicht oder das Ende der Daten erreicht ist
+	 * @param in Daten
+	 * @param b Puffer
+	 * @param off Position im Puffer
+	 * @param len Anzahl Bytes
+	 * @return Anzahl gelesener Bytes, kleiner als <code>len</code> nur am Ende der Daten
+	 * @throws IOException Ein-Ausgabe-Fehler
+	 */
+	private static int readFully(final InputStream in, final byte[] b, final int off, final int len) throws IOException {
+		int length = 0;
+		while(length < len) {
+			final int n = in.read(b, off + length, len - length);
+			if(n < 0) break;
+			length += n;
+		}
+		return length;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if(!_detected) detect();
+		return _in.read();
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		if(!_detected) detect();
+		return _in.read(b, off, len);
+	}
+
+	@Override
+	public int available() throws IOException {
+		return _detected ? _in.available() : 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		_in.close();
+	}
+}
@@ -27,7 +27,10 @@
 package de.kappich.sys.funclib.csv;
 
 import java.io.IOException;
+import java.nio.CharBuffer;
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Kappich Systemberatung
@@ -67,6 +70,26 @@ public abstract class IterableCsvData implements Iterable<IterableCsvData.CsvRow
 	@Override
 	public abstract Iterator<CsvRow> iterator();
 
+	/**
+	 * Gibt einen Spliterator über die Datensätze zurück. Die Standardimplementierung teilt die Datensätze des
+	 * {@link #iterator() Iterators} für parallele Streams blockweise auf.
+	 * @return Spliterator
+	 */
+	@Override
+	public Spliterator<CsvRow> spliterator() {
+		return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+	}
+
+	/**
+	 * Gibt einen sequentiellen Stream über die Datensätze zurück. Mit {@link Stream#parallel()} können die Datensätze
+	 * parallel verarbeitet werden. Tritt beim Einlesen ein Fehler auf, wird eine {@link java.io.UncheckedIOException}
+	 * ausgelöst, deren Ursache die {@link CsvParseException} mit Zeilen- und Spaltenangabe ist.
+	 * @return Stream
+	 */
+	public Stream<CsvRow> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
 	/**
 	 * Findet eine passende Spalte die String-Werte enthält und gibt ein {@link de.kappich.sys.funclib.csv.CsvColumn}-Objekt zurück, was den Zugriff auf die
 	 * Werte dieser Spalte erlaubt. Siehe {@link IterableCsvData.CsvRow#getValue(de.kappich.sys.funclib.csv.CsvColumn)}.
@@ -199,13 +222,30 @@ public abstract class IterableCsvData implements Iterable<IterableCsvData.CsvRow
 	}
 
 	/**
-	 * Klasse, die die Werte einer CSV-Zeile enthält
+	 * Klasse, die die Werte einer CSV-Zeile enthält. Die Werte liegen entweder als Strings vor oder (bei
+	 * {@link CsvReader#setLazyRows(boolean)}) als Ausschnitte eines gemeinsamen char-Arrays. Im zweiten Fall wird ein
+	 * String erst erzeugt, wenn er abgerufen wird.
 	 */
 	public final class CsvRow {
 		private final String[] _values;
 		private final int _row;
 		private final IOException _exception;
 
+		/**
+		 * Zellinhalte aller Zellen hintereinander, nur wenn die Zeile ohne Strings erzeugt wurde
+		 */
+		private final char[] _chars;
+
+		/**
+		 * Startposition jeder Zelle in {@link #_chars}, der letzte Eintrag ist das Ende der letzten Zelle
+		 */
+		private final int[] _cellBounds;
+
+		/**
+		 * Sicht auf {@link #_chars} für die Parser, wird bei Bedarf erzeugt
+		 */
+		private CharBuffer _charView;
+
 		/**
 		 * Erstellt eine Csv-Zeile mit Werten
 		 * @param row Zeilenindex
@@ -215,6 +255,22 @@ public abstract class IterableCsvData implements Iterable<IterableCsvData.CsvRow
 			_row = row;
 			_values = values;
 			_exception = null;
+			_chars = null;
+			_cellBounds = null;
+		}
+
+		/**
+		 * Erstellt eine Csv-Zeile, deren Werte Ausschnitte eines char-Arrays sind
+		 * @param row Zeilenindex
+		 * @param chars Zellinhalte aller Zellen hintereinander
+		 * @param cellBounds Startposition jeder Zelle in <code>chars</code>, gefolgt vom Ende der letzten Zelle
+		 */
+		CsvRow(final int row, final char[] chars, final int[] cellBounds) {
+			_row = row;
+			_values = null;
+			_exception = null;
+			_chars = chars;
+			_cellBounds = cellBounds;
 		}
 
 		/**
@@ -227,6 +283,8 @@ public abstract class IterableCsvData implements Iterable<IterableCsvData.CsvRow
 			_values = null;
 			_row = row;
 			_exception = exception;
+			_chars = null;
+			_cellBounds = null;
 		}
 
 		/**
@@ -245,7 +303,7 @@ public abstract class IterableCsvData implements Iterable<IterableCsvData.CsvRow
 				throw new IllegalArgumentException("Der column-Parameter passt nicht zum CsvData-Objekt.");
 			}
 			int columnIndex = column.getColumnIndex();
-			String stringVal = _values[columnIndex];
+			String stringVal = getValue(columnIndex);
 			CsvParser<T> parser = column.getParser();
 			try {
 				return parser.parseString(stringVal);
@@ -255,6 +313,212 @@ public abstract class IterableCsvData implements Iterable<IterableCsvData.CsvRow
 			}
 		}
 
+		/**
+		 * Gibt den Wert einer Integer-Spalte innerhalb dieser Zeile als primitiven Wert zurück. Implementiert der Parser der
+		 * Spalte {@link CsvIntValueParser} (wie bei {@link IterableCsvData#getIntColumn(String)}), wird der Wert ohne
+		 * Boxing und ohne Erzeugen weiterer Strings geparst.
+		 * @param column Spalte
+		 * @return Wert
+		 * @throws de.kappich.sys.funclib.csv.CsvParseException Falls ein Problem beim Parsen des Wertes auftrat
+		 * @throws IllegalArgumentException Falls das übergebene Spaltenobjekt nicht mit dem richtigen {@link IterableCsvData}-Objekt erzeugt wurde
+		 */
+		public int getInt(CsvColumn<Integer> column) throws CsvParseException {
+			final int columnIndex = checkColumn(column);
+			final CsvParser<Integer> parser = column.getParser();
+			try {
+				if(parser instanceof CsvIntValueParser) {
+					if(_values != null) {
+						final String stringVal = _values[columnIndex];
+						return ((CsvIntValueParser) parser).parseInt(stringVal, 0, stringVal.length());
+					}
+					checkCellIndex(columnIndex);
+					return ((CsvIntValueParser) parser).parseInt(getCharView(), _cellBounds[columnIndex], _cellBounds[columnIndex + 1]);
+				}
+				return parser.parseString(getValue(columnIndex));
+			}
+			catch(IllegalArgumentException e){
+				throw new CsvParseException(e, _row, columnIndex);
+			}
+		}
+
+		/**
+		 * Gibt den Wert einer Long-Spalte innerhalb dieser Zeile als primitiven Wert zurück. Implementiert der Parser der
+		 * Spalte {@link CsvLongValueParser} (wie bei {@link IterableCsvData#getLongColumn(String)}), wird der Wert ohne
+		 * Boxing und ohne Erzeugen weiterer Strings geparst.
+		 * @param column Spalte
+		 * @return Wert
+		 * @throws de.kappich.sys.funclib.csv.CsvParseException Falls ein Problem beim Parsen des Wertes auftrat
+		 * @throws IllegalArgumentException Falls das übergebene Spaltenobjekt nicht mit dem richtigen {@link IterableCsvData}-Objekt erzeugt wurde
+		 */
+		public long getLong(CsvColumn<Long> column) throws CsvParseException {
+			final int columnIndex = checkColumn(column);
+			final CsvParser<Long> parser = column.getParser();
+			try {
+				if(parser instanceof CsvLongValueParser) {
+					if(_values != null) {
+						final String stringVal = _values[columnIndex];
+						return ((CsvLongValueParser) parser).parseLong(stringVal, 0, stringVal.length());
+					}
+					checkCellIndex(columnIndex);
+					return ((CsvLongValueParser) parser).parseLong(getCharView(), _cellBounds[columnIndex], _cellBounds[columnIndex + 1]);
+				}
+				return parser.parseString(getValue(columnIndex));
+			}
+			catch(IllegalArgumentException e){
+				throw new CsvParseException(e, _row, columnIndex);
+			}
+		}
+
+		/**
+		 * Gibt den Wert einer Double-Spalte innerhalb dieser Zeile als primitiven Wert zurück. Implementiert der Parser der
+		 * Spalte {@link CsvDoubleValueParser} (wie bei {@link IterableCsvData#getDoubleColumn(String)}), wird der Wert ohne
+		 * Boxing und ohne Erzeugen weiterer Strings geparst.
+		 * @param column Spalte
+		 * @return Wert
+		 * @throws de.kappich.sys.funclib.csv.CsvParseException Falls ein Problem beim Parsen des Wertes auftrat
+		 * @throws IllegalArgumentException Falls das übergebene Spaltenobjekt nicht mit dem richtigen {@link IterableCsvData}-Objekt erzeugt wurde
+		 */
+		public double getDouble(CsvColumn<Double> column) throws CsvParseException {
+			final int columnIndex = checkColumn(column);
+			final CsvParser<Double> parser = column.getParser();
+			try {
+				if(parser instanceof CsvDoubleValueParser) {
+					if(_values != null) {
+						final String stringVal = _values[columnIndex];
+						return ((CsvDoubleValueParser) parser).parseDouble(stringVal, 0, stringVal.length());
+					}
+					checkCellIndex(columnIndex);
+					return ((CsvDoubleValueParser) parser).parseDouble(getCharView(), _cellBounds[columnIndex], _cellBounds[columnIndex + 1]);
+				}
+				return parser.parseString(getValue(columnIndex));
+			}
+			catch(IllegalArgumentException e){
+				throw new CsvParseException(e, _row, columnIndex);
+			}
+		}
+
+		/**
+		 * Parst eine Zelle als int-Wert, ohne einen String zu erzeugen. Wird von {@link CsvBinder} verwendet, der die
+		 * Spaltenindizes bereits beim Binden geprüft hat.
+		 * @param columnIndex Spaltenindex
+		 * @return Wert
+		 * @throws CsvParseException Falls ein Problem beim Parsen des Wertes auftrat
+		 */
+		int getIntValue(final int columnIndex) throws CsvParseException {
+			try {
+				if(_values != null) {
+					final String stringVal = _values[columnIndex];
+					return CsvNumbers.parseInt(stringVal, 0, stringVal.length());
+				}
+				checkCellIndex(columnIndex);
+				return CsvNumbers.parseInt(getCharView(), _cellBounds[columnIndex], _cellBounds[columnIndex + 1]);
+			}
+			catch(IllegalArgumentException e){
+				throw new CsvParseException(e, _row, columnIndex);
+			}
+		}
+
+		/**
+		 * Parst eine Zelle als long-Wert, ohne einen String zu erzeugen
+		 * @param columnIndex Spaltenindex
+		 * @return Wert
+		 * @throws CsvParseException Falls ein Problem beim Parsen des Wertes auftrat
+		 */
+		long getLongValue(final int columnIndex) throws CsvParseException {
+			try {
+				if(_values != null) {
+					final String stringVal = _values[columnIndex];
+					return CsvNumbers.parseLong(stringVal, 0, stringVal.length());
+				}
+				checkCellIndex(columnIndex);
+				return CsvNumbers.parseLong(getCharView(), _cellBounds[columnIndex], _cellBounds[columnIndex + 1]);
+			}
+			catch(IllegalArgumentException e){
+				throw new CsvParseException(e, _row, columnIndex);
+			}
+		}
+
+		/**
+		 * Parst eine Zelle als double-Wert, ohne einen String zu erzeugen
+		 * @param columnIndex Spaltenindex
+		 * @return Wert
+		 * @throws CsvParseException Falls ein Problem beim Parsen des Wertes auftrat
+		 */
+		double getDoubleValue(final int columnIndex) throws CsvParseException {
+			try {
+				if(_values != null) {
+					final String stringVal = _values[columnIndex];
+					return CsvNumbers.parseDouble(stringVal, 0, stringVal.length());
+				}
+				checkCellIndex(columnIndex);
+				return CsvNumbers.parseDouble(getCharView(), _cellBounds[columnIndex], _cellBounds[columnIndex + 1]);
+			}
+			catch(IllegalArgumentException e){
+				throw new CsvParseException(e, _row, columnIndex);
+			}
+		}
+
+		/**
+		 * Parst eine Zelle mit einem beliebigen Parser
+		 * @param columnIndex Spaltenindex
+		 * @param parser Parser
+		 * @param nullIfEmpty Bestimmt, ob für eine leere Zelle <code>null</code> zurückgegeben wird
+		 * @return Wert
+		 * @throws CsvParseException Falls ein Problem beim Parsen des Wertes auftrat
+		 */
+		<T> T getParsedValue(final int columnIndex, final CsvParser<T> parser, final boolean nullIfEmpty) throws CsvParseException {
+			if(nullIfEmpty && getLength(columnIndex) == 0) return null;
+			try {
+				return parser.parseString(getValue(columnIndex));
+			}
+			catch(IllegalArgumentException e){
+				throw new CsvParseException(e, _row, columnIndex);
+			}
+		}
+
+		/**
+		 * Löst die beim Einlesen der Zeile aufgetretene Exception aus, falls vorhanden
+		 * @throws CsvParseException Falls beim Einlesen der Zeile ein Fehler auftrat
+		 */
+		void checkException() throws CsvParseException {
+			if(_exception != null){
+				throw new CsvParseException(_exception, _row);
+			}
+		}
+
+		/**
+		 * Gibt die CSV-Daten zurück, zu denen diese Zeile gehört
+		 * @return CSV-Daten
+		 */
+		IterableCsvData getCsvData() {
+			return IterableCsvData.this;
+		}
+
+		/**
+		 * Gibt den Zeilenindex für Fehlermeldungen zurück
+		 * @return Zeilenindex
+		 */
+		int getRowIndex() {
+			return _row;
+		}
+
+		/**
+		 * Prüft, ob die Zeile gültig ist und die Spalte zu diesem Objekt gehört
+		 * @param column Spalte
+		 * @return Spaltenindex
+		 * @throws de.kappich.sys.funclib.csv.CsvParseException Falls beim Einlesen der Zeile ein Fehler auftrat
+		 * @throws IllegalArgumentException Falls das übergebene Spaltenobjekt nicht mit dem richtigen {@link IterableCsvData}-Objekt erzeugt wurde
+		 */
+		private int checkColumn(final CsvColumn<?> column) throws CsvParseException {
+			if(_exception != null){
+				throw new CsvParseException(_exception, _row);
+			}
+			if(column.getCsvData() != IterableCsvData.this){
+				throw new IllegalArgumentException("Der column-Parameter passt nicht zum CsvData-Objekt.");
+			}
+			return column.getColumnIndex();
+		}
+
 		/**
 		 * Prüft, ob eine Spalte Daten enthält, also nicht leer ist
 		 * @param column Spalte
@@ -270,8 +534,7 @@ public abstract class IterableCsvData implements Iterable<IterableCsvData.CsvRow
 				throw new IllegalArgumentException("Der column-Parameter passt nicht zum CsvData-Objekt.");
 			}
 			int columnIndex = column.getColumnIndex();
-			String stringVal = _values[columnIndex];
-			return !stringVal.isEmpty();
+			return getLength(columnIndex) != 0;
 		}
 
 		/**
@@ -290,8 +553,8 @@ public abstract class IterableCsvData implements Iterable<IterableCsvData.CsvRow
 				throw new IllegalArgumentException("Der column-Parameter passt nicht zum CsvData-Objekt.");
 			}
 			int columnIndex = column.getColumnIndex();
-			String stringVal = _values[columnIndex];
-			if(stringVal.isEmpty()) return null;
+			if(getLength(columnIndex) == 0) return null;
+			String stringVal = getValue(columnIndex);
 			CsvParser<T> parser = column.getParser();
 			try {
 				return parser.parseString(stringVal);
@@ -303,18 +566,68 @@ public abstract class IterableCsvData implements Iterable<IterableCsvData.CsvRow
 
 		@Override
 		public String toString() {
-			return "Zeile " + _row + " "  + Arrays.toString(_values);
+			return "Zeile " + _row + " "  + Arrays.toString(_values != null || _chars == null ? _values : getValues());
 		}
 
 		public List<String> asList() throws CsvParseException {
 			if(_exception != null){
 				throw new CsvParseException(_exception, _row);
 			}
-			return Collections.unmodifiableList(Arrays.asList(_values));
+			return Collections.unmodifiableList(Arrays.asList(_values != null ? _values : getValues()));
 		}
 
 		public String getValue(int columnIndex){
-			return _values[columnIndex];
+			if(_values != null) return _values[columnIndex];
+			checkCellIndex(columnIndex);
+			final int start = _cellBounds[columnIndex];
+			return new String(_chars, start, _cellBounds[columnIndex + 1] - start);
+		}
+
+		/**
+		 * Gibt den Inhalt einer Zelle zurück, ohne einen String zu erzeugen, falls die Zeile mit
+		 * {@link CsvReader#setLazyRows(boolean)} eingelesen wurde. Die Rückgabe bleibt gültig, solange diese Zeile existiert.
+		 * @param columnIndex Spaltenindex
+		 * @return Zellinhalt
+		 */
+		public CharSequence getCharSequence(int columnIndex){
+			if(_values != null) return _values[columnIndex];
+			checkCellIndex(columnIndex);
+			final int start = _cellBounds[columnIndex];
+			return CharBuffer.wrap(_chars, start, _cellBounds[columnIndex + 1] - start);
+		}
+
+		/**
+		 * Gibt die Länge einer Zelle zurück
+		 * @param columnIndex Spaltenindex
+		 * @return Anzahl Zeichen
+		 */
+		private int getLength(final int columnIndex) {
+			if(_values != null) return _values[columnIndex].length();
+			checkCellIndex(columnIndex);
+			return _cellBounds[columnIndex + 1] - _cellBounds[columnIndex];
+		}
+
+		/**
+		 * Erzeugt die Strings aller Zellen
+		 * @return Zellinhalte
+		 */
+		private String[] getValues() {
+			final String[] values = new String[_cellBounds.length - 1];
+			for(int i = 0; i < values.length; i++) {
+				values[i] = getValue(i);
+			}
+			return values;
+		}
+
+		private void checkCellIndex(final int columnIndex) {
+			if(columnIndex >= _cellBounds.length - 1) throw new ArrayIndexOutOfBoundsException(columnIndex);
+		}
+
+		private CharBuffer getCharView() {
+			if(_charView == null) {
+				_charView = CharBuffer.wrap(_chars);
+			}
+			return _charView;
 		}
 	}
 }
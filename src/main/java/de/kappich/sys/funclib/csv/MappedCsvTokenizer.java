@@ -0,0 +1,485 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tokenizer, der eine Datei per {@link FileChannel#map(FileChannel.MapMode, long, long)} in den Speicher einblendet
+ * und Zeilenenden, Trennzeichen und Anführungszeichen direkt auf den Bytes sucht. Dekodiert werden nur die Zellinhalte.
+ * Dies ist nur für Kodierungen möglich, in denen alle Bytes unterhalb von 0x80 ASCII-Zeichen darstellen
+ * (siehe {@link #isSupported(Charset, char, char)}).
+ * <p>
+ * Die Datei wird in Fenstern von {@link #WINDOW_SIZE} Bytes eingeblendet, so dass auch Dateien mit mehr als 2 GB
+ * gelesen werden können. Für das parallele Einlesen kann ein Tokenizer auf einen Byte-Bereich der Datei beschränkt
+ * werden ({@link #createRangeTokenizer(long, long)}), er liefert dann alle Datensätze, die innerhalb des Bereichs beginnen.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class MappedCsvTokenizer extends CsvTokenizer {
+
+	/**
+	 * Größe eines eingeblendeten Dateiausschnitts
+	 */
+	static final int WINDOW_SIZE = 1 << 25;
+
+	private final FileChannel _channel;
+
+	/**
+	 * Bestimmt, ob {@link #_channel} beim Schließen dieses Tokenizers geschlossen wird
+	 */
+	private final boolean _ownsChannel;
+
+	/**
+	 * Dateigröße
+	 */
+	private final long _fileSize;
+
+	/**
+	 * Dateiposition, ab der keine neuen Datensätze mehr begonnen werden
+	 */
+	private final long _end;
+
+	/**
+	 * Dateikodierung
+	 */
+	private final Charset _encoding;
+
+	/**
+	 * Bytes können direkt als Zeichen übernommen werden (ISO-8859-1)
+	 */
+	private final boolean _latin1;
+
+	/**
+	 * Dekodierer für Zellinhalte mit Bytes außerhalb des ASCII-Bereichs
+	 */
+	private final CharsetDecoder _decoder;
+
+	/**
+	 * Puffer für dekodierte Zeilen, die von {@link #_lineSkipPolicy} geprüft werden
+	 */
+	private final CsvRecord _lineBuffer = new CsvRecord();
+
+	/**
+	 * Sicht auf die Bytes der aktuellen Zeile, falls {@link #_lineSkipPolicy} nur ASCII-Zeichen auswertet
+	 */
+	private final CsvLineView _lineView = new CsvLineView();
+
+	/**
+	 * Eingeblendeter Dateiausschnitt
+	 */
+	private MappedByteBuffer _window;
+
+	/**
+	 * Kopie von {@link #_window} mit eigener Position, für den Dekodierer
+	 */
+	private ByteBuffer _slice;
+
+	/**
+	 * Dateiposition des Fensteranfangs
+	 */
+	private long _windowStart;
+
+	/**
+	 * Nächste zu lesende Position im Fenster
+	 */
+	private int _pos;
+
+	/**
+	 * Die letzte Zeile endete mit '\r', ein folgendes '\n' gehört noch zum Zeilenende
+	 */
+	private boolean _skipLf;
+
+	/**
+	 * Start der aktuellen Zeile im Fenster
+	 */
+	private int _lineStart;
+
+	/**
+	 * Ende der aktuellen Zeile im Fenster (exklusive Zeilenende)
+	 */
+	private int _lineEnd;
+
+	/**
+	 * Konstruktor
+	 * @param file Datei
+	 * @param encoding Dateikodierung, muss {@link #isSupported(Charset, char, char)} erfüllen
+	 * @param csvSeparator Trennzeichen
+	 * @param csvQuote Maskierungszeichen (Anführungszeichen)
+	 * @param lineSkipPolicy Zu ignorierende Zeilen
+	 * @throws IOException IO-Fehler
+	 */
+	MappedCsvTokenizer(final Path file, final Charset encoding, final char csvSeparator, final char csvQuote, final CsvLineSkipPolicy lineSkipPolicy) throws IOException {
+		this(FileChannel.open(file, StandardOpenOption.READ), true, 0, Long.MAX_VALUE, encoding, csvSeparator, csvQuote, lineSkipPolicy);
+	}
+
+	private MappedCsvTokenizer(final FileChannel channel, final boolean ownsChannel, final long start, final long end, final Charset encoding, final char csvSeparator, final char csvQuote, final CsvLineSkipPolicy lineSkipPolicy) throws IOException {
+		super(csvSeparator, csvQuote, lineSkipPolicy);
+		_channel = channel;
+		_ownsChannel = ownsChannel;
+		_fileSize = _channel.size();
+		_end = end;
+		_encoding = encoding;
+		_latin1 = encoding.equals(StandardCharsets.ISO_8859_1);
+		_decoder = encoding.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		map(start, WINDOW_SIZE);
+	}
+
+	/**
+	 * Erzeugt einen Tokenizer mit denselben Einstellungen, der die Datensätze liefert, die in einem Byte-Bereich der Datei
+	 * beginnen. Der Bereich muss an einem Datensatzanfang beginnen. Der Tokenizer verwendet denselben FileChannel.
+	 * @param start Dateiposition des ersten Datensatzes
+	 * @param end Dateiposition, ab der keine neuen Datensätze mehr begonnen werden
+	 * @return Tokenizer
+	 * @throws IOException IO-Fehler
+	 */
+	MappedCsvTokenizer createRangeTokenizer(final long start, final long end) throws IOException {
+		final MappedCsvTokenizer tokenizer = new MappedCsvTokenizer(_channel, false, start, end, _encoding, _csvSeparator, _csvQuote, _lineSkipPolicy);
+		tokenizer.setSelectedCells(_record.getSelection());
+		tokenizer.setInterners(_record.getDefaultInterner(), _record.getCellInterners());
+		return tokenizer;
+	}
+
+	/**
+	 * Gibt den FileChannel der Datei zurück
+	 * @return FileChannel
+	 */
+	FileChannel getChannel() {
+		return _channel;
+	}
+
+	/**
+	 * Gibt die Dateigröße beim Erzeugen des Tokenizers zurück. Später angehängte Daten werden nicht gelesen.
+	 * @return Dateigröße in Byte
+	 */
+	long getFileSize() {
+		return _fileSize;
+	}
+
+	/**
+	 * Gibt die Dateiposition zurück, an der die nächste Zeile beginnt
+	 * @return Dateiposition
+	 * @throws IOException IO-Fehler
+	 */
+	long getLinePosition() throws IOException {
+		skipLf();
+		return _windowStart + _pos;
+	}
+
+	/**
+	 * Setzt die Leseposition auf einen Zeilenanfang
+	 * @param position Dateiposition
+	 * @throws IOException IO-Fehler
+	 */
+	void seek(final long position) throws IOException {
+		map(position, WINDOW_SIZE);
+		_pos = 0;
+		_skipLf = false;
+	}
+
+	/**
+	 * Gibt die Dateikodierung zurück
+	 * @return Kodierung
+	 */
+	Charset getEncoding() {
+		return _encoding;
+	}
+
+	/**
+	 * Gibt das Maskierungszeichen zurück
+	 * @return Maskierungszeichen
+	 */
+	char getQuote() {
+		return _csvQuote;
+	}
+
+	/**
+	 * Erzeugt einen Tokenizer für eine Datei. Falls die Zerlegung auf Byte-Ebene mit der Kodierung nicht möglich ist
+	 * oder die Datei komprimiert ist (siehe {@link CsvCompression}), wird die Datei über einen Reader gelesen.
+	 * @param file Datei
+	 * @param encoding Dateikodierung
+	 * @param csvSeparator Trennzeichen
+	 * @param csvQuote Maskierungszeichen (Anführungszeichen)
+	 * @param lineSkipPolicy Zu ignorierende Zeilen
+	 * @return Tokenizer
+	 * @throws IOException IO-Fehler
+	 */
+	static CsvTokenizer open(final Path file, final Charset encoding, final char csvSeparator, final char csvQuote, final CsvLineSkipPolicy lineSkipPolicy) throws IOException {
+		if(isSupported(encoding, csvSeparator, csvQuote) && !isCompressed(file)) {
+			return new MappedCsvTokenizer(file, encoding, csvSeparator, csvQuote, lineSkipPolicy);
+		}
+		final InputStream inputStream = new DecompressingInputStream(Files.newInputStream(file));
+		return new ReaderCsvTokenizer(new InputStreamReader(inputStream, encoding), csvSeparator, csvQuote, lineSkipPolicy);
+	}
+
+	/**
+	 * Prüft, ob eine Datei mit gzip komprimiert ist
+	 * @param file Datei
+	 * @return <code>true</code>, falls die Datei mit der Kennung des gzip-Formats beginnt
+	 * @throws IOException IO-Fehler
+	 */
+	private static boolean isCompressed(final Path file) throws IOException {
+		final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			final ByteBuffer magic = ByteBuffer.allocate(2);
+			while(magic.hasRemaining()) {
+				if(channel.read(magic) < 0) break;
+			}
+			return magic.position() == 2 && DecompressingInputStream.isGzip(magic.get(0) & 0xFF, magic.get(1) & 0xFF);
+		}
+		finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Prüft, ob Dateien mit der angegebenen Kodierung auf Byte-Ebene zerlegt werden können. Das ist der Fall, wenn
+	 * Trennzeichen und Anführungszeichen ASCII-Zeichen sind und die Kodierung alle Bytes unterhalb von 0x80 als ASCII
+	 * interpretiert und nicht als Teil eines Mehrbyte-Zeichens verwendet.
+	 * @param encoding Kodierung
+	 * @param csvSeparator Trennzeichen
+	 * @param csvQuote Maskierungszeichen (Anführungszeichen)
+	 * @return true falls unterstützt
+	 */
+	static boolean isSupported(final Charset encoding, final char csvSeparator, final char csvQuote) {
+		return csvSeparator < 0x80 && csvQuote < 0x80 && isAsciiCompatible(encoding);
+	}
+
+	/**
+	 * Prüft, ob eine Kodierung alle Bytes unterhalb von 0x80 als ASCII interpretiert und nicht als Teil eines
+	 * Mehrbyte-Zeichens verwendet, ASCII-Zeichen also als einzelnes Byte mit demselben Wert dargestellt werden
+	 * @param encoding Kodierung
+	 * @return true falls ASCII-kompatibel
+	 */
+	static boolean isAsciiCompatible(final Charset encoding) {
+		final String name = encoding.name();
+		return name.equals("UTF-8") || name.equals("US-ASCII") || name.startsWith("ISO-8859-") || name.startsWith("windows-125");
+	}
+
+	/**
+	 * Blendet einen neuen Dateiausschnitt ein
+	 * @param start Dateiposition
+	 * @param size gewünschte Größe
+	 * @throws IOException IO-Fehler
+	 */
+	private void map(final long start, final long size) throws IOException {
+		_window = _channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size, _fileSize - start));
+		_slice = _window.duplicate();
+		_windowStart = start;
+	}
+
+	/**
+	 * Blendet einen neuen Dateiausschnitt ab der aktuellen Leseposition ein, falls das Fenster nicht bis zum Dateiende
+	 * reicht.
+	 * @param required Anzahl Bytes ab der aktuellen Leseposition, die bereits gelesen wurden und im neuen Fenster enthalten
+	 *                 sein müssen
+	 * @return <code>false</code> falls das Dateiende erreicht ist
+	 * @throws IOException IO-Fehler
+	 */
+	private boolean remap(final int required) throws IOException {
+		final long position = _windowStart + _pos;
+		if(_windowStart + _window.limit() >= _fileSize) return false;
+		map(position, Math.max(WINDOW_SIZE, 2L * required));
+		_pos = 0;
+		return true;
+	}
+
+	@Override
+	boolean nextLine() throws IOException {
+		if(!skipLf()) return false;
+		if(_windowStart + _pos >= _end) return false;
+		return scanLine();
+	}
+
+	/**
+	 * Liest die Folgezeile eines mehrzeiligen Datensatzes, auch über das Bereichsende hinaus
+	 * @return <code>false</code> falls das Dateiende erreicht wurde
+	 * @throws IOException IO-Fehler
+	 */
+	private boolean continueLine() throws IOException {
+		return skipLf() && scanLine();
+	}
+
+	/**
+	 * Überspringt ein '\n' nach einem Zeilenende mit '\r'
+	 * @return <code>false</code> falls das Dateiende erreicht wurde
+	 * @throws IOException IO-Fehler
+	 */
+	private boolean skipLf() throws IOException {
+		if(_skipLf) {
+			if(_pos == _window.limit() && !remap(0)) return false;
+			if(_window.get(_pos) == '\n') _pos++;
+			_skipLf = false;
+		}
+		return true;
+	}
+
+	/**
+	 * Sucht das Ende der ab der aktuellen Position beginnenden Zeile
+	 * @return <code>false</code> falls das Dateiende erreicht wurde
+	 * @throws IOException IO-Fehler
+	 */
+	private boolean scanLine() throws IOException {
+		int i = _pos;
+		while(true) {
+			final ByteBuffer window = _window;
+			final int limit = window.limit();
+			for(; i < limit; i++) {
+				final byte b = window.get(i);
+				if(b == '\n' || b == '\r') {
+					_lineStart = _pos;
+					_lineEnd = i;
+					_pos = i + 1;
+					_skipLf = b == '\r';
+					return true;
+				}
+			}
+			final int scanned = i - _pos;
+			if(!remap(scanned)) {
+				if(_pos == limit) return false;
+				// Letzte Zeile ohne Zeilenende
+				_lineStart = _pos;
+				_lineEnd = limit;
+				_pos = limit;
+				return true;
+			}
+			i = scanned;
+		}
+	}
+
+	@Override
+	void close() throws IOException {
+		if(_ownsChannel) _channel.close();
+	}
+
+	@Override
+	boolean tokenizeLine(final int lineNum) throws IOException {
+		if(_lineSkipPolicy.isAsciiOnly()) {
+			if(_lineSkipPolicy.isSkipped(_lineView.set(_window, _lineStart, _lineEnd))) {
+				return false;
+			}
+		}
+		else {
+			_lineBuffer.clear();
+			appendDecoded(_lineBuffer, _lineStart, _lineEnd);
+			if(_lineSkipPolicy.isSkipped(_lineBuffer)) {
+				return false;
+			}
+		}
+
+		final CsvRecord record = _record;
+		final byte quote = (byte) _csvQuote;
+		final byte separator = (byte) _csvSeparator;
+		record.clear();
+		boolean inQuote = false;
+
+		while(true) {
+			final ByteBuffer window = _window;
+			final int end = _lineEnd;
+			int segmentStart = _lineStart;
+			for(int i = segmentStart; i < end; i++) {
+				final byte b = window.get(i);
+				if(inQuote) {
+					if(b == quote) {
+						appendDecoded(record, segmentStart, i);
+						// Doppelte Anführungszeichen innerhalb Anführungszeichen durch eins ersetzen
+						if((i + 1 < end) && (window.get(i + 1) == quote)) {
+							++i;
+							segmentStart = i;
+						}
+						else {
+							inQuote = false;
+							segmentStart = i + 1;
+						}
+					}
+				}
+				else {
+					if(b == quote) {
+						appendDecoded(record, segmentStart, i);
+						inQuote = true;
+						segmentStart = i + 1;
+					}
+					else if(b == separator) {
+						appendDecoded(record, segmentStart, i);
+						record.endCell();
+						segmentStart = i + 1;
+					}
+				}
+			}
+			appendDecoded(record, segmentStart, end);
+			if(inQuote) {
+				// Mehrzeiliger Text, weitere Zeile einlesen
+				if(!continueLine()) {
+					throw unexpectedEndOfFile(lineNum);
+				}
+				record.append('\n');
+			}
+			else {
+				break;
+			}
+		}
+
+		record.endCell();
+		return true;
+	}
+
+	/**
+	 * Dekodiert einen Bereich des aktuellen Fensters und hängt die Zeichen an einen Datensatz an
+	 * @param record Datensatz
+	 * @param from Startposition im Fenster
+	 * @param to Endposition (exklusiv) im Fenster
+	 */
+	private void appendDecoded(final CsvRecord record, final int from, final int to) {
+		if(from >= to) return;
+		if(_latin1) {
+			record.appendLatin1(_window, from, to);
+			return;
+		}
+		final int nonAscii = record.appendAscii(_window, from, to);
+		if(nonAscii < to) {
+			_slice.clear();
+			_slice.position(nonAscii);
+			_slice.limit(to);
+			record.appendDecoded(_decoder, _slice);
+		}
+	}
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Speicherung der Datensätze außerhalb des Java-Heaps, siehe {@link CsvDataStorage#OFF_HEAP} und
+ * {@link CsvDataStorage#MAPPED_FILE}. Die Datensätze werden hintereinander in Speicherblöcke geschrieben, auf dem Heap
+ * liegt nur die Position jedes Datensatzes (8 Byte je Datensatz).
+ * <p>
+ * Ein Datensatz besteht aus der Anzahl Zellen, dem Ende jeder Zelle und den Zeichen aller Zellen. Enthält ein Datensatz
+ * nur Zeichen bis U+00FF, wird jedes Zeichen als ein Byte gespeichert (im Kopf durch das höchste Bit markiert), sonst als
+ * zwei Byte. Ein Datensatz liegt immer vollständig in einem Block. Die Blöcke wachsen von 1 MB bis
+ * {@link #MAX_BLOCK_SIZE}, damit beim parallelen Einlesen mit vielen kleinen Teilspeichern wenig Speicher ungenutzt bleibt.
+ * <p>
+ * Beim Zugriff auf eine Zeile werden die Zeichen in ein neues char-Array kopiert, es wird nur absolut auf die Blöcke
+ * zugegriffen, so dass mehrere Threads gleichzeitig lesen können. Der Speicher wird freigegeben, sobald das
+ * {@link CsvData}-Objekt nicht mehr erreichbar ist.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class OffHeapCsvRowStore extends CsvRowStore {
+
+	/**
+	 * Größe des ersten Blocks in Byte
+	 */
+	static final int MIN_BLOCK_SIZE = 1 << 20;
+
+	/**
+	 * Maximale Größe eines Blocks in Byte. Größere Datensätze erhalten einen eigenen Block passender Größe.
+	 */
+	static final int MAX_BLOCK_SIZE = 1 << 26;
+
+	/**
+	 * Markierung im Kopf eines Datensatzes für Zeichen, die als einzelne Bytes gespeichert sind
+	 */
+	private static final int LATIN1_FLAG = 0x80000000;
+
+	/**
+	 * Blöcke in einer temporären Datei statt im direkten Speicher anlegen
+	 */
+	private final boolean _mapped;
+
+	private final List<ByteBuffer> _blocks = new ArrayList<ByteBuffer>();
+
+	/**
+	 * Block, in den aktuell geschrieben wird, oder <code>null</code>
+	 */
+	private ByteBuffer _block;
+
+	/**
+	 * Belegte Bytes in {@link #_block}
+	 */
+	private int _blockUsed;
+
+	/**
+	 * Position jedes Datensatzes, Blockindex in den oberen und Byteposition im Block in den unteren 32 Bit
+	 */
+	private long[] _rowPositions = new long[256];
+
+	/**
+	 * Anzahl Datensätze
+	 */
+	private int _size;
+
+	/**
+	 * Erstellt einen leeren Speicher
+	 * @param mapped <code>true</code>, falls die Blöcke in einer temporären Datei angelegt werden
+	 */
+	OffHeapCsvRowStore(final boolean mapped) {
+		_mapped = mapped;
+	}
+
+	@Override
+	void add(final CsvRecord record) {
+		final int length = record.length();
+		final int cellCount = record.getCellCount();
+		boolean latin1 = true;
+		for(int i = 0; i < length && latin1; i++) {
+			latin1 = record.charAt(i) <= 0xFF;
+		}
+		final long recordSize = 4L * (cellCount + 1) + (latin1 ? length : 2L * length);
+		if(recordSize > Integer.MAX_VALUE) throw new IllegalArgumentException("Datensatz zu groß: " + recordSize + " Byte");
+		if(_block == null || _blockUsed + recordSize > _block.capacity()) {
+			allocateBlock((int) recordSize);
+		}
+
+		final ByteBuffer block = _block;
+		int pos = _blockUsed;
+		block.putInt(pos, latin1 ? cellCount | LATIN1_FLAG : cellCount);
+		pos += 4;
+		for(int i = 0; i < cellCount; i++) {
+			block.putInt(pos, record.getCellEnd(i));
+			pos += 4;
+		}
+		if(latin1) {
+			for(int i = 0; i < length; i++) {
+				block.put(pos++, (byte) record.charAt(i));
+			}
+		}
+		else {
+			for(int i = 0; i < length; i++) {
+				block.putChar(pos, record.charAt(i));
+				pos += 2;
+			}
+		}
+
+		if(_size == _rowPositions.length) {
+			_rowPositions = Arrays.copyOf(_rowPositions, _size + (_size >> 1));
+		}
+		_rowPositions[_size++] = ((long) (_blocks.size() - 1) << 32) | _blockUsed;
+		_blockUsed = pos;
+	}
+
+	/**
+	 * Legt einen neuen Block an, der mindestens die angegebene Anzahl Bytes aufnehmen kann
+	 * @param minSize Mindestgröße
+	 */
+	private void allocateBlock(final int minSize) {
+		final int previousSize = _block == null ? MIN_BLOCK_SIZE / 2 : _block.capacity();
+		final int size = Math.max(minSize, Math.min(MAX_BLOCK_SIZE, previousSize * 2));
+		_block = _mapped ? mapTempFile(size) : ByteBuffer.allocateDirect(size);
+		_blocks.add(_block);
+		_blockUsed = 0;
+	}
+
+	/**
+	 * Bildet eine temporäre Datei in den Speicher ab. Die Datei wird direkt nach dem Abbilden gelöscht, der Speicher
+	 * bleibt bis zur Freigabe des Puffers gültig.
+	 * @param size Größe in Byte
+	 * @return Puffer
+	 */
+	private static ByteBuffer mapTempFile(final int size) {
+		try {
+			final Path file = Files.createTempFile("csvdata", ".tmp");
+			final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+			try {
+				return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			}
+			finally {
+				channel.close();
+			}
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException("Temporäre Datei konnte nicht angelegt werden", e);
+		}
+	}
+
+	@Override
+	void addAll(final CsvRowStore other) {
+		final OffHeapCsvRowStore store = (OffHeapCsvRowStore) other;
+		if(_size + store._size > _rowPositions.length) {
+			_rowPositions = Arrays.copyOf(_rowPositions, Math.max(_size + store._size, _rowPositions.length + (_rowPositions.length >> 1)));
+		}
+		final long blockOffset = (long) _blocks.size() << 32;
+		for(int i = 0; i < store._size; i++) {
+			_rowPositions[_size + i] = store._rowPositions[i] + blockOffset;
+		}
+		_size += store._size;
+		_blocks.addAll(store._blocks);
+		// Der letzte Block des anderen Speichers wird weiter befüllt
+		_block = store._block;
+		_blockUsed = store._blockUsed;
+	}
+
+	@Override
+	int size() {
+		return _size;
+	}
+
+	@Override
+	int getCellCount(final int index) {
+		final long position = getPosition(index);
+		return _blocks.get((int) (position >>> 32)).getInt((int) position) & ~LATIN1_FLAG;
+	}
+
+	@Override
+	String[] getEntry(final int index) {
+		final long position = getPosition(index);
+		final ByteBuffer block = _blocks.get((int) (position >>> 32));
+		final int[] bounds = readBounds(block, (int) position);
+		final char[] chars = readChars(block, (int) position, bounds);
+		final String[] values = new String[bounds.length - 1];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = bounds[i] == bounds[i + 1] ? "" : new String(chars, bounds[i], bounds[i + 1] - bounds[i]);
+		}
+		return values;
+	}
+
+	@Override
+	IterableCsvData.CsvRow getRow(final IterableCsvData data, final int index) {
+		final long position = getPosition(index);
+		final ByteBuffer block = _blocks.get((int) (position >>> 32));
+		final int[] bounds = readBounds(block, (int) position);
+		return data.new CsvRow(index, readChars(block, (int) position, bounds), bounds);
+	}
+
+	private long getPosition(final int index) {
+		if(index < 0 || index >= _size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+		return _rowPositions[index];
+	}
+
+	/**
+	 * Liest die Zellgrenzen eines Datensatzes
+	 * @param block Block
+	 * @param pos Position des Datensatzes im Block
+	 * @return Startposition jeder Zelle, gefolgt vom Ende der letzten Zelle
+	 */
+	private static int[] readBounds(final ByteBuffer block, final int pos) {
+		final int cellCount = block.getInt(pos) & ~LATIN1_FLAG;
+		final int[] bounds = new int[cellCount + 1];
+		for(int i = 0; i < cellCount; i++) {
+			bounds[i + 1] = block.getInt(pos + 4 + 4 * i);
+		}
+		return bounds;
+	}
+
+	/**
+	 * Liest die Zeichen eines Datensatzes
+	 * @param block Block
+	 * @param pos Position des Datensatzes im Block
+	 * @param bounds Zellgrenzen aus {@link #readBounds(ByteBuffer, int)}
+	 * @return Zeichen
+	 */
+	private static char[] readChars(final ByteBuffer block, final int pos, final int[] bounds) {
+		final boolean latin1 = (block.getInt(pos) & LATIN1_FLAG) != 0;
+		final char[] chars = new char[bounds[bounds.length - 1]];
+		int charPos = pos + 4 * bounds.length;
+		if(latin1) {
+			for(int i = 0; i < chars.length; i++) {
+				chars[i] = (char) (block.get(charPos++) & 0xFF);
+			}
+		}
+		else {
+			for(int i = 0; i < chars.length; i++) {
+				chars[i] = block.getChar(charPos);
+				charPos += 2;
+			}
+		}
+		return chars;
+	}
+}
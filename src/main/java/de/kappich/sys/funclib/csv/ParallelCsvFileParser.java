@@ -0,0 +1,397 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Liest die Datensätze einer Datei parallel ein. Die Datei wird dazu in Byte-Bereiche aufgeteilt, die unabhängig
+ * voneinander zerlegt werden.
+ * <p>
+ * Damit ein Bereich an einem Datensatzanfang beginnt, wird zunächst parallel die Anzahl der Anführungszeichen je
+ * Bereich gezählt. Aus der Parität ergibt sich, ob eine Bereichsgrenze innerhalb einer maskierten Zelle liegt. Von dort
+ * aus wird das nächste Zeilenende außerhalb von Anführungszeichen gesucht. Da Anführungszeichen in ignorierten Zeilen
+ * die Parität verfälschen können, wird beim Zusammenfügen geprüft, ob jeder Bereich genau dort beginnt, wo der
+ * vorherige endet. Ist das nicht der Fall, wird der Bereich ab der richtigen Position erneut eingelesen. Das Ergebnis
+ * ist daher immer identisch mit dem sequentiellen Einlesen.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class ParallelCsvFileParser {
+
+	/**
+	 * Minimale Größe eines Bereichs, kleinere Dateien werden sequentiell gelesen
+	 */
+	static final long MIN_CHUNK_SIZE = 1 << 22;
+
+	/**
+	 * Anzahl Bereiche je Thread des Pools, um ungleichmäßige Laufzeiten auszugleichen
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private final MappedCsvTokenizer _tokenizer;
+
+	/**
+	 * Filter für die Datensätze oder <code>null</code>
+	 */
+	private final CsvRowFilter _rowFilter;
+
+	private final ForkJoinPool _pool;
+
+	private final FileChannel _channel;
+
+	private final long _fileSize;
+
+	/**
+	 * Eingeblendeter Ausschnitt für {@link #byteAt(long)}
+	 */
+	private MappedByteBuffer _scanWindow;
+
+	/**
+	 * Dateiposition von {@link #_scanWindow}
+	 */
+	private long _scanWindowStart = -1;
+
+	/**
+	 * Anzahl gelesener Zeilen
+	 */
+	private int _lineCount;
+
+	/**
+	 * Konstruktor
+	 * @param tokenizer Tokenizer der Datei, dessen aktuelle Position den Beginn der Daten markiert
+	 * @param rowFilter Filter für die Datensätze mit aufgelösten Spaltenüberschriften oder <code>null</code>
+	 * @param pool Pool, in dem die Bereiche verarbeitet werden
+	 * @throws IOException IO-Fehler
+	 */
+	ParallelCsvFileParser(final MappedCsvTokenizer tokenizer, final CsvRowFilter rowFilter, final ForkJoinPool pool) throws IOException {
+		_tokenizer = tokenizer;
+		_rowFilter = rowFilter;
+		_pool = pool;
+		_channel = tokenizer.getChannel();
+		_fileSize = _channel.size();
+	}
+
+	/**
+	 * Liest alle Datensätze ab der aktuellen Position des Tokenizers bis zum Dateiende. Danach steht der Tokenizer
+	 * am Dateiende.
+	 * @param lineNum Zeilennummer vor dem ersten Datensatz, für Fehlermeldungen
+	 * @param storage Speicherung der Datensätze
+	 * @return Datensätze
+	 * @throws IOException IO-Fehler
+	 * @throws CsvParseException Fehler beim Parsen der CSV-Datei
+	 */
+	CsvRowStore parse(final int lineNum, final CsvDataStorage storage) throws IOException {
+		final long[] bounds = planChunks(_tokenizer.getLinePosition());
+
+		final List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>(bounds.length - 1);
+		for(int i = 0; i < bounds.length - 1; i++) {
+			futures.add(_pool.submit(new ChunkTask(bounds[i], bounds[i + 1], storage)));
+		}
+
+		final CsvRowStore entries = CsvRowStore.create(storage);
+		long expectedStart = bounds[0];
+		for(int i = 0; i < futures.size(); i++) {
+			Chunk chunk = await(futures.get(i));
+			if(chunk._start != expectedStart) {
+				// Bereichsgrenze lag nicht an einem Datensatzanfang, ab der richtigen Position erneut lesen
+				chunk = parseChunk(expectedStart, Math.max(expectedStart, bounds[i + 1]), storage);
+			}
+			if(chunk._exception != null) {
+				throw chunk._exception.withRowOffset(lineNum + _lineCount);
+			}
+			entries.addAll(chunk._entries);
+			_lineCount += chunk._lineCount;
+			expectedStart = chunk._endPosition;
+		}
+
+		_tokenizer.seek(expectedStart);
+		return entries;
+	}
+
+	/**
+	 * Gibt die Anzahl der bei {@link #parse(int, CsvDataStorage)} gelesenen Zeilen zurück, einschließlich ignorierter Zeilen
+	 * @return Anzahl Zeilen
+	 */
+	int getLineCount() {
+		return _lineCount;
+	}
+
+	/**
+	 * Teilt die Datei ab einer Position in Bereiche auf, die jeweils an einem Datensatzanfang beginnen
+	 * @param start Dateiposition des ersten Datensatzes
+	 * @return Bereichsgrenzen, der erste Eintrag ist <code>start</code>, der letzte die Dateigröße
+	 * @throws IOException IO-Fehler
+	 */
+	long[] planChunks(final long start) throws IOException {
+		final long length = _fileSize - start;
+		final int numChunks = (int) Math.max(1, Math.min((long) _pool.getParallelism() * CHUNKS_PER_THREAD, length / MIN_CHUNK_SIZE));
+		final long[] splits = new long[numChunks + 1];
+		for(int i = 0; i < numChunks; i++) {
+			splits[i] = start + length * i / numChunks;
+		}
+		splits[numChunks] = _fileSize;
+		if(numChunks == 1) return splits;
+
+		final List<Future<Boolean>> parities = new ArrayList<Future<Boolean>>(numChunks - 1);
+		for(int i = 0; i < numChunks - 1; i++) {
+			parities.add(_pool.submit(new QuoteParityTask(splits[i], splits[i + 1])));
+		}
+
+		final long[] bounds = new long[numChunks + 1];
+		bounds[0] = start;
+		bounds[numChunks] = _fileSize;
+		boolean inQuote = false;
+		for(int i = 1; i < numChunks; i++) {
+			inQuote ^= await(parities.get(i - 1));
+			bounds[i] = Math.max(bounds[i - 1], findRecordStart(splits[i], inQuote));
+		}
+		return bounds;
+	}
+
+	/**
+	 * Zählt die Datensätze in den Bereichen, die {@link #planChunks(long)} ermittelt hat. Gezählt werden Zeilenenden
+	 * außerhalb von Anführungszeichen, leere Zeilen nur auf Wunsch. Ein Filter wird nicht berücksichtigt.
+	 * @param bounds Bereichsgrenzen
+	 * @param countEmptyLines Bestimmt, ob leere Zeilen mitgezählt werden
+	 * @return Anzahl Datensätze je Bereich
+	 * @throws IOException IO-Fehler
+	 */
+	int[] countLines(final long[] bounds, final boolean countEmptyLines) throws IOException {
+		final List<Future<Integer>> futures = new ArrayList<Future<Integer>>(bounds.length - 1);
+		for(int i = 0; i < bounds.length - 1; i++) {
+			futures.add(_pool.submit(new LineCountTask(bounds[i], bounds[i + 1], countEmptyLines)));
+		}
+		final int[] result = new int[futures.size()];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = await(futures.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Sucht ab einer Position den nächsten Datensatzanfang
+	 * @param position Dateiposition
+	 * @param inQuote Bestimmt, ob die Position innerhalb von Anführungszeichen liegt
+	 * @return Dateiposition des nächsten Datensatzanfangs oder die Dateigröße
+	 * @throws IOException IO-Fehler
+	 */
+	private long findRecordStart(final long position, final boolean inQuote) throws IOException {
+		final byte quote = (byte) _tokenizer.getQuote();
+		boolean quoted = inQuote;
+		if(!quoted) {
+			final byte previous = byteAt(position - 1);
+			if(previous == '\n') return position;
+			if(previous == '\r') {
+				return position < _fileSize && byteAt(position) == '\n' ? position + 1 : position;
+			}
+		}
+		for(long i = position; i < _fileSize; i++) {
+			final byte b = byteAt(i);
+			if(b == quote) {
+				quoted = !quoted;
+			}
+			else if(!quoted && (b == '\n' || b == '\r')) {
+				if(b == '\r' && i + 1 < _fileSize && byteAt(i + 1) == '\n') return i + 2;
+				return i + 1;
+			}
+		}
+		return _fileSize;
+	}
+
+	/**
+	 * Liest ein einzelnes Byte der Datei
+	 * @param position Dateiposition
+	 * @return Byte
+	 * @throws IOException IO-Fehler
+	 */
+	private byte byteAt(final long position) throws IOException {
+		if(_scanWindowStart < 0 || position < _scanWindowStart || position >= _scanWindowStart + _scanWindow.limit()) {
+			_scanWindowStart = position;
+			_scanWindow = _channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MappedCsvTokenizer.WINDOW_SIZE, _fileSize - position));
+		}
+		return _scanWindow.get((int) (position - _scanWindowStart));
+	}
+
+	/**
+	 * Liest alle Datensätze, die in einem Bereich beginnen
+	 * @param start Dateiposition des ersten Datensatzes
+	 * @param end Dateiposition, ab der keine neuen Datensätze mehr begonnen werden
+	 * @param storage Speicherung der Datensätze
+	 * @return Ergebnis
+	 * @throws IOException IO-Fehler
+	 */
+	private Chunk parseChunk(final long start, final long end, final CsvDataStorage storage) throws IOException {
+		final MappedCsvTokenizer tokenizer = _tokenizer.createRangeTokenizer(start, end);
+		final Chunk chunk = new Chunk(start, CsvRowStore.create(storage));
+		try {
+			while(tokenizer.nextLine()) {
+				chunk._lineCount++;
+				if(tokenizer.tokenizeLine(chunk._lineCount) && (_rowFilter == null || _rowFilter.accept(tokenizer.getRecord()))) {
+					chunk._entries.add(tokenizer.getRecord());
+				}
+			}
+			chunk._endPosition = tokenizer.getLinePosition();
+		}
+		catch(CsvParseException e) {
+			// Erst beim Zusammenfügen auswerten, der Bereich könnte an einer falschen Position begonnen haben
+			chunk._exception = e;
+		}
+		return chunk;
+	}
+
+	private static <T> T await(final Future<T> future) throws IOException {
+		try {
+			return future.get();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.getMessage());
+		}
+		catch(ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if(cause instanceof IOException) throw (IOException) cause;
+			if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if(cause instanceof Error) throw (Error) cause;
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Ergebnis eines Bereichs
+	 */
+	private static final class Chunk {
+		private final long _start;
+		private final CsvRowStore _entries;
+		private int _lineCount;
+		private long _endPosition;
+		private CsvParseException _exception;
+
+		private Chunk(final long start, final CsvRowStore entries) {
+			_start = start;
+			_entries = entries;
+		}
+	}
+
+	private final class ChunkTask implements Callable<Chunk> {
+		private final long _start;
+		private final long _end;
+		private final CsvDataStorage _storage;
+
+		private ChunkTask(final long start, final long end, final CsvDataStorage storage) {
+			_start = start;
+			_end = end;
+			_storage = storage;
+		}
+
+		@Override
+		public Chunk call() throws IOException {
+			return parseChunk(_start, _end, _storage);
+		}
+	}
+
+	/**
+	 * Bestimmt, ob ein Bereich eine ungerade Anzahl Anführungszeichen enthält
+	 */
+	private final class QuoteParityTask implements Callable<Boolean> {
+		private final long _start;
+		private final long _end;
+
+		private QuoteParityTask(final long start, final long end) {
+			_start = start;
+			_end = end;
+		}
+
+		@Override
+		public Boolean call() throws IOException {
+			final byte quote = (byte) _tokenizer.getQuote();
+			int count = 0;
+			for(long position = _start; position < _end; position += MappedCsvTokenizer.WINDOW_SIZE) {
+				final MappedByteBuffer window = _channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MappedCsvTokenizer.WINDOW_SIZE, _end - position));
+				final int limit = window.limit();
+				for(int i = 0; i < limit; i++) {
+					if(window.get(i) == quote) count++;
+				}
+			}
+			return (count & 1) != 0;
+		}
+	}
+
+	/**
+	 * Zählt die Zeilenenden außerhalb von Anführungszeichen in einem Bereich, der an einem Datensatzanfang beginnt
+	 */
+	private final class LineCountTask implements Callable<Integer> {
+		private final long _start;
+		private final long _end;
+		private final boolean _countEmptyLines;
+
+		private LineCountTask(final long start, final long end, final boolean countEmptyLines) {
+			_start = start;
+			_end = end;
+			_countEmptyLines = countEmptyLines;
+		}
+
+		@Override
+		public Integer call() throws IOException {
+			final byte quote = (byte) _tokenizer.getQuote();
+			boolean quoted = false;
+			boolean afterCr = false;
+			boolean lineStarted = false;
+			int count = 0;
+			for(long position = _start; position < _end; position += MappedCsvTokenizer.WINDOW_SIZE) {
+				final MappedByteBuffer window = _channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MappedCsvTokenizer.WINDOW_SIZE, _end - position));
+				final int limit = window.limit();
+				for(int i = 0; i < limit; i++) {
+					final byte b = window.get(i);
+					if(b == quote) {
+						quoted = !quoted;
+						lineStarted = true;
+					}
+					else if(!quoted && (b == '\r' || b == '\n')) {
+						if(!(b == '\n' && afterCr) && (lineStarted || _countEmptyLines)) count++;
+						lineStarted = false;
+					}
+					else {
+						lineStarted = true;
+					}
+					afterCr = b == '\r' && !quoted;
+				}
+			}
+			return count;
+		}
+	}
+}
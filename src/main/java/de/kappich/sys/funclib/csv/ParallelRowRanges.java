@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Verarbeitet die Zeilen eines {@link CsvData}-Objekts parallel in Bereichen. Die Bereiche werden rekursiv halbiert, bis
+ * sie höchstens {@link #MIN_RANGE_SIZE} Zeilen enthalten, so dass der {@link ForkJoinPool} die Last über Work-Stealing
+ * verteilen kann.
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class ParallelRowRanges extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Minimale Anzahl Zeilen je Bereich, kleinere Datenmengen werden im aufrufenden Thread verarbeitet
+	 */
+	static final int MIN_RANGE_SIZE = 1 << 12;
+
+	/**
+	 * Verarbeitung eines Bereichs
+	 */
+	interface RangeAction {
+		/**
+		 * Verarbeitet einen Bereich. Wird für disjunkte Bereiche gleichzeitig von mehreren Threads aufgerufen.
+		 * @param from Erste Zeile
+		 * @param to Ende des Bereichs (exklusiv)
+		 * @throws CsvParseException Fehler beim Parsen eines Wertes
+		 */
+		void apply(int from, int to) throws CsvParseException;
+	}
+
+	private final RangeAction _action;
+
+	private final int _from;
+
+	private final int _to;
+
+	/**
+	 * Fehler mit der kleinsten Zeilennummer in diesem Bereich oder <code>null</code>
+	 */
+	private CsvParseException _exception;
+
+	private ParallelRowRanges(final RangeAction action, final int from, final int to) {
+		_action = action;
+		_from = from;
+		_to = to;
+	}
+
+	/**
+	 * Verarbeitet alle Zeilen von 0 bis <code>numRows</code> im {@link ForkJoinPool#commonPool() gemeinsamen ForkJoinPool}
+	 * @param numRows Anzahl Zeilen
+	 * @param action Verarbeitung eines Bereichs
+	 * @throws CsvParseException Der Fehler des ersten Bereichs, in dem ein Fehler auftrat. Die übrigen Bereiche werden
+	 * trotzdem vollständig verarbeitet.
+	 */
+	static void forEach(final int numRows, final RangeAction action) throws CsvParseException {
+		final ParallelRowRanges task = new ParallelRowRanges(action, 0, numRows);
+		if(numRows <= MIN_RANGE_SIZE) {
+			task.compute();
+		}
+		else {
+			ForkJoinPool.commonPool().invoke(task);
+		}
+		if(task._exception != null) throw task._exception;
+	}
+
+	@Override
+	protected void compute() {
+		if(_to - _from <= MIN_RANGE_SIZE) {
+			try {
+				_action.apply(_from, _to);
+			}
+			catch(CsvParseException e) {
+				_exception = e;
+			}
+			return;
+		}
+		final int mid = (_from + _to) >>> 1;
+		final ParallelRowRanges left = new ParallelRowRanges(_action, _from, mid);
+		final ParallelRowRanges right = new ParallelRowRanges(_action, mid, _to);
+		invokeAll(left, right);
+		_exception = left._exception != null ? left._exception : right._exception;
+	}
+}
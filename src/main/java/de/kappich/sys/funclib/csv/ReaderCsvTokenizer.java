@@ -0,0 +1,222 @@
+/*
+ * Copyright 2013 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.kappich.sys.funclib.csv.
+ * 
+ * de.kappich.sys.funclib.csv is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.kappich.sys.funclib.csv is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with de.kappich.sys.funclib.csv; If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.kappich.sys.funclib.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Tokenizer, der die Zeichen direkt aus einem {@link Reader} in einen wiederverwendbaren Puffer liest. Zeilenenden
+ * werden wie bei {@link java.io.BufferedReader#readLine()} erkannt ('\n', '\r' oder "\r\n").
+ *
+ * @author Kappich Systemberatung
+ * @version $Revision$
+ */
+final class ReaderCsvTokenizer extends CsvTokenizer {
+
+	/**
+	 * Anfangsgröße des Lesepuffers
+	 */
+	private static final int BUFFER_SIZE = 65536;
+
+	private final Reader _reader;
+
+	/**
+	 * Lesepuffer
+	 */
+	private char[] _buf = new char[BUFFER_SIZE];
+
+	/**
+	 * Nächste zu lesende Position im Puffer
+	 */
+	private int _pos;
+
+	/**
+	 * Anzahl gültiger Zeichen im Puffer
+	 */
+	private int _limit;
+
+	/**
+	 * Ende der Datenquelle erreicht
+	 */
+	private boolean _eof;
+
+	/**
+	 * Die letzte Zeile endete mit '\r', ein folgendes '\n' gehört noch zum Zeilenende
+	 */
+	private boolean _skipLf;
+
+	/**
+	 * Start der aktuellen Zeile im Puffer
+	 */
+	private int _lineStart;
+
+	/**
+	 * Ende der aktuellen Zeile im Puffer (exklusive Zeilenende)
+	 */
+	private int _lineEnd;
+
+	/**
+	 * Sicht auf die aktuelle Zeile für {@link #_lineSkipPolicy}
+	 */
+	private final CsvLineView _lineView = new CsvLineView();
+
+	/**
+	 * Konstruktor
+	 * @param reader Datenquelle
+	 * @param csvSeparator Trennzeichen
+	 * @param csvQuote Maskierungszeichen (Anführungszeichen)
+	 * @param lineSkipPolicy Zu ignorierende Zeilen
+	 */
+	ReaderCsvTokenizer(final Reader reader, final char csvSeparator, final char csvQuote, final CsvLineSkipPolicy lineSkipPolicy) {
+		super(csvSeparator, csvQuote, lineSkipPolicy);
+		_reader = reader;
+	}
+
+	@Override
+	boolean nextLine() throws IOException {
+		if(_skipLf) {
+			if(_pos == _limit && !fill()) return false;
+			if(_buf[_pos] == '\n') _pos++;
+			_skipLf = false;
+		}
+		int i = _pos;
+		while(true) {
+			for(; i < _limit; i++) {
+				final char c = _buf[i];
+				if(c == '\n' || c == '\r') {
+					_lineStart = _pos;
+					_lineEnd = i;
+					_pos = i + 1;
+					_skipLf = c == '\r';
+					return true;
+				}
+			}
+			final int scanned = i - _pos;
+			if(!fill()) {
+				if(_pos == _limit) return false;
+				// Letzte Zeile ohne Zeilenende
+				_lineStart = _pos;
+				_lineEnd = _limit;
+				_pos = _limit;
+				return true;
+			}
+			i = _pos + scanned;
+		}
+	}
+
+	/**
+	 * Liest weitere Zeichen in den Puffer. Noch nicht verarbeitete Zeichen ab {@link #_pos} werden an den Pufferanfang
+	 * verschoben, bei Bedarf wird der Puffer vergrößert.
+	 * @return <code>false</code> falls keine weiteren Zeichen gelesen werden konnten
+	 * @throws IOException IO-Fehler
+	 */
+	private boolean fill() throws IOException {
+		if(_eof) return false;
+		if(_pos > 0) {
+			System.arraycopy(_buf, _pos, _buf, 0, _limit - _pos);
+			_limit -= _pos;
+			_pos = 0;
+		}
+		else if(_limit == _buf.length) {
+			_buf = Arrays.copyOf(_buf, _buf.length * 2);
+		}
+		final int n = _reader.read(_buf, _limit, _buf.length - _limit);
+		if(n < 0) {
+			_eof = true;
+			return false;
+		}
+		_limit += n;
+		return true;
+	}
+
+	@Override
+	void close() throws IOException {
+		_reader.close();
+	}
+
+	@Override
+	boolean tokenizeLine(final int lineNum) throws IOException {
+		if(_lineSkipPolicy.isSkipped(_lineView.set(_buf, _lineStart, _lineEnd))) {
+			return false;
+		}
+
+		final CsvRecord record = _record;
+		record.clear();
+		boolean inQuote = false;
+
+		while(true) {
+			final char[] buf = _buf;
+			final int end = _lineEnd;
+			int segmentStart = _lineStart;
+			for(int i = segmentStart; i < end; i++) {
+				final char c = buf[i];
+				if(inQuote) {
+					if(c == _csvQuote) {
+						record.append(buf, segmentStart, i - segmentStart);
+						// Doppelte Anführungszeichen innerhalb Anführungszeichen durch eins ersetzen
+						if((i + 1 < end) && (buf[i + 1] == _csvQuote)) {
+							++i;
+							segmentStart = i;
+						}
+						else {
+							inQuote = false;
+							segmentStart = i + 1;
+						}
+					}
+				}
+				else {
+					if(c == _csvQuote) {
+						record.append(buf, segmentStart, i - segmentStart);
+						inQuote = true;
+						segmentStart = i + 1;
+					}
+					else if(c == _csvSeparator) {
+						record.append(buf, segmentStart, i - segmentStart);
+						record.endCell();
+						segmentStart = i + 1;
+					}
+				}
+			}
+			record.append(buf, segmentStart, end - segmentStart);
+			if(inQuote) {
+				// Mehrzeiliger Text, weitere Zeile einlesen
+				if(!nextLine()) {
+					throw unexpectedEndOfFile(lineNum);
+				}
+				record.append('\n');
+			}
+			else {
+				break;
+			}
+		}
+
+		record.endCell();
+		return true;
+	}
+}